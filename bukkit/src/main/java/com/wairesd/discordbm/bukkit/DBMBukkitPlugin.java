@@ -45,7 +45,7 @@ public class DBMBukkitPlugin extends JavaPlugin {
             threadPool.shutdown();
         }
         if (platform != null && platform.getNettyService() != null) {
-            platform.getNettyService().closeNettyConnection();
+            platform.getNettyService().shutdown();
         }
     }
 
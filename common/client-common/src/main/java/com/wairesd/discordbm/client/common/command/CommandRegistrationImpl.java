@@ -1,6 +1,5 @@
 package com.wairesd.discordbm.client.common.command;
 
-import com.google.gson.Gson;
 import com.wairesd.discordbm.api.command.Command;
 import com.wairesd.discordbm.api.command.CommandHandler;
 import com.wairesd.discordbm.api.command.CommandListener;
@@ -19,7 +18,6 @@ public class CommandRegistrationImpl implements CommandRegistration {
     
     private final Platform platform;
     private final Logger logger;
-    private final Gson gson = new Gson();
     private final List<Command> registeredCommands = new ArrayList<>();
     private final Map<String, CommandHandlerWrapper> commandHandlers = new ConcurrentHashMap<>();
 
@@ -113,7 +111,7 @@ public class CommandRegistrationImpl implements CommandRegistration {
                 .secret(secret)
                 .build();
         
-        platform.getNettyService().sendNettyMessage(gson.toJson(msg));
+        platform.getNettyService().sendNettyMessage(msg);
         
         if (platform.isDebugCommandRegistrations()) {
             logger.info("Sent registration message for command: " + command.getName());
@@ -129,7 +127,7 @@ public class CommandRegistrationImpl implements CommandRegistration {
         String serverName = platform.getServerName();
         com.wairesd.discordbm.common.models.unregister.UnregisterMessage msg =
                 new com.wairesd.discordbm.common.models.unregister.UnregisterMessage(serverName, pluginName, commandName, secret);
-        platform.getNettyService().sendNettyMessage(gson.toJson(msg));
+        platform.getNettyService().sendNettyMessage(msg);
         if (platform.isDebugCommandRegistrations()) {
             logger.info("Sent unregister message for command: " + commandName);
         }
@@ -1,12 +1,16 @@
 package com.wairesd.discordbm.client.common.config.configurators;
 
+import com.wairesd.discordbm.client.common.network.ReconnectSettings;
 import com.wairesd.discordbm.client.common.platform.PlatformConfig;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueSettings;
 import org.spongepowered.configurate.CommentedConfigurationNode;
 import org.spongepowered.configurate.ConfigurateException;
 import org.spongepowered.configurate.loader.ConfigurationLoader;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 
 public class Settings {
     private static CommentedConfigurationNode settingsConfig;
@@ -51,6 +55,46 @@ public class Settings {
         return settingsConfig.node("velocity", "port").getInt(8080);
     }
 
+    public static String getProtocol() {
+        return settingsConfig.node("velocity", "protocol").getString("binary");
+    }
+
+    public static boolean isCompression() {
+        return settingsConfig.node("velocity", "compression").getBoolean(true);
+    }
+
+    public static String getTransport() {
+        return settingsConfig.node("velocity", "transport").getString("auto");
+    }
+
+    public static String getUnixSocket() {
+        return settingsConfig.node("velocity", "unix-socket").getString("");
+    }
+
+    public static OutboundQueueSettings getOutboundQueueSettings() {
+        Map<String, String> policies = new HashMap<>();
+        settingsConfig.node("velocity", "outbound-policies").childrenMap()
+                .forEach((type, policy) -> policies.put(String.valueOf(type), policy.getString()));
+        return OutboundQueueSettings.of(
+                settingsConfig.node("velocity", "write-buffer-low-kb").getInt(32),
+                settingsConfig.node("velocity", "write-buffer-high-kb").getInt(64),
+                settingsConfig.node("velocity", "outbound-queue-size").getInt(1024),
+                policies);
+    }
+
+    public static int getEventLoopThreads() {
+        return settingsConfig.node("velocity", "event-loop-threads").getInt(1);
+    }
+
+    public static ReconnectSettings getReconnectSettings() {
+        return new ReconnectSettings(
+                settingsConfig.node("velocity", "reconnect-delay-ms").getLong(1000),
+                settingsConfig.node("velocity", "reconnect-max-delay-ms").getLong(60_000),
+                settingsConfig.node("velocity", "outbox-size").getInt(256),
+                settingsConfig.node("velocity", "outbox-ttl-seconds").getLong(300) * 1000,
+                settingsConfig.node("velocity", "outbox-interaction-ttl-seconds").getLong(15) * 1000);
+    }
+
     public static String getServerName() {
         return settingsConfig.node("server").getString("ServerName");
     }
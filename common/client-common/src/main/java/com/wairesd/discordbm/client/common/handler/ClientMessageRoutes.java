@@ -0,0 +1,189 @@
+package com.wairesd.discordbm.client.common.handler;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.wairesd.discordbm.api.command.CommandHandler;
+import com.wairesd.discordbm.client.common.DiscordBMAPIImpl;
+import com.wairesd.discordbm.client.common.command.CommandRegistrationImpl;
+import com.wairesd.discordbm.client.common.network.NettyClient;
+import com.wairesd.discordbm.client.common.platform.Platform;
+import com.wairesd.discordbm.client.common.role.RoleManagerImpl;
+import com.wairesd.discordbm.common.models.placeholders.request.CanHandlePlaceholdersRequest;
+import com.wairesd.discordbm.common.models.placeholders.request.GetPlaceholdersRequest;
+import com.wairesd.discordbm.common.models.placeholders.response.CanHandleResponse;
+import com.wairesd.discordbm.common.models.placeholders.response.PlaceholdersResponse;
+import com.wairesd.discordbm.common.models.request.RequestMessage;
+import com.wairesd.discordbm.common.models.response.RoleActionResponse;
+import com.wairesd.discordbm.common.network.codec.FrameCompression;
+import com.wairesd.discordbm.common.network.codec.WireFormat;
+import com.wairesd.discordbm.common.network.dispatch.MessageDispatcher;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueHandler;
+import com.wairesd.discordbm.common.utils.logging.PluginLogger;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Built-in routes for messages the client accepts from the host.
+ */
+public final class ClientMessageRoutes {
+    private static final String ERROR_HANDLER_NOT_FOUND = "{\"error\":\"Command handler not found\"}";
+    /** Messages the host never sheds; they keep flowing while sends are paused. */
+    private static final Set<String> CONTROL_TYPES = Set.of("client_register", "register", "unregister",
+            "add_role", "remove_role", "can_handle_response", "placeholders_response");
+    /** Control messages plus interaction replies, which the host sheds after bulk traffic. */
+    private static final Set<String> INTERACTION_TYPES = Set.of("client_register", "register", "unregister",
+            "add_role", "remove_role", "can_handle_response", "placeholders_response",
+            "response", "form", "edit_message", "edit_component");
+    private static final long DEFAULT_RETRY_AFTER_MS = 1_000;
+    private static final long MAX_RETRY_AFTER_MS = 30_000;
+    private static final long OVERLOAD_LOG_INTERVAL_MS = 60_000;
+    private final Supplier<Platform> platformSupplier;
+    private final PluginLogger pluginLogger;
+    private long lastOverloadLog;
+    private int unloggedOverloads;
+
+    private ClientMessageRoutes(Supplier<Platform> platformSupplier, PluginLogger pluginLogger) {
+        this.platformSupplier = platformSupplier;
+        this.pluginLogger = pluginLogger;
+    }
+
+    public static void registerDefaults(MessageDispatcher dispatcher, Supplier<Platform> platformSupplier,
+                                        PluginLogger pluginLogger) {
+        ClientMessageRoutes routes = new ClientMessageRoutes(platformSupplier, pluginLogger);
+        dispatcher
+                .register("auth_ok", JsonObject.class, routes::handleAuthOk)
+                .register("request", RequestMessage.class, (ctx, req) -> routes.handleRequest(req))
+                .register("modal_submit", JsonObject.class, (ctx, json) -> routes.handleModalSubmit(json))
+                .register("can_handle_placeholders", CanHandlePlaceholdersRequest.class, routes::handleCanHandlePlaceholders)
+                .register("get_placeholders", GetPlaceholdersRequest.class, routes::handleGetPlaceholders)
+                .register("role_action_response", RoleActionResponse.class, (ctx, resp) -> routes.handleRoleActionResponse(resp))
+                .register("overloaded", JsonObject.class, routes::handleOverloaded);
+    }
+
+    private void handleAuthOk(ChannelHandlerContext ctx, JsonObject json) {
+        if (json.has("protocol")) {
+            WireFormat.set(ctx.channel(), WireFormat.fromId(json.get("protocol").getAsString()));
+        }
+        if (json.has("compression") && FrameCompression.isSupported(json.get("compression").getAsString())) {
+            int threshold = json.has("compressionThreshold")
+                    ? json.get("compressionThreshold").getAsInt() : FrameCompression.DEFAULT_THRESHOLD;
+            FrameCompression.enable(ctx.channel(), threshold);
+        }
+        Platform platform = platformSupplier.get();
+        NettyClient client = platform.getNettyService().getNettyClient();
+        if (client != null) {
+            client.onAuthenticated();
+        }
+        platform.onNettyConnected();
+    }
+
+    private void handleRequest(RequestMessage req) {
+        Platform platform = platformSupplier.get();
+        String command = req.command();
+        String requestId = req.requestId();
+        Map<String, String> options = req.options() != null ? req.options() : new HashMap<>();
+        CommandHandler handler = platform.getCommandHandlers().get(command);
+        if (handler != null) {
+            platform.runTaskAsynchronously(() -> {
+                try {
+                    handler.handleCommand(command, options, requestId);
+                } catch (Exception e) {
+                    platform.getNettyService().sendResponse(requestId,
+                            "{\"error\":\"Internal server error\"}");
+                }
+            });
+        } else {
+            platform.getNettyService().sendResponse(requestId, ERROR_HANDLER_NOT_FOUND);
+        }
+    }
+
+    private void handleModalSubmit(JsonObject json) {
+        String command = json.get("command").getAsString();
+        String requestId = json.get("requestId").getAsString();
+        Map<String, String> modalData = new HashMap<>();
+        if (json.has("modalData")) {
+            JsonObject formJson = json.getAsJsonObject("modalData");
+            for (Map.Entry<String, JsonElement> entry : formJson.entrySet()) {
+                modalData.put(entry.getKey(), entry.getValue().getAsString());
+            }
+        }
+
+        CommandHandler handler = null;
+        if (platformSupplier.get().getCommandRegistration() instanceof CommandRegistrationImpl cmdReg) {
+            handler = cmdReg.getCommandHandler(command);
+        }
+        if (handler != null) {
+            try {
+                handler.handleFormSubmit(command, modalData, requestId);
+            } catch (Exception e) {
+                pluginLogger.error("Error handling form submit for " + command, e);
+            }
+        }
+    }
+
+    private void handleCanHandlePlaceholders(ChannelHandlerContext ctx, CanHandlePlaceholdersRequest req) {
+        Platform platform = platformSupplier.get();
+        platform.runTaskAsynchronously(() -> {
+            boolean canHandle = platform.checkIfCanHandle(req.player(), req.placeholders());
+            CanHandleResponse resp = new CanHandleResponse.Builder()
+                    .type("can_handle_response")
+                    .requestId(req.requestId())
+                    .canHandle(canHandle)
+                    .build();
+            ctx.channel().writeAndFlush(resp);
+        });
+    }
+
+    private void handleGetPlaceholders(ChannelHandlerContext ctx, GetPlaceholdersRequest req) {
+        Platform platform = platformSupplier.get();
+        platform.runTaskAsynchronously(() -> {
+            platform.getPlaceholderValues(req.player(), req.placeholders())
+                .thenAccept(values -> {
+                    PlaceholdersResponse resp = new PlaceholdersResponse.Builder()
+                            .type("placeholders_response")
+                            .requestId(req.requestId())
+                            .values(values)
+                            .build();
+                    ctx.channel().writeAndFlush(resp);
+                });
+        });
+    }
+
+    /**
+     * Pauses sending for the time the host asked for. Interaction replies
+     * keep flowing unless the host had to drop one of them; control messages
+     * always do.
+     */
+    private void handleOverloaded(ChannelHandlerContext ctx, JsonObject json) {
+        String dropped = json.has("dropped") && !json.get("dropped").isJsonNull() ? json.get("dropped").getAsString() : null;
+        long retryAfter = json.has("retryAfterMs") ? json.get("retryAfterMs").getAsLong() : DEFAULT_RETRY_AFTER_MS;
+        retryAfter = Math.max(0, Math.min(retryAfter, MAX_RETRY_AFTER_MS));
+        OutboundQueueHandler outbound = OutboundQueueHandler.of(ctx.channel());
+        if (outbound != null) {
+            outbound.pause(retryAfter, dropped != null && INTERACTION_TYPES.contains(dropped) ? CONTROL_TYPES : INTERACTION_TYPES);
+        }
+        logOverloaded(dropped, retryAfter);
+    }
+
+    private synchronized void logOverloaded(String dropped, long retryAfter) {
+        long now = System.currentTimeMillis();
+        if (now - lastOverloadLog < OVERLOAD_LOG_INTERVAL_MS) {
+            unloggedOverloads++;
+            return;
+        }
+        pluginLogger.warn("Host is overloaded and dropped a " + (dropped != null ? dropped : "unknown") + " message; pausing sends for "
+                + retryAfter + "ms" + (unloggedOverloads > 0 ? " (" + unloggedOverloads + " more notices since the last warning)" : "") + ".");
+        lastOverloadLog = now;
+        unloggedOverloads = 0;
+    }
+
+    private void handleRoleActionResponse(RoleActionResponse resp) {
+        if (platformSupplier.get() instanceof DiscordBMAPIImpl apiImpl) {
+            ((RoleManagerImpl) apiImpl.getRoleManager()).handleRoleActionResponse(resp);
+        }
+    }
+}
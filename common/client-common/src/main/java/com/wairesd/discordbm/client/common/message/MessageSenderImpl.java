@@ -1,6 +1,5 @@
 package com.wairesd.discordbm.client.common.message;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.wairesd.discordbm.api.component.Button;
 import com.wairesd.discordbm.api.embed.Embed;
@@ -25,7 +24,6 @@ public class MessageSenderImpl implements MessageSender {
     
     private final Platform platform;
     private final Logger logger;
-    private final Gson gson = new Gson();
     private ResponseType currentResponseType;
     private Boolean currentEphemeral;
 
@@ -45,8 +43,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -61,8 +58,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -78,8 +74,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -94,8 +89,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(modalDef)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -110,8 +104,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(modalDef)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -126,8 +119,7 @@ public class MessageSenderImpl implements MessageSender {
                 .flags(createResponseFlags())
                 .build();
         
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -142,8 +134,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -159,8 +150,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -175,8 +165,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -191,8 +180,7 @@ public class MessageSenderImpl implements MessageSender {
                 .flags(createResponseFlags())
                 .build();
         
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -207,8 +195,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -224,8 +211,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
         @Override
@@ -240,8 +226,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -257,8 +242,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -274,8 +258,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
     
     @Override
@@ -292,8 +275,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -308,8 +290,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -324,8 +305,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -339,8 +319,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -355,8 +334,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -372,8 +350,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -388,8 +365,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -403,8 +379,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -419,8 +394,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -436,8 +410,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -456,8 +429,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(null)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -473,8 +445,7 @@ public class MessageSenderImpl implements MessageSender {
                 .channelId(channelId)
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -588,8 +559,7 @@ public class MessageSenderImpl implements MessageSender {
                 .modal(convertToModalDefinition(modal))
                 .flags(createResponseFlags())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -600,8 +570,7 @@ public class MessageSenderImpl implements MessageSender {
                 .responses(messages)
                 .flags(new ResponseFlags.Builder().responseType("RANDOM_REPLY").build())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -614,8 +583,7 @@ public class MessageSenderImpl implements MessageSender {
                 .replyMentionAuthor(mentionAuthor)
                 .flags(new ResponseFlags.Builder().responseType("REPLY_TO_MESSAGE").build())
                 .build();
-        String json = gson.toJson(respMsg);
-        platform.getNettyService().sendNettyMessage(json);
+        platform.getNettyService().sendNettyMessage(respMsg);
     }
 
     @Override
@@ -0,0 +1,59 @@
+package com.wairesd.discordbm.client.common.network;
+
+import com.wairesd.discordbm.common.network.transport.NettyTransport;
+import com.wairesd.discordbm.common.utils.logging.PluginLogger;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Event loop for the client's single connection to the proxy.
+ *
+ * <p>Created on first use with a small fixed number of daemon threads rather
+ * than Netty's default of two per core, kept across reconnects and reloads,
+ * and shut down once when the plugin disables.</p>
+ */
+public final class ClientEventLoop {
+    private final int threads;
+    private final PluginLogger pluginLogger;
+    private NettyTransport transport;
+    private EventLoopGroup group;
+
+    public ClientEventLoop(int threads, PluginLogger pluginLogger) {
+        this.threads = Math.max(1, threads);
+        this.pluginLogger = pluginLogger;
+    }
+
+    /**
+     * Returns the shared group for a transport, creating it on first use. A
+     * group for another transport, e.g. after switching to a Unix socket, is
+     * replaced.
+     */
+    public synchronized EventLoopGroup get(NettyTransport transport) {
+        if (group != null && this.transport == transport && !group.isShuttingDown()) {
+            return group;
+        }
+        if (group != null) {
+            group.shutdownGracefully();
+        }
+        group = transport.newEventLoopGroup(threads, new DefaultThreadFactory("DiscordBM-Netty", true));
+        this.transport = transport;
+        pluginLogger.info("Started Netty client event loop with " + threads + " thread(s) on " + transport.id());
+        return group;
+    }
+
+    /**
+     * Threads owned by the event loop; 0 before the first connection and
+     * after shutdown.
+     */
+    public synchronized int getThreadCount() {
+        return group != null && !group.isShuttingDown() ? threads : 0;
+    }
+
+    public synchronized void shutdown() {
+        if (group != null) {
+            group.shutdownGracefully();
+            group = null;
+            pluginLogger.info("Stopped Netty client event loop (" + threads + " thread(s))");
+        }
+    }
+}
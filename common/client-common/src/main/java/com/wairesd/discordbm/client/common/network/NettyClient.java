@@ -2,8 +2,15 @@ package com.wairesd.discordbm.client.common.network;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import com.wairesd.discordbm.common.network.codec.ByteBufDecoder;
-import com.wairesd.discordbm.common.network.codec.ByteBufEncoder;
+import com.wairesd.discordbm.common.network.codec.BinaryProtocol;
+import com.wairesd.discordbm.common.network.codec.FrameCompression;
+import com.wairesd.discordbm.common.network.codec.FrameLimits;
+import com.wairesd.discordbm.common.network.codec.PipelineCodecs;
+import com.wairesd.discordbm.common.network.dispatch.MessageDispatcher;
+import com.wairesd.discordbm.common.network.transport.NettyTransport;
+import com.wairesd.discordbm.common.network.transport.OutboundBatch;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueHandler;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueSettings;
 import com.wairesd.discordbm.client.common.platform.Platform;
 import com.wairesd.discordbm.client.common.handler.MessageHandler;
 import com.wairesd.discordbm.client.common.models.command.Command;
@@ -14,91 +21,191 @@ import com.wairesd.discordbm.common.models.response.ResponseFlags;
 import com.wairesd.discordbm.common.utils.logging.PluginLogger;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.ScheduledFuture;
 
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class NettyClient {
     private final PluginLogger pluginLogger;
-    private final InetSocketAddress address;
+    private final SocketAddress address;
     private final Platform platform;
+    private final MessageDispatcher messageDispatcher;
+    private final ClientEventLoop eventLoop;
+    private final ReconnectSettings reconnectSettings;
+    private final ReconnectBackoff backoff;
+    private final Outbox outbox;
     private EventLoopGroup group;
-    private Channel channel;
+    private Bootstrap bootstrap;
+    private NettyTransport transport;
+    private volatile Channel channel;
+    private volatile boolean authenticated;
+    private volatile boolean closed;
+    private volatile boolean authRejected;
+    private ScheduledFuture<?> reconnectTask;
     private final Gson gson = new Gson();
-    private Runnable onConnectionFailure;
 
-    public NettyClient(InetSocketAddress address, Platform platform, PluginLogger pluginLogger) {
+    static {
+        BinaryProtocol.register(BinaryProtocol.TAG_REGISTER, RegisterMessage.class, new RegisterMessageCodec());
+    }
+
+    public NettyClient(SocketAddress address, Platform platform, MessageDispatcher messageDispatcher,
+                       ClientEventLoop eventLoop, PluginLogger pluginLogger) {
         this.address = address;
         this.platform = platform;
+        this.messageDispatcher = messageDispatcher;
+        this.eventLoop = eventLoop;
         this.pluginLogger = pluginLogger;
+        this.reconnectSettings = platform.getReconnectSettings();
+        this.backoff = new ReconnectBackoff(reconnectSettings.initialDelayMillis(), reconnectSettings.maxDelayMillis());
+        this.outbox = new Outbox(reconnectSettings.outboxSize());
     }
 
-    private void shutdownGroupAndNotify() {
-        if (group != null) group.shutdownGracefully();
-        if (onConnectionFailure != null) onConnectionFailure.run();
-    }
-
+    /**
+     * Connects to the proxy and keeps reconnecting with backoff whenever the
+     * connection fails or drops, until {@link #close()} is called. The event
+     * loop is shared and outlives this client.
+     */
     public void connect() {
         CompletableFuture.runAsync(() -> {
-            group = new NioEventLoopGroup();
-            Bootstrap bootstrap = new Bootstrap();
+            if (closed) {
+                return;
+            }
+            boolean unixSocket = address instanceof DomainSocketAddress;
+            transport = unixSocket ? NettyTransport.EPOLL : selectTransport();
+            group = eventLoop.get(transport);
+            OutboundQueueSettings outbound = platform.getOutboundQueueSettings();
+            bootstrap = new Bootstrap();
             bootstrap.group(group)
-                    .channel(NioSocketChannel.class)
-                    .option(ChannelOption.SO_KEEPALIVE, true)
-                    .handler(new ChannelInitializer<SocketChannel>() {
+                    .channel(unixSocket ? transport.domainSocketChannel() : transport.socketChannel())
+                    .handler(new ChannelInitializer<Channel>() {
                         @Override
-                        protected void initChannel(SocketChannel ch) {
-                            ch.pipeline().addLast("frameDecoder", new LengthFieldBasedFrameDecoder(65535, 0, 2, 0, 2));
-                            ch.pipeline().addLast("byteBufDecoder", new ByteBufDecoder());
-                            ch.pipeline().addLast("frameEncoder", new LengthFieldPrepender(2));
-                            ch.pipeline().addLast("byteBufEncoder", new ByteBufEncoder());
-                            ch.pipeline().addLast("handler", new MessageHandler(platform, pluginLogger));
+                        protected void initChannel(Channel ch) {
+                            PipelineCodecs.installClient(ch.pipeline(), FrameLimits.DEFAULT, outbound);
+                            ch.pipeline().addLast("handler", new MessageHandler(platform, messageDispatcher, pluginLogger));
                         }
-                    });
-            try {
-                ChannelFuture future = bootstrap.connect(address).sync();
-                if (future.isSuccess()) {
-                    channel = future.channel();
-                    if (platform.isDebugConnections()) {
-                        pluginLogger.info("Connected to Velocity at " + address.getHostString() + ":" + address.getPort());
-                    }
-                    registerClient();
-                } else {
-                    if (platform.isDebugConnections() || platform.isDebugErrors()) {
-                        pluginLogger.warn("Failed to connect to Velocity at " + address.getHostString() + ":" + address.getPort() + ": " + (future.cause() != null ? future.cause().getMessage() : "Unknown error"));
-                    } else {
-                        pluginLogger.warn("Failed to connect to Velocity server. Check your settings.yml configuration.");
-                    }
-                    shutdownGroupAndNotify();
-                }
-            } catch (InterruptedException e) {
-                if (platform.isDebugErrors()) {
-                    pluginLogger.error("Connection interrupted: " + e.getMessage());
-                }
-                Thread.currentThread().interrupt();
-                shutdownGroupAndNotify();
+                    })
+                    .option(ChannelOption.WRITE_BUFFER_WATER_MARK, outbound.waterMark());
+            if (!unixSocket) {
+                bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
             }
+            attemptConnect();
         }).exceptionally(throwable -> {
             if (platform.isDebugErrors()) {
                 pluginLogger.error("Error connecting to Velocity: " + (throwable != null ? throwable.getMessage() : "Unknown error"));
             } else {
                 pluginLogger.warn("Failed to connect to Velocity server. Check your settings.yml configuration.");
             }
-            shutdownGroupAndNotify();
             return null;
         });
     }
 
+    private void attemptConnect() {
+        if (closed) {
+            return;
+        }
+        bootstrap.connect(address).addListener((ChannelFutureListener) future -> {
+            if (future.isSuccess()) {
+                channel = future.channel();
+                if (platform.isDebugConnections()) {
+                    pluginLogger.info("Connected to Velocity at " + describeAddress() + " (" + transport.id() + ", "
+                            + eventLoop.getThreadCount() + " event loop thread(s))");
+                }
+                channel.closeFuture().addListener(closeFuture -> onDisconnected());
+                registerClient();
+                return;
+            }
+            if (backoff.attempts() == 0) {
+                if (platform.isDebugConnections() || platform.isDebugErrors()) {
+                    pluginLogger.warn("Failed to connect to Velocity at " + describeAddress() + ": " + (future.cause() != null ? future.cause().getMessage() : "Unknown error"));
+                } else {
+                    pluginLogger.warn("Failed to connect to Velocity server. Check your settings.yml configuration.");
+                }
+            }
+            scheduleReconnect();
+        });
+    }
+
+    private void onDisconnected() {
+        authenticated = false;
+        scheduleReconnect();
+    }
+
+    private synchronized void scheduleReconnect() {
+        if (closed || authRejected || group.isShuttingDown()) {
+            return;
+        }
+        long delay = backoff.nextDelayMillis();
+        if (platform.isDebugConnections()) {
+            pluginLogger.info("Reconnecting to Velocity in " + delay + "ms (attempt " + backoff.attempts() + ", "
+                    + eventLoop.getThreadCount() + " event loop thread(s) idle)");
+        }
+        reconnectTask = group.next().schedule(this::attemptConnect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called once the proxy accepted the registration. Sends everything that
+     * was buffered while disconnected, except messages that expired meanwhile.
+     */
+    public void onAuthenticated() {
+        backoff.reset();
+        synchronized (outbox) {
+            authenticated = true;
+            List<Object> pending = outbox.drain();
+            if (!pending.isEmpty()) {
+                new OutboundBatch().addAll(channel, pending).send();
+            }
+            if (platform.isDebugConnections() && (!pending.isEmpty() || outbox.getExpired() > 0)) {
+                pluginLogger.info("Replayed " + pending.size() + " buffered messages; " + outbox.getExpired()
+                        + " expired and " + outbox.getDropped() + " dropped so far");
+            }
+        }
+    }
+
+    /**
+     * Called when the proxy refused the registration. Retrying with the same
+     * secret cannot succeed, so the client stays disconnected until it is
+     * recreated, e.g. by a reload with fixed settings.
+     */
+    public void onAuthRejected(String reason) {
+        if (authRejected) {
+            return;
+        }
+        authRejected = true;
+        pluginLogger.warn("Velocity rejected the connection (" + reason + "). Not reconnecting; check the secret in settings.yml and reload.");
+    }
+
+    private String describeAddress() {
+        if (address instanceof InetSocketAddress inet) {
+            return inet.getHostString() + ":" + inet.getPort();
+        }
+        return address instanceof DomainSocketAddress unix ? "unix:" + unix.path() : String.valueOf(address);
+    }
+
+    private NettyTransport selectTransport() {
+        String preference = platform.getTransport();
+        NettyTransport requested = NettyTransport.fromId(preference);
+        NettyTransport transport = NettyTransport.select(preference);
+        if (requested != null && requested != transport) {
+            pluginLogger.warn("Netty transport " + requested.id() + " is not available (" + requested.unavailabilityReason()
+                    + "), falling back to " + transport.id());
+        }
+        return transport;
+    }
+
     public void close() {
+        closed = true;
+        synchronized (this) {
+            if (reconnectTask != null) reconnectTask.cancel(false);
+        }
         if (channel != null) channel.close();
-        if (group != null) group.shutdownGracefully();
         if (platform.isDebugConnections()) {
             pluginLogger.info("Netty client connection closed");
         }
@@ -108,9 +215,9 @@ public class NettyClient {
         String secretCode = platform.getSecretCode();
         if (secretCode == null || secretCode.isEmpty()) return;
 
-        ClientRegisterMessage clientRegisterMsg = new ClientRegisterMessage(platform.getServerName(), secretCode);
-        String json = gson.toJson(clientRegisterMsg);
-        send(json);
+        ClientRegisterMessage clientRegisterMsg = new ClientRegisterMessage(platform.getServerName(), secretCode,
+                platform.getProtocol(), platform.isCompressionEnabled() ? FrameCompression.DEFLATE : null);
+        channel.writeAndFlush(clientRegisterMsg);
 
         if (platform.isDebugCommandRegistrations()) {
             pluginLogger.info("Sent client registration message.");
@@ -130,63 +237,115 @@ public class NettyClient {
                 .commands(commands)
                 .secret(secret)
                 .build();
-        String json = gson.toJson(registerMsg);
-        send(json);
+        send(registerMsg);
 
         if (platform.isDebugCommandRegistrations()) {
             pluginLogger.info("Sent register message with commands: " + commands.stream().map(Command::getName).collect(Collectors.joining(", ")));
         }
     }
 
-    public void send(String message) {
-        if (isActive()) {
-            message = autoDetectAndUpdateResponseType(message);
-            channel.writeAndFlush(message);
-        } else {
-            pluginLogger.warn("Netty channel not active. Message not sent: " + message);
+    /**
+     * Sends a message to the host. Typed messages are encoded in the format
+     * negotiated at registration; strings are always sent as JSON text.
+     * While the client is not connected and registered, the message is kept
+     * in the outbox and sent after reconnecting.
+     */
+    public void send(Object message) {
+        Object outbound = autoDetectAndUpdateResponseType(message);
+        synchronized (outbox) {
+            if (authenticated && isActive()) {
+                channel.writeAndFlush(outbound);
+            } else {
+                buffer(outbound);
+            }
+        }
+    }
+
+    /**
+     * Sends several messages to the host in order, with a single flush.
+     */
+    public void sendAll(Collection<?> messages) {
+        List<Object> outbound = new ArrayList<>(messages.size());
+        for (Object message : messages) {
+            outbound.add(autoDetectAndUpdateResponseType(message));
+        }
+        synchronized (outbox) {
+            if (authenticated && isActive()) {
+                new OutboundBatch().addAll(channel, outbound).send();
+            } else {
+                outbound.forEach(this::buffer);
+            }
         }
     }
 
-    private String autoDetectAndUpdateResponseType(String message) {
+    private void buffer(Object message) {
+        if (closed) {
+            pluginLogger.warn("Netty client closed. Message not sent: " + message);
+            return;
+        }
+        if (message instanceof RegisterMessage<?> || message instanceof ClientRegisterMessage) {
+            return; // sent again after every reconnect
+        }
+        String type = OutboundQueueHandler.typeOf(message);
+        long ttl = isInteractionReply(type) ? reconnectSettings.interactionTtlMillis() : reconnectSettings.outboxTtlMillis();
+        if (!outbox.offer(message, ttl) && platform.isDebugErrors()) {
+            pluginLogger.warn("Netty channel not active and outbox disabled. Message not sent: " + message);
+        }
+    }
+
+    private static boolean isInteractionReply(String type) {
+        return "response".equals(type) || "form".equals(type)
+                || "edit_message".equals(type) || "edit_component".equals(type);
+    }
+
+    private Object autoDetectAndUpdateResponseType(Object message) {
         try {
-            JsonObject json = new com.google.gson.JsonParser().parse(message).getAsJsonObject();
-            String type = json.get("type") != null ? json.get("type").getAsString() : null;
-
-            if ("response".equals(type)) {
-                ResponseMessage respMsg = gson.fromJson(message, ResponseMessage.class);
-                ResponseTypeDetector.ResponseType responseType = ResponseTypeDetector.determineResponseType(respMsg);
-                ResponseFlags updatedFlags = ResponseTypeDetector.updateFlagsForResponseType(respMsg, responseType);
-                ResponseMessage updatedRespMsg = new ResponseMessage.Builder()
-                    .type(respMsg.type())
-                    .requestId(respMsg.requestId())
-                    .response(respMsg.response())
-                    .embed(respMsg.embed())
-                    .buttons(respMsg.buttons())
-                    .modal(respMsg.modal())
-                    .flags(updatedFlags)
-                    .userId(respMsg.userId())
-                    .channelId(respMsg.channelId())
-                    .conditions(respMsg.conditions())
-                    .responses(respMsg.responses())
-                    .replyMessageId(respMsg.replyMessageId())
-                    .replyMentionAuthor(respMsg.replyMentionAuthor())
-                    .build();
-                
-                if (platform.isDebugCommandRegistrations()) {
-                    pluginLogger.info("Auto-detected response type: %s for message", responseType);
+            if (message instanceof ResponseMessage respMsg) {
+                return "response".equals(respMsg.type()) ? withDetectedResponseType(respMsg) : respMsg;
+            }
+            if (message instanceof String text) {
+                JsonObject json = new com.google.gson.JsonParser().parse(text).getAsJsonObject();
+                String type = json.get("type") != null ? json.get("type").getAsString() : null;
+
+                if ("response".equals(type)) {
+                    return withDetectedResponseType(gson.fromJson(json, ResponseMessage.class));
                 }
-                
-                return gson.toJson(updatedRespMsg);
             }
         } catch (Exception e) {
             if (platform.isDebugErrors()) {
                 pluginLogger.error("Error auto-detecting response type: " + e.getMessage());
             }
         }
-        
+
         return message;
     }
 
+    private ResponseMessage withDetectedResponseType(ResponseMessage respMsg) {
+        ResponseTypeDetector.ResponseType responseType = ResponseTypeDetector.determineResponseType(respMsg);
+        ResponseFlags updatedFlags = ResponseTypeDetector.updateFlagsForResponseType(respMsg, responseType);
+        ResponseMessage updatedRespMsg = new ResponseMessage.Builder()
+            .type(respMsg.type())
+            .requestId(respMsg.requestId())
+            .response(respMsg.response())
+            .embed(respMsg.embed())
+            .buttons(respMsg.buttons())
+            .modal(respMsg.modal())
+            .flags(updatedFlags)
+            .userId(respMsg.userId())
+            .channelId(respMsg.channelId())
+            .conditions(respMsg.conditions())
+            .responses(respMsg.responses())
+            .replyMessageId(respMsg.replyMessageId())
+            .replyMentionAuthor(respMsg.replyMentionAuthor())
+            .build();
+
+        if (platform.isDebugCommandRegistrations()) {
+            pluginLogger.info("Auto-detected response type: %s for message", responseType);
+        }
+
+        return updatedRespMsg;
+    }
+
     public boolean isActive() {
         return channel != null && channel.isActive();
     }
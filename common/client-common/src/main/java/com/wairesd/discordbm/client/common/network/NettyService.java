@@ -1,12 +1,19 @@
 package com.wairesd.discordbm.client.common.network;
 
 import com.google.gson.Gson;
+import com.wairesd.discordbm.client.common.handler.ClientMessageRoutes;
 import com.wairesd.discordbm.client.common.models.command.Command;
 import com.wairesd.discordbm.client.common.platform.Platform;
 import com.wairesd.discordbm.common.models.embed.EmbedDefinition;
 import com.wairesd.discordbm.common.models.response.ResponseMessage;
+import com.wairesd.discordbm.common.network.correlation.PendingRequests;
+import com.wairesd.discordbm.common.network.dispatch.MessageDispatcher;
+import com.wairesd.discordbm.common.network.transport.NettyTransport;
 import com.wairesd.discordbm.common.utils.logging.PluginLogger;
+import io.netty.channel.unix.DomainSocketAddress;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Supplier;
 
@@ -14,11 +21,15 @@ public class NettyService {
     private final Supplier<Platform> platformSupplier;
     private final Gson gson = new Gson();
     private final PluginLogger pluginLogger;
+    private final MessageDispatcher messageDispatcher = new MessageDispatcher();
+    private final PendingRequests pendingRequests = new PendingRequests("c");
     private NettyClient nettyClient;
+    private ClientEventLoop eventLoop;
 
     public NettyService(Supplier<Platform> platformSupplier, PluginLogger pluginLogger) {
         this.platformSupplier = platformSupplier;
         this.pluginLogger = pluginLogger;
+        ClientMessageRoutes.registerDefaults(messageDispatcher, platformSupplier, pluginLogger);
     }
 
     private boolean isClientActive() {
@@ -35,7 +46,24 @@ public class NettyService {
             return;
         }
         
-        nettyClient = new NettyClient(new InetSocketAddress(host, port), platform, pluginLogger);
+        SocketAddress address = new InetSocketAddress(host, port);
+        String unixSocket = platform.getUnixSocket();
+        if (unixSocket != null && !unixSocket.isEmpty()) {
+            if (NettyTransport.EPOLL.isAvailable()) {
+                address = new DomainSocketAddress(unixSocket);
+            } else {
+                pluginLogger.warn("velocity.unix-socket needs the epoll transport, which is not available ("
+                        + NettyTransport.EPOLL.unavailabilityReason() + "). Connecting over TCP instead.");
+            }
+        }
+
+        if (nettyClient != null) {
+            nettyClient.close();
+        }
+        if (eventLoop == null) {
+            eventLoop = new ClientEventLoop(platform.getEventLoopThreads(), pluginLogger);
+        }
+        nettyClient = new NettyClient(address, platform, messageDispatcher, eventLoop, pluginLogger);
         try {
             nettyClient.connect();
         } catch (Exception e) {
@@ -46,7 +74,7 @@ public class NettyService {
     }
 
     public void closeNettyConnection() {
-        if (isClientActive()) {
+        if (nettyClient != null) {
             nettyClient.close();
             nettyClient = null;
             Platform platform = platformSupplier.get();
@@ -56,8 +84,21 @@ public class NettyService {
         }
     }
 
+    /**
+     * Closes the connection and releases the event loop and request timer.
+     * Called once when the plugin disables.
+     */
+    public void shutdown() {
+        closeNettyConnection();
+        if (eventLoop != null) {
+            eventLoop.shutdown();
+            eventLoop = null;
+        }
+        pendingRequests.shutdown();
+    }
+
     public void sendResponse(String requestId, String embedJson) {
-        if (isClientActive()) {
+        if (nettyClient != null) {
             try {
                 EmbedDefinition embedObj = gson.fromJson(embedJson, EmbedDefinition.class);
                 ResponseMessage respMsg = new ResponseMessage.Builder()
@@ -67,22 +108,33 @@ public class NettyService {
                         .embed(embedObj)
                         .buttons(null)
                         .build();
-                nettyClient.send(gson.toJson(respMsg));
+                nettyClient.send(respMsg);
             } catch (Exception e) {
                 pluginLogger.warn("Failed to parse embedJson for sendResponse: " + e.getMessage());
             }
         } else {
-            pluginLogger.warn("Netty client not active. Response not sent.");
+            pluginLogger.warn("Netty client not initialized. Response not sent.");
         }
     }
 
-    public void sendNettyMessage(String message) {
-        if (isClientActive()) {
+    public void sendNettyMessage(Object message) {
+        if (nettyClient != null) {
             nettyClient.send(message);
         } else {
             Platform platform = platformSupplier.get();
             if (platform.isDebugErrors()) {
-                pluginLogger.warn("Netty connection not active. Message not sent: " + message);
+                pluginLogger.warn("Netty client not initialized. Message not sent: " + message);
+            }
+        }
+    }
+
+    public void sendNettyMessages(Collection<?> messages) {
+        if (nettyClient != null) {
+            nettyClient.sendAll(messages);
+        } else {
+            Platform platform = platformSupplier.get();
+            if (platform.isDebugErrors()) {
+                pluginLogger.warn("Netty client not initialized. " + messages.size() + " messages not sent.");
             }
         }
     }
@@ -98,4 +150,20 @@ public class NettyService {
     public NettyClient getNettyClient() {
         return nettyClient;
     }
+
+    /**
+     * Requests sent to the host that are waiting for a reply. Entries are not
+     * tied to a channel, since the outbox may deliver them after a reconnect.
+     */
+    public PendingRequests getPendingRequests() {
+        return pendingRequests;
+    }
+
+    /**
+     * Routing table for messages received from the host. Addons can register
+     * additional message types here.
+     */
+    public MessageDispatcher getMessageDispatcher() {
+        return messageDispatcher;
+    }
 }
\ No newline at end of file
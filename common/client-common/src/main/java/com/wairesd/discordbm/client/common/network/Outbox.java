@@ -0,0 +1,72 @@
+package com.wairesd.discordbm.client.common.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded buffer for messages sent while the client is not connected to the
+ * proxy. Not thread-safe; {@link NettyClient} guards it.
+ */
+final class Outbox {
+    private final int capacity;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long dropped;
+    private long expired;
+
+    Outbox(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Buffers a message, dropping the oldest one if the outbox is full.
+     *
+     * @return whether the message was buffered
+     */
+    boolean offer(Object message, long ttlMillis) {
+        if (capacity == 0) {
+            dropped++;
+            return false;
+        }
+        if (entries.size() >= capacity) {
+            entries.pollFirst();
+            dropped++;
+        }
+        entries.addLast(new Entry(message, System.currentTimeMillis() + ttlMillis));
+        return true;
+    }
+
+    /**
+     * Removes and returns the buffered messages that have not expired yet,
+     * oldest first.
+     */
+    List<Object> drain() {
+        long now = System.currentTimeMillis();
+        List<Object> messages = new ArrayList<>(entries.size());
+        Entry entry;
+        while ((entry = entries.pollFirst()) != null) {
+            if (entry.expiresAt() > now) {
+                messages.add(entry.message());
+            } else {
+                expired++;
+            }
+        }
+        return messages;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long getDropped() {
+        return dropped;
+    }
+
+    long getExpired() {
+        return expired;
+    }
+
+    private record Entry(Object message, long expiresAt) {
+    }
+}
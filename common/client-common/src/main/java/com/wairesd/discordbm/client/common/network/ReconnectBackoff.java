@@ -0,0 +1,34 @@
+package com.wairesd.discordbm.client.common.network;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential reconnect delays with jitter. Each delay is picked at random
+ * between half and all of the current ceiling, so backends that lost the
+ * proxy at the same moment do not all come back at the same moment.
+ */
+final class ReconnectBackoff {
+    private final long initialMillis;
+    private final long maxMillis;
+    private int attempts;
+
+    ReconnectBackoff(long initialMillis, long maxMillis) {
+        this.initialMillis = initialMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    synchronized long nextDelayMillis() {
+        long ceiling = Math.min(maxMillis, initialMillis << Math.min(attempts, 20));
+        attempts++;
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    synchronized int attempts() {
+        return attempts;
+    }
+
+    synchronized void reset() {
+        attempts = 0;
+    }
+}
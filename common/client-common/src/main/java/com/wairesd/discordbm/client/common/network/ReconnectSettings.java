@@ -0,0 +1,24 @@
+package com.wairesd.discordbm.client.common.network;
+
+/**
+ * How the client reconnects to the proxy and what it keeps while it is away.
+ *
+ * @param initialDelayMillis   delay before the first reconnect attempt; doubles
+ *                             with every failed attempt
+ * @param maxDelayMillis       upper bound for the reconnect delay
+ * @param outboxSize           messages kept while disconnected; the oldest is
+ *                             dropped when full
+ * @param outboxTtlMillis      how long a buffered message stays deliverable
+ * @param interactionTtlMillis how long a buffered reply to a Discord
+ *                             interaction stays deliverable
+ */
+public record ReconnectSettings(long initialDelayMillis, long maxDelayMillis, int outboxSize,
+                                long outboxTtlMillis, long interactionTtlMillis) {
+    public static final ReconnectSettings DEFAULT = new ReconnectSettings(1000, 60_000, 256, 300_000, 15_000);
+
+    public ReconnectSettings {
+        initialDelayMillis = Math.max(100, initialDelayMillis);
+        maxDelayMillis = Math.max(initialDelayMillis, maxDelayMillis);
+        outboxSize = Math.max(0, outboxSize);
+    }
+}
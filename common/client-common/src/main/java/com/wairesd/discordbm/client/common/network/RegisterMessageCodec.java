@@ -0,0 +1,88 @@
+package com.wairesd.discordbm.client.common.network;
+
+import com.google.gson.reflect.TypeToken;
+import com.wairesd.discordbm.client.common.models.command.Command;
+import com.wairesd.discordbm.client.common.models.command.CommandOptions;
+import com.wairesd.discordbm.common.models.register.RegisterMessage;
+import com.wairesd.discordbm.common.network.codec.BinaryMessageCodec;
+import io.netty.buffer.ByteBuf;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.wairesd.discordbm.common.network.codec.BinaryProtocol.*;
+
+/**
+ * Binary form of {@code register} messages on the client side. The field layout
+ * must stay in sync with the host's codec for its {@code CommandDefinition} model.
+ */
+public class RegisterMessageCodec implements BinaryMessageCodec<RegisterMessage<Command>> {
+    private static final Type CONDITIONS_TYPE = new TypeToken<List<Map<String, Object>>>() {}.getType();
+
+    @Override
+    public void encode(RegisterMessage<Command> msg, ByteBuf out) {
+        writeString(out, msg.type());
+        writeString(out, msg.serverName());
+        writeString(out, msg.pluginName());
+        writeString(out, msg.secret());
+        if (writeSize(out, msg.commands())) {
+            for (Command cmd : msg.commands()) {
+                writeString(out, cmd.getName());
+                writeString(out, cmd.getDescription());
+                writeString(out, cmd.getPluginName());
+                writeString(out, cmd.getContext());
+                if (writeSize(out, cmd.getOptions())) {
+                    for (CommandOptions opt : cmd.getOptions()) {
+                        writeString(out, opt.getName());
+                        writeString(out, opt.getType());
+                        writeString(out, opt.getDescription());
+                        writeBoolean(out, opt.isRequired());
+                    }
+                }
+                writeString(out, cmd.getPermission());
+                writeJson(out, cmd.getConditions());
+            }
+        }
+    }
+
+    @Override
+    public RegisterMessage<Command> decode(ByteBuf in) {
+        RegisterMessage.Builder<Command> builder = new RegisterMessage.Builder<Command>()
+                .type(readString(in))
+                .serverName(readString(in))
+                .pluginName(readString(in))
+                .secret(readString(in));
+        int commandCount = readSize(in);
+        if (commandCount >= 0) {
+            List<Command> commands = new ArrayList<>(commandCount);
+            for (int i = 0; i < commandCount; i++) {
+                Command.Builder command = new Command.Builder()
+                        .name(readString(in))
+                        .description(readString(in))
+                        .pluginName(readString(in))
+                        .context(readString(in));
+                int optionCount = readSize(in);
+                if (optionCount >= 0) {
+                    List<CommandOptions> options = new ArrayList<>(optionCount);
+                    for (int j = 0; j < optionCount; j++) {
+                        options.add(new CommandOptions.Builder()
+                                .name(readString(in))
+                                .type(readString(in))
+                                .description(readString(in))
+                                .required(readBoolean(in))
+                                .build());
+                    }
+                    command.options(options);
+                }
+                commands.add(command
+                        .permission(readString(in))
+                        .conditions(readJson(in, CONDITIONS_TYPE))
+                        .build());
+            }
+            builder.commands(commands);
+        }
+        return builder.build();
+    }
+}
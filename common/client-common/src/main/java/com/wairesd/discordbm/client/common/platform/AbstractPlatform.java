@@ -7,8 +7,10 @@ import com.wairesd.discordbm.client.common.command.CommandRegistrationImpl;
 import com.wairesd.discordbm.client.common.listener.DiscordBMCRLB;
 import com.wairesd.discordbm.client.common.models.command.Command;
 import com.wairesd.discordbm.client.common.network.NettyService;
+import com.wairesd.discordbm.client.common.network.ReconnectSettings;
 import com.wairesd.discordbm.client.common.placeholders.PlaceholderService;
 import com.wairesd.discordbm.common.logging.LoggerAdapter;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueSettings;
 import com.wairesd.discordbm.common.utils.logging.PluginLogger;
 
 import java.util.*;
@@ -54,6 +56,41 @@ public abstract class AbstractPlatform implements Platform {
         return Settings.getSecretCode();
     }
 
+    @Override
+    public String getProtocol() {
+        return Settings.getProtocol();
+    }
+
+    @Override
+    public boolean isCompressionEnabled() {
+        return Settings.isCompression();
+    }
+
+    @Override
+    public String getTransport() {
+        return Settings.getTransport();
+    }
+
+    @Override
+    public String getUnixSocket() {
+        return Settings.getUnixSocket();
+    }
+
+    @Override
+    public OutboundQueueSettings getOutboundQueueSettings() {
+        return Settings.getOutboundQueueSettings();
+    }
+
+    @Override
+    public ReconnectSettings getReconnectSettings() {
+        return Settings.getReconnectSettings();
+    }
+
+    @Override
+    public int getEventLoopThreads() {
+        return Settings.getEventLoopThreads();
+    }
+
     @Override
     public boolean isDebugCommandRegistrations() {
         return Settings.isDebugCommandRegistrations();
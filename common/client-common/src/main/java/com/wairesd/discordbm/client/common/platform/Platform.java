@@ -5,6 +5,8 @@ import com.wairesd.discordbm.api.command.CommandHandler;
 import com.wairesd.discordbm.api.command.CommandRegistration;
 import com.wairesd.discordbm.client.common.models.command.Command;
 import com.wairesd.discordbm.client.common.network.NettyService;
+import com.wairesd.discordbm.client.common.network.ReconnectSettings;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueSettings;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.List;
@@ -15,6 +17,13 @@ public interface Platform {
     int getVelocityPort();
     String getServerName();
     String getSecretCode();
+    String getProtocol();
+    boolean isCompressionEnabled();
+    String getTransport();
+    String getUnixSocket();
+    OutboundQueueSettings getOutboundQueueSettings();
+    ReconnectSettings getReconnectSettings();
+    int getEventLoopThreads();
     boolean isDebugCommandRegistrations();
     boolean isDebugClientResponses();
     boolean isDebugConnections();
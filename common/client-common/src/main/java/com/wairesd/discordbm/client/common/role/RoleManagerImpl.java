@@ -1,20 +1,18 @@
 package com.wairesd.discordbm.client.common.role;
 
-import com.google.gson.Gson;
 import com.wairesd.discordbm.api.role.RoleManager;
 import com.wairesd.discordbm.client.common.platform.Platform;
 import com.wairesd.discordbm.common.models.request.AddRoleRequest;
 import com.wairesd.discordbm.common.models.request.RemoveRoleRequest;
 import com.wairesd.discordbm.common.models.response.RoleActionResponse;
+import com.wairesd.discordbm.common.network.correlation.PendingRequests;
 
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
 
 public class RoleManagerImpl implements RoleManager {
+    private static final long ROLE_REQUEST_TIMEOUT_MS = 15_000;
     private final Platform platform;
-    private final Gson gson = new Gson();
-    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> pendingRequests = new ConcurrentHashMap<>();
 
     public RoleManagerImpl(Platform platform) {
         this.platform = platform;
@@ -22,39 +20,37 @@ public class RoleManagerImpl implements RoleManager {
 
     @Override
     public CompletableFuture<Boolean> addRole(String guildId, String userId, String roleId) {
-        String requestId = UUID.randomUUID().toString();
-        AddRoleRequest request = new AddRoleRequest(guildId, userId, roleId, requestId);
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
-        pendingRequests.put(requestId, future);
-        sendRequest(gson.toJson(request));
-        return future;
+        PendingRequests.Request<RoleActionResponse> pending = register();
+        sendRequest(new AddRoleRequest(guildId, userId, roleId, pending.id()));
+        return toResult(pending);
     }
 
     @Override
     public CompletableFuture<Boolean> removeRole(String guildId, String userId, String roleId) {
-        String requestId = UUID.randomUUID().toString();
-        RemoveRoleRequest request = new RemoveRoleRequest(guildId, userId, roleId, requestId);
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
-        pendingRequests.put(requestId, future);
-        sendRequest(gson.toJson(request));
-        return future;
+        PendingRequests.Request<RoleActionResponse> pending = register();
+        sendRequest(new RemoveRoleRequest(guildId, userId, roleId, pending.id()));
+        return toResult(pending);
     }
 
-    private void sendRequest(String json) {
-        var nettyService = platform.getNettyService();
-        if (nettyService != null && nettyService.getNettyClient() != null && nettyService.getNettyClient().isActive()) {
-            nettyService.getNettyClient().send(json);
-        }
+    private PendingRequests.Request<RoleActionResponse> register() {
+        return platform.getNettyService().getPendingRequests()
+                .register(null, RoleActionResponse.class, ROLE_REQUEST_TIMEOUT_MS);
     }
 
-    public void handleRoleActionResponse(RoleActionResponse response) {
-        CompletableFuture<Boolean> future = pendingRequests.remove(response.getRequestId());
-        if (future != null) {
-            if (response.isSuccess()) {
-                future.complete(true);
-            } else {
-                future.completeExceptionally(new RuntimeException(response.getError()));
+    private CompletableFuture<Boolean> toResult(PendingRequests.Request<RoleActionResponse> pending) {
+        return pending.future().thenApply(response -> {
+            if (!response.isSuccess()) {
+                throw new CompletionException(new RuntimeException(response.getError()));
             }
-        }
+            return true;
+        });
+    }
+
+    private void sendRequest(Object request) {
+        platform.getNettyService().sendNettyMessage(request);
+    }
+
+    public void handleRoleActionResponse(RoleActionResponse response) {
+        platform.getNettyService().getPendingRequests().complete(response.getRequestId(), response);
     }
-} 
\ No newline at end of file
+}
@@ -27,6 +27,6 @@ public class CommandDefinitionRegistrar {
                 cmd.getConditions() != null ? cmd.getConditions().stream().map(c -> c instanceof Map ? (Map<String, Object>)c : null).toList() : List.of(),
                 cmd.getPluginName()
         );
-        nettyServer.getCommandDefinitions().put(cmd.getName(), def);
+        nettyServer.updateRouting(routing -> routing.putDefinition(def));
     }
 }
\ No newline at end of file
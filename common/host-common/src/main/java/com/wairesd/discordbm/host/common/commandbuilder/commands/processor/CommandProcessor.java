@@ -41,6 +41,13 @@ public class CommandProcessor {
                     event.reply("An error occurred while executing the command.").setEphemeral(true).queue();
                     return null;
                 });
+        } else if (command.isDirectReply()) {
+            executeActions(command.getActions(), context)
+                    .thenRun(() -> responder.replyDirectly(context, event, ephemeral))
+                    .exceptionally(ex -> {
+                        event.reply("An error occurred while executing the command.").setEphemeral(true).queue();
+                        return null;
+                    });
         } else {
             event.deferReply(ephemeral).queue(hook -> {
                 context.setHook(hook);
@@ -0,0 +1,58 @@
+package com.wairesd.discordbm.host.common.commandbuilder.commands.processor;
+
+import com.wairesd.discordbm.host.common.commandbuilder.components.buttons.action.ButtonAction;
+import com.wairesd.discordbm.host.common.commandbuilder.core.models.actions.CommandAction;
+import com.wairesd.discordbm.host.common.commandbuilder.core.models.context.ResponseType;
+import com.wairesd.discordbm.host.common.commandbuilder.interaction.messages.SendMessageAction;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds commands whose actions finish locally, without remote placeholders,
+ * forms or channel lookups. Those are answered with a single
+ * {@code event.reply(...)} instead of a defer followed by a hook message.
+ * Runs once when commands are loaded.
+ */
+public final class DirectReplyAnalyzer {
+    private static final List<String> REMOTE_PLACEHOLDERS = List.of("{server_");
+
+    private DirectReplyAnalyzer() {
+    }
+
+    public static boolean canReplyDirectly(List<CommandAction> actions) {
+        boolean replies = false;
+        for (CommandAction action : actions) {
+            if (action instanceof SendMessageAction sendMessage) {
+                if (!isLocalReply(sendMessage)) {
+                    return false;
+                }
+                replies = true;
+            } else if (!(action instanceof ButtonAction)) {
+                return false;
+            }
+        }
+        return replies;
+    }
+
+    private static boolean isLocalReply(SendMessageAction action) {
+        return action.getResponseType() == ResponseType.REPLY
+                && (action.getReplyMessageId() == null || action.getReplyMessageId().isEmpty())
+                && !usesRemotePlaceholders(action.getMessageTemplate())
+                && !usesRemotePlaceholders(action.getEmbedProperties());
+    }
+
+    private static boolean usesRemotePlaceholders(Object value) {
+        if (value instanceof String text) {
+            return REMOTE_PLACEHOLDERS.stream().anyMatch(text::contains);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.values().stream().anyMatch(DirectReplyAnalyzer::usesRemotePlaceholders);
+        }
+        if (value instanceof Collection<?> list) {
+            return list.stream().anyMatch(DirectReplyAnalyzer::usesRemotePlaceholders);
+        }
+        return false;
+    }
+}
@@ -1,9 +1,9 @@
 package com.wairesd.discordbm.host.common.commandbuilder.components.buttons.listener;
 
-import com.google.gson.Gson;
 import com.wairesd.discordbm.api.interaction.InteractionResponseCallback;
 import com.wairesd.discordbm.host.common.api.HostDiscordBMAPIImpl;
 import com.wairesd.discordbm.host.common.discord.DiscordBMHPlatformManager;
+import com.wairesd.discordbm.host.common.discord.selection.ServerSelector;
 import com.wairesd.discordbm.host.common.commandbuilder.components.buttons.service.ButtonActionService;
 import com.wairesd.discordbm.host.common.commandbuilder.security.buttons.checker.RoleChecker;
 import com.wairesd.discordbm.host.common.commandbuilder.components.buttons.form.ButtonFormBuilder;
@@ -15,7 +15,7 @@ import com.wairesd.discordbm.host.common.commandbuilder.core.models.pages.Page;
 import com.wairesd.discordbm.host.common.commandbuilder.utils.EmbedFactoryUtils;
 import com.wairesd.discordbm.host.common.commandbuilder.utils.MessageFormatterUtils;
 import com.wairesd.discordbm.host.common.config.configurators.Forms;
-import com.wairesd.discordbm.host.common.models.request.RequestMessage;
+import com.wairesd.discordbm.common.models.request.RequestMessage;
 import com.wairesd.discordbm.host.common.network.NettyServer;
 import com.wairesd.discordbm.api.component.ComponentHandler;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
@@ -47,6 +47,9 @@ public class ButtonInteractionListener extends ListenerAdapter {
     @Override
     public void onButtonInteraction(@NotNull ButtonInteractionEvent event) {
         String buttonId = event.getComponentId();
+        if (buttonId.startsWith(ServerSelector.CHANGE_SERVER_PREFIX)) {
+            return;
+        }
 
         if (buttonId.startsWith("refresh:")) {
             String[] parts = buttonId.split(":", 4);
@@ -72,8 +75,7 @@ public class ButtonInteractionListener extends ListenerAdapter {
                 }
 
                 RequestMessage request = new RequestMessage("request", commandName, data, newRequestId.toString());
-                String json = new Gson().toJson(request);
-                nettyServer.sendMessage(channel, json);
+                nettyServer.sendMessage(channel, request);
             });
         } else if (buttonId.startsWith("goto:")) {
             String targetPageId = buttonId.substring(5);
@@ -11,11 +11,6 @@ public class ChannelFinder {
     }
 
     public Channel findChannelForServer(String serverName) {
-        for (var entry : nettyServer.getChannelToServerName().entrySet()) {
-            if (entry.getValue().equals(serverName)) {
-                return entry.getKey();
-            }
-        }
-        return null;
+        return nettyServer.getChannelByServerName(serverName);
     }
 }
@@ -4,11 +4,11 @@ import com.wairesd.discordbm.host.common.commandbuilder.components.buttons.model
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
-import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.interactions.Interaction;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
 import net.dv8tion.jda.api.interactions.components.ActionRow;
 
 import java.util.ArrayList;
@@ -51,7 +51,7 @@ public class Context {
         this.event = event;
     }
 
-    public Context(SlashCommandInteractionEvent event) {
+    public Context(SlashCommandInteraction event) {
         if (event == null) {
             throw new IllegalArgumentException("Event cannot be null");
         }
@@ -69,8 +69,8 @@ public class Context {
             }
         }
 
-        if (event instanceof SlashCommandInteractionEvent) {
-            SlashCommandInteractionEvent slashEvent = (SlashCommandInteractionEvent) event;
+        if (event instanceof SlashCommandInteraction) {
+            SlashCommandInteraction slashEvent = (SlashCommandInteraction) event;
 
             int optionStartIdx = result.indexOf("{option:");
             while (optionStartIdx != -1) {
@@ -128,8 +128,8 @@ public class Context {
     }
 
     public String getOption(String name) {
-        if (event instanceof SlashCommandInteractionEvent) {
-            SlashCommandInteractionEvent slashEvent = (SlashCommandInteractionEvent) event;
+        if (event instanceof SlashCommandInteraction) {
+            SlashCommandInteraction slashEvent = (SlashCommandInteraction) event;
             OptionMapping option = slashEvent.getOption(name);
             return option != null ? option.getAsString() : null;
         }
@@ -2,7 +2,7 @@ package com.wairesd.discordbm.host.common.commandbuilder.core.models.placeholder
 
 import com.wairesd.discordbm.host.common.commandbuilder.core.models.context.Context;
 import net.dv8tion.jda.api.interactions.Interaction;
-import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.entities.channel.Channel;
 
@@ -27,8 +27,8 @@ public class PlaceholdersChannel implements Placeholder {
             return context.getEvent().getChannel().getId();
         }
 
-        if (context.getEvent() instanceof SlashCommandInteractionEvent) {
-            SlashCommandInteractionEvent slashEvent = (SlashCommandInteractionEvent) context.getEvent();
+        if (context.getEvent() instanceof SlashCommandInteraction) {
+            SlashCommandInteraction slashEvent = (SlashCommandInteraction) context.getEvent();
 
             if (targetId.startsWith("{") && targetId.endsWith("}")) {
                 String optionName = targetId.substring(1, targetId.length() - 1);
@@ -4,6 +4,7 @@ import com.wairesd.discordbm.host.common.commandbuilder.core.models.context.Cont
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.Interaction;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -11,11 +12,11 @@ public class PlaceholdersOption implements Placeholder {
     
     @Override
     public CompletableFuture<String> replace(String template, Interaction event, Context context) {
-        if (!(event instanceof SlashCommandInteractionEvent)) {
+        if (!(event instanceof SlashCommandInteraction)) {
             return CompletableFuture.completedFuture(template);
         }
         
-        SlashCommandInteractionEvent slashEvent = (SlashCommandInteractionEvent) event;
+        SlashCommandInteraction slashEvent = (SlashCommandInteraction) event;
         String result = template;
 
         int startIndex = result.indexOf("{option:");
@@ -9,6 +9,9 @@ import java.util.concurrent.CompletableFuture;
 public class PlaceholdersServer implements Placeholder {
     @Override
     public CompletableFuture<String> replace(String template, Interaction event, Context context) {
+        if (!template.contains("{server_")) {
+            return CompletableFuture.completedFuture(template);
+        }
         Guild guild = event.getGuild();
         if (guild == null) {
             return CompletableFuture.completedFuture(template
@@ -17,11 +17,24 @@ public class CommandStructured {
     private final List<CommandAction> failActions;
     private final String permission;
     private final String pluginName;
+    private final boolean directReply;
 
     public CommandStructured(String name, String description, String context,
                              List<CommandOptions> options, List<CommandCondition> conditions,
                              List<CommandAction> actions, List<CommandAction> failActions,
                              String permission, String pluginName) {
+        this(name, description, context, options, conditions, actions, failActions, permission, pluginName, false);
+    }
+
+    /**
+     * @param directReply whether the actions only build a local reply, so the
+     *                    command is answered with one reply instead of a
+     *                    defer and a follow-up
+     */
+    public CommandStructured(String name, String description, String context,
+                             List<CommandOptions> options, List<CommandCondition> conditions,
+                             List<CommandAction> actions, List<CommandAction> failActions,
+                             String permission, String pluginName, boolean directReply) {
         validateInputs(name, description, context);
         this.name = name;
         this.description = description;
@@ -32,6 +45,7 @@ public class CommandStructured {
         this.failActions = failActions != null ? List.copyOf(failActions) : List.of();
         this.permission = permission;
         this.pluginName = pluginName;
+        this.directReply = directReply;
     }
 
     private void validateInputs(String name, String description, String context) {
@@ -50,6 +64,10 @@ public class CommandStructured {
         return actions.stream().anyMatch(action -> action instanceof SendModalAction);
     }
 
+    public boolean isDirectReply() {
+        return directReply;
+    }
+
     public String getName() {
         return name;
     }
@@ -67,6 +67,18 @@ public class SendMessageAction implements CommandAction {
         return replyMessageId;
     }
 
+    public ResponseType getResponseType() {
+        return responseType;
+    }
+
+    public String getMessageTemplate() {
+        return messageTemplate;
+    }
+
+    public Map<String, Object> getEmbedProperties() {
+        return embedProperties;
+    }
+
     @Override
     public CompletableFuture<Void> execute(Context context) {
         ContextUtils.validate(context);
@@ -1,60 +1,72 @@
 package com.wairesd.discordbm.host.common.commandbuilder.interaction.placeholders;
 
-import com.google.gson.Gson;
 import com.wairesd.discordbm.common.models.placeholders.request.CanHandlePlaceholdersRequest;
 import com.wairesd.discordbm.common.models.placeholders.request.GetPlaceholdersRequest;
 import com.wairesd.discordbm.common.models.placeholders.response.PlaceholdersResponse;
+import com.wairesd.discordbm.common.network.correlation.PendingRequests;
+import com.wairesd.discordbm.common.network.transport.OutboundBatch;
 import com.wairesd.discordbm.common.utils.logging.PluginLogger;
 import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
+import com.wairesd.discordbm.host.common.config.configurators.Settings;
 import com.wairesd.discordbm.host.common.network.NettyServer;
 import io.netty.channel.Channel;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import org.slf4j.LoggerFactory;
 
 public class PlaceholderRequestSender {
     private static final PluginLogger logger = new Slf4jPluginLogger(LoggerFactory.getLogger("DiscordBM"));
     private final NettyServer nettyServer;
-    private final Gson gson = new Gson();
 
     public PlaceholderRequestSender(NettyServer nettyServer) {
         this.nettyServer = nettyServer;
     }
 
     public CompletableFuture<Boolean> sendCanHandlePlaceholdersRequest(Channel channel, String playerName, List<String> placeholders) {
-        String requestId = UUID.randomUUID().toString();
-        CanHandlePlaceholdersRequest req = new CanHandlePlaceholdersRequest.Builder()
-                .type("can_handle_placeholders")
-                .player(playerName)
-                .placeholders(placeholders)
-                .requestId(requestId)
-                .build();
-        String json = gson.toJson(req);
+        return sendCanHandlePlaceholdersRequests(List.of(channel), playerName, placeholders).get(channel);
+    }
 
-        nettyServer.sendMessage(channel, json);
+    /**
+     * Asks every channel whether it can resolve the placeholders. All requests
+     * go out as one batch, with a single flush per channel.
+     */
+    public Map<Channel, CompletableFuture<Boolean>> sendCanHandlePlaceholdersRequests(Collection<Channel> channels,
+                                                                                      String playerName,
+                                                                                      List<String> placeholders) {
+        Map<Channel, CompletableFuture<Boolean>> futures = new LinkedHashMap<>();
+        OutboundBatch batch = new OutboundBatch();
+        for (Channel channel : channels) {
+            PendingRequests.Request<Boolean> pending = nettyServer.getPendingRequests()
+                    .register(channel, Boolean.class, Settings.getNettyRequestTimeoutMs());
+            CanHandlePlaceholdersRequest req = new CanHandlePlaceholdersRequest.Builder()
+                    .type("can_handle_placeholders")
+                    .player(playerName)
+                    .placeholders(placeholders)
+                    .requestId(pending.id())
+                    .build();
 
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
-        nettyServer.getCanHandleFutures().put(requestId, future);
-        return future;
+            futures.put(channel, pending.future());
+            batch.add(channel, req);
+        }
+        batch.send();
+        return futures;
     }
 
     public CompletableFuture<Map<String, String>> sendGetPlaceholdersRequest(Channel channel, String playerName, List<String> placeholders) {
-        String requestId = UUID.randomUUID().toString();
+        PendingRequests.Request<PlaceholdersResponse> pending = nettyServer.getPendingRequests()
+                .register(channel, PlaceholdersResponse.class, Settings.getNettyRequestTimeoutMs());
         GetPlaceholdersRequest req = new GetPlaceholdersRequest.Builder()
                 .type("get_placeholders")
                 .player(playerName)
                 .placeholders(placeholders)
-                .requestId(requestId)
+                .requestId(pending.id())
                 .build();
-        String json = gson.toJson(req);
-
-        nettyServer.sendMessage(channel, json);
 
-        CompletableFuture<PlaceholdersResponse> futureResp = new CompletableFuture<>();
-        nettyServer.getPlaceholderFutures().put(requestId, futureResp);
+        nettyServer.sendMessage(channel, req);
 
-        return futureResp.thenApply(PlaceholdersResponse::values);
+        return pending.future().thenApply(PlaceholdersResponse::values);
     }
 }
@@ -84,11 +84,8 @@ public class PlaceholdersResolver {
             List<Channel> channels = new ArrayList<>(nettyServer.getChannelToServerName().keySet());
             Map<String, CompletableFuture<Boolean>> canHandleFutures = new HashMap<>();
 
-            for (Channel channel : channels) {
-                String serverName = nettyServer.getServerName(channel);
-                canHandleFutures.put(serverName,
-                        requestSender.sendCanHandlePlaceholdersRequest(channel, playerName, placeholders));
-            }
+            requestSender.sendCanHandlePlaceholdersRequests(channels, playerName, placeholders)
+                    .forEach((channel, future) -> canHandleFutures.put(nettyServer.getServerName(channel), future));
 
             CompletableFuture<Void> all = CompletableFuture.allOf(canHandleFutures.values().toArray(new CompletableFuture[0]));
 
@@ -83,6 +83,22 @@ public class CommandResponder {
         }
     }
 
+    /**
+     * Answers the interaction with one reply, for commands whose actions
+     * finish without deferring.
+     */
+    public void replyDirectly(Context context, SlashCommandInteractionEvent event, boolean ephemeral) {
+        var msg = event.reply(context.replacePlaceholders(context.getMessageText())).setEphemeral(ephemeral);
+        if (context.getEmbed() != null) msg.setEmbeds(context.getEmbed());
+        if (!context.getActionRows().isEmpty()) msg.setComponents(context.getActionRows());
+        msg.queue(hook -> {
+            context.setHook(hook);
+            if (context.getExpectedMessageLabel() != null) {
+                hook.retrieveOriginal().queue(m -> label(context, m.getChannel().getId(), m.getId()));
+            }
+        });
+    }
+
     private void sendReply(Context context) {
         InteractionHook hook = context.getHook();
         if (hook == null) {
@@ -9,9 +9,9 @@ import com.wairesd.discordbm.host.common.commandbuilder.core.models.placeholders
 import com.wairesd.discordbm.host.common.commandbuilder.core.models.placeholders.PlaceholdersOption;
 import com.wairesd.discordbm.host.common.commandbuilder.core.models.placeholders.PlaceholdersDiscordBM;
 import com.wairesd.discordbm.host.common.commandbuilder.core.models.context.Context;
-import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.Interaction;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
 import org.slf4j.LoggerFactory;
 import java.util.concurrent.CompletableFuture;
 import org.jetbrains.annotations.Nullable;
@@ -35,8 +35,8 @@ public class MessageFormatterUtils {
 
         String result = template;
 
-        if (event instanceof SlashCommandInteractionEvent) {
-            SlashCommandInteractionEvent slashEvent = (SlashCommandInteractionEvent) event;
+        if (event instanceof SlashCommandInteraction) {
+            SlashCommandInteraction slashEvent = (SlashCommandInteraction) event;
             for (OptionMapping option : slashEvent.getOptions()) {
                 result = result.replace("{" + option.getName() + "}", option.getAsString());
             }
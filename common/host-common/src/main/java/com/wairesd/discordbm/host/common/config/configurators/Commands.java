@@ -1,5 +1,6 @@
 package com.wairesd.discordbm.host.common.config.configurators;
 
+import com.wairesd.discordbm.host.common.commandbuilder.commands.processor.DirectReplyAnalyzer;
 import com.wairesd.discordbm.common.utils.logging.PluginLogger;
 import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
 import com.wairesd.discordbm.host.common.discord.DiscordBMHPlatformManager;
@@ -137,7 +138,8 @@ public class Commands {
                 actions,
                 failActions,
                 permission,
-                pluginName
+                pluginName,
+                DirectReplyAnalyzer.canReplyDirectly(actions)
         );
     }
 
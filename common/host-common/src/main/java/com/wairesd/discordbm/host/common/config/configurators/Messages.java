@@ -45,6 +45,12 @@ public class Messages {
         public static final String SERVER_SELECTION_TIMEOUT = "server-selection-timeout";
         public static final String SERVER_SELECTION_NO_SERVER = "server-selection-no-server";
         public static final String SERVER_SELECTION_NOT_FOUND = "server-selection-not-found";
+        public static final String SERVER_CHANGE_BUTTON = "server-change-button";
+        public static final String SERVER_CHANGE_NOT_ALLOWED = "server-change-not-allowed";
+        public static final String SERVER_SELECTION_PREVIOUS = "server-selection-previous";
+        public static final String SERVER_SELECTION_NEXT = "server-selection-next";
+        public static final String SERVER_SELECTION_ALL_GROUPS = "server-selection-all-groups";
+        public static final String SERVER_SELECTION_OTHER_GROUP = "server-selection-other-group";
 
         public static final String NO_ACTIVE_CLIENTS = "no_active_clients";
         public static final String NO_CONNECTED_CLIENTS = "no_connected_clients";
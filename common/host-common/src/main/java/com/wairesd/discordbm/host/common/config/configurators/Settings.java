@@ -1,5 +1,6 @@
 package com.wairesd.discordbm.host.common.config.configurators;
 
+import com.wairesd.discordbm.common.network.codec.FrameCompression;
 import com.wairesd.discordbm.common.utils.logging.PluginLogger;
 import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
 import com.wairesd.discordbm.host.common.utils.SecretManager;
@@ -12,6 +13,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class Settings {
@@ -21,6 +24,7 @@ public class Settings {
 
     private static File configFile;
     private static Map<String, Object> config;
+    private static volatile int generation;
     private static SecretManager secretManager;
 
     public static void init(File dataDir) {
@@ -38,6 +42,7 @@ public class Settings {
             try (FileInputStream inputStream = new FileInputStream(configFile)) {
                 config = yaml.load(inputStream);
             }
+            generation++;
             validateConfig();
         } catch (Exception e) {
             logger.error("Error loading settings.yml: {}", e.getMessage(), e);
@@ -57,6 +62,14 @@ public class Settings {
         }
     }
 
+    /**
+     * Changes every time settings.yml is loaded, so values derived from it
+     * can tell when to be rebuilt.
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
     public static void reload() {
         loadConfig();
         secretManager = new SecretManager(configFile.getParentFile().toPath(), getForwardingSecretFile());
@@ -141,6 +154,184 @@ public class Settings {
         return (String) getConfigValue("netty.ip", "");
     }
 
+    public static String getNettyProtocol() {
+        return (String) getConfigValue("netty.protocol", "binary");
+    }
+
+    public static boolean isNettyCompression() {
+        return (boolean) getConfigValue("netty.compression", true);
+    }
+
+    public static int getNettyCompressionThreshold() {
+        return (int) getConfigValue("netty.compression-threshold", FrameCompression.DEFAULT_THRESHOLD);
+    }
+
+    public static String getNettyTransport() {
+        return (String) getConfigValue("netty.transport", "auto");
+    }
+
+    public static String getNettyUnixSocket() {
+        return (String) getConfigValue("netty.unix-socket", "");
+    }
+
+    public static int getNettyMaxMessageSizeKb() {
+        return (int) getConfigValue("netty.max-message-size-kb", 8192);
+    }
+
+    public static int getNettyMaxConnectionBufferKb() {
+        return (int) getConfigValue("netty.max-connection-buffer-kb", 32768);
+    }
+
+    public static int getNettyWorkerThreads() {
+        return (int) getConfigValue("netty.worker-threads", Runtime.getRuntime().availableProcessors());
+    }
+
+    public static int getNettyLaneCapacity() {
+        return (int) getConfigValue("netty.lane-capacity", 256);
+    }
+
+    public static int getNettyRequestTimeoutMs() {
+        return (int) getConfigValue("netty.request-timeout-ms", 5000);
+    }
+
+    public static int getNettyWriteBufferLowKb() {
+        return (int) getConfigValue("netty.write-buffer-low-kb", 32);
+    }
+
+    public static int getNettyWriteBufferHighKb() {
+        return (int) getConfigValue("netty.write-buffer-high-kb", 64);
+    }
+
+    public static int getNettyOutboundQueueSize() {
+        return (int) getConfigValue("netty.outbound-queue-size", 1024);
+    }
+
+    public static Map<String, String> getNettyOutboundPolicies() {
+        Map<String, String> policies = new HashMap<>();
+        if (getConfigValue("netty.outbound-policies", null) instanceof Map<?, ?> map) {
+            map.forEach((type, policy) -> policies.put(String.valueOf(type), String.valueOf(policy)));
+        }
+        return policies;
+    }
+
+
+    public static boolean isSpeculativeDispatch() {
+        return (boolean) getConfigValue("Discord.interactions.speculative-dispatch", false);
+    }
+
+    public static int getSpeculativeDeferAfterMs() {
+        return (int) getConfigValue("Discord.interactions.defer-after-ms", 1000);
+    }
+
+    public static int getInteractionAutoDeferMs() {
+        return (int) getConfigValue("Discord.interactions.auto-defer-ms", 2500);
+    }
+
+    public static String getInteractionFallbackMessage() {
+        return (String) getConfigValue("Discord.interactions.fallback-message", "The server did not answer in time. Please try again.");
+    }
+
+    /**
+     * Balancing policy id for a command several servers registered: its
+     * entry under Discord.routing.commands, else the default policy.
+     */
+    public static String getRoutingPolicy(String command) {
+        if (getConfigValue("Discord.routing.commands", null) instanceof Map<?, ?> commands
+                && commands.get(command) instanceof String policy) {
+            return policy;
+        }
+        return (String) getConfigValue("Discord.routing.default-policy", "ask-user");
+    }
+
+    /**
+     * Whether a command is idempotent and may be sent to a second server
+     * when the first is slow to answer.
+     */
+    public static boolean isHedged(String command) {
+        return getConfigValue("Discord.routing.hedge.commands", null) instanceof List<?> commands
+                && commands.contains(command);
+    }
+
+    public static int getHedgePercentile() {
+        return (int) getConfigValue("Discord.routing.hedge.percentile", 95);
+    }
+
+    public static int getHedgeMinDelayMs() {
+        return (int) getConfigValue("Discord.routing.hedge.min-delay-ms", 100);
+    }
+
+    public static int getHedgeMaxDelayMs() {
+        return (int) getConfigValue("Discord.routing.hedge.max-delay-ms", 1500);
+    }
+
+    /**
+     * Servers a command is sent to all at once: "all" for every server that
+     * registered it, or the name of a group under Discord.routing.groups.
+     *
+     * @return {@code null} if the command goes to a single server
+     */
+    public static String getScatterTarget(String command) {
+        return getScatterOption(command, "servers") instanceof String target ? target : null;
+    }
+
+    public static String getScatterAggregator(String command) {
+        return getScatterOption(command, "aggregator") instanceof String aggregator ? aggregator : "list";
+    }
+
+    public static int getScatterDeadlineMs(String command) {
+        return getScatterOption(command, "deadline-ms") instanceof Integer deadline ? deadline : 2000;
+    }
+
+    public static List<String> getServerGroup(String group) {
+        if (getConfigValue("Discord.routing.groups", null) instanceof Map<?, ?> groups
+                && groups.get(group) instanceof List<?> servers) {
+            return servers.stream().map(String::valueOf).toList();
+        }
+        return List.of();
+    }
+
+    public static Map<String, List<String>> getServerGroups() {
+        Map<String, List<String>> result = new HashMap<>();
+        if (getConfigValue("Discord.routing.groups", null) instanceof Map<?, ?> groups) {
+            groups.forEach((group, servers) -> {
+                if (servers instanceof List<?> list) {
+                    result.put(String.valueOf(group), list.stream().map(String::valueOf).toList());
+                }
+            });
+        }
+        return result;
+    }
+
+    private static Object getScatterOption(String command, String option) {
+        if (getConfigValue("Discord.routing.scatter", null) instanceof Map<?, ?> commands
+                && commands.get(command) instanceof Map<?, ?> options) {
+            return options.get(option);
+        }
+        return null;
+    }
+
+    /**
+     * How long a server picked from the selection menu is used for later
+     * invocations of the same command; 0 to always ask.
+     */
+    public static int getSelectionRememberMinutes() {
+        return (int) getConfigValue("Discord.routing.selection.remember-minutes", 60);
+    }
+
+    /**
+     * Whether a picked server is remembered per "user" or per "guild".
+     */
+    public static String getSelectionRememberScope() {
+        return (String) getConfigValue("Discord.routing.selection.remember-per", "user");
+    }
+
+    /**
+     * Name of an optional, autocompleted option added to commands servers
+     * register, to pick the server right in the command; empty to not add one.
+     */
+    public static String getSelectionServerOption() {
+        return (String) getConfigValue("Discord.routing.selection.server-option", "");
+    }
 
     public static String getForwardingSecretFile() {
         return (String) getConfigValue("forwarding-secret-file", DEFAULT_FORWARDING_SECRET_FILE);
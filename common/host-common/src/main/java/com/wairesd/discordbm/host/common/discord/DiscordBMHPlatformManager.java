@@ -6,6 +6,7 @@ import com.wairesd.discordbm.common.utils.DiscordBMThreadPool;
 import com.wairesd.discordbm.host.common.commandbuilder.commands.core.CommandManager;
 import com.wairesd.discordbm.host.common.commandbuilder.core.models.pages.Page;
 import com.wairesd.discordbm.host.common.config.configurators.Settings;
+import com.wairesd.discordbm.host.common.discord.request.CommandLatencies;
 import com.wairesd.discordbm.host.common.network.NettyServer;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 
@@ -20,6 +21,7 @@ public class DiscordBMHPlatformManager {
     private final DiscordBMThreadPool threadPool;
     private final Map<String, Object> formHandlers = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<UUID, InteractionHook> pendingButtonRequests = new ConcurrentHashMap<>();
+    private final CommandLatencies commandLatencies = new CommandLatencies();
     
     private final MessageManager messageManager;
     private CommandManager commandManager;
@@ -65,6 +67,10 @@ public class DiscordBMHPlatformManager {
         pendingButtonRequests.put(requestId, hook);
     }
 
+    public CommandLatencies getCommandLatencies() {
+        return commandLatencies;
+    }
+
     public Map<String, Page> getPageMap() {
         return pageMap;
     }
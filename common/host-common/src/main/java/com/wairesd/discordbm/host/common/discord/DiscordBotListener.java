@@ -14,8 +14,12 @@ import com.wairesd.discordbm.host.common.discord.handler.CommandHandler;
 import com.wairesd.discordbm.host.common.discord.request.RequestSender;
 import com.wairesd.discordbm.host.common.discord.response.ResponseHelper;
 import com.wairesd.discordbm.host.common.discord.selection.ServerSelector;
+import com.wairesd.discordbm.host.common.models.command.CommandDefinition;
 import com.wairesd.discordbm.host.common.network.NettyServer;
+import com.wairesd.discordbm.host.common.network.RoutingTable;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.slf4j.LoggerFactory;
@@ -39,7 +43,7 @@ public class DiscordBotListener extends ListenerAdapter {
     public DiscordBotListener(DiscordBMHPlatformManager platformManager, NettyServer nettyServer, PluginLogger logger, Map<String, String> requestIdToCommand) {
         this.platformManager = platformManager;
         this.nettyServer = nettyServer;
-        this.requestSender = new RequestSender(nettyServer, DiscordBotListener.logger);
+        this.requestSender = new RequestSender(nettyServer, platformManager.getCommandLatencies(), DiscordBotListener.logger);
         this.responseHelper = new ResponseHelper();
         this.commandHandler = new CommandHandler(platformManager, requestSender, responseHelper);
         this.serverSelector = new ServerSelector(requestSender, responseHelper);
@@ -53,18 +57,18 @@ public class DiscordBotListener extends ListenerAdapter {
             logger.info("Received slash command: {}", command);
         }
 
+        RoutingTable routing = nettyServer.getRouting();
+        var servers = routing.serversFor(command);
         if (Settings.isDebugCommandReceived()) {
-            logger.info("Checking servers for command '{}': {}", command, nettyServer.getServersForCommand(command).stream().map(NettyServer.ServerInfo::serverName).collect(Collectors.toList()));
+            logger.info("Checking servers for command '{}': {}", command, servers.stream().map(NettyServer.ServerInfo::serverName).collect(Collectors.toList()));
         }
 
-        var servers = nettyServer.getServersForCommand(command);
-
         if (servers.isEmpty()) {
             commandHandler.handleCustomCommand(event, command);
             return;
         }
 
-        var cmdDef = nettyServer.getCommandDefinitions().get(command);
+        var cmdDef = routing.definition(command);
         if (cmdDef != null && cmdDef.permission() != null && !cmdDef.permission().isEmpty()) {
             var member = event.getMember();
 
@@ -106,12 +110,38 @@ public class DiscordBotListener extends ListenerAdapter {
             return;
         }
 
-        if (servers.size() == 1) {
-            InteractionResponseType responseType = determineResponseTypeForCommand(command, event);
+        NettyServer.ServerInfo requested = null;
+        String serverOption = ServerSelector.serverOptionFor(cmdDef);
+        if (serverOption != null && event.getOption(serverOption) != null) {
+            requested = serverSelector.requestedServer(event, serverOption, servers);
+            if (requested == null) {
+                responseHelper.replyServerNotFound(event);
+                return;
+            }
+        }
+
+        String scatterTarget = requested == null ? Settings.getScatterTarget(command) : null;
+        if (scatterTarget != null) {
+            requestSender.scatter(event, servers, scatterTarget);
+            return;
+        }
+
+        NettyServer.ServerInfo chosen = requested != null ? requested : nettyServer.getBalancer().choose(command, servers,
+                event.getUser().getId(), event.getGuild() != null ? event.getGuild().getId() : null);
+        NettyServer.ServerInfo remembered = chosen == null ? serverSelector.rememberedServer(event, servers) : null;
+        NettyServer.ServerInfo target = chosen != null ? chosen : remembered;
+        boolean hedge = requested == null && remembered == null;
+        if (target != null) {
+            // The server option only picks the target, so it must not change how the command is answered.
+            boolean hasOptions = event.getOptions().stream().anyMatch(o -> !o.getName().equals(serverOption));
+            InteractionResponseType responseType = determineResponseTypeForCommand(cmdDef, hasOptions);
             boolean requiresModal = false;
             boolean useDeferReply = false;
             boolean ephemeral;
             java.util.UUID requestId = java.util.UUID.randomUUID();
+            if (remembered != null) {
+                serverSelector.markRemembered(requestId, event, servers);
+            }
             Map<String, String> options = event.getOptions().stream()
                 .collect(Collectors.toMap(o -> o.getName(), o -> o.getAsString()));
             Boolean configEphemeral = null;
@@ -121,7 +151,7 @@ public class DiscordBotListener extends ListenerAdapter {
                 case REPLY_MODAL -> requiresModal = true;
                 case DEFER_REPLY -> useDeferReply = true;
                 case AUTO -> {
-                    if (event.getOptions().isEmpty()) {
+                    if (!hasOptions) {
                         requiresModal = true;
                     } else {
                         useDeferReply = true;
@@ -129,17 +159,21 @@ public class DiscordBotListener extends ListenerAdapter {
                 }
             }
 
+            if (useDeferReply && Settings.isSpeculativeDispatch()) {
+                requestSender.sendSpeculatively(event, target, requestId, ephemeral, hedge);
+                return;
+            }
             if (useDeferReply) {
                 final boolean finalRequiresModal = requiresModal;
                 final boolean finalUseDeferReply = useDeferReply;
                 final java.util.UUID finalRequestId = requestId;
                 final boolean finalEphemeral = ephemeral;
                 event.deferReply(ephemeral).queue(hook -> {
-                    requestSender.sendRequestToServer(event, servers.get(0), finalRequiresModal, finalUseDeferReply, finalRequestId, finalEphemeral);
+                    requestSender.sendRequestToServer(event, target, finalRequiresModal, finalUseDeferReply, finalRequestId, finalEphemeral, hedge);
                 });
                 return;
             }
-            requestSender.sendRequestToServer(event, servers.get(0), requiresModal, useDeferReply, requestId, ephemeral);
+            requestSender.sendRequestToServer(event, target, requiresModal, useDeferReply, requestId, ephemeral, hedge);
             if (requiresModal) {
                 requestIdToCommand.put(requestId.toString(), command);
             }
@@ -155,10 +189,16 @@ public class DiscordBotListener extends ListenerAdapter {
     public RequestSender getRequestSender() {
         return requestSender;
     }
-    private InteractionResponseType determineResponseTypeForCommand(String command, SlashCommandInteractionEvent event) {
-        boolean hasOptions = !event.getOptions().isEmpty();
 
-        var cmdDef = nettyServer.getCommandDefinitions().get(command);
+    public ServerSelector getServerSelector() {
+        return serverSelector;
+    }
+
+    public void shutdown() {
+        requestSender.shutdown();
+    }
+
+    private InteractionResponseType determineResponseTypeForCommand(CommandDefinition cmdDef, boolean hasOptions) {
         if (cmdDef != null) {
             if (cmdDef.context() != null && cmdDef.context().contains("form")) {
                 return InteractionResponseType.REPLY_MODAL;
@@ -175,6 +215,24 @@ public class DiscordBotListener extends ListenerAdapter {
         return InteractionResponseType.AUTO;
     }
 
+    @Override
+    public void onCommandAutoCompleteInteraction(CommandAutoCompleteInteractionEvent event) {
+        RoutingTable routing = nettyServer.getRouting();
+        String serverOption = ServerSelector.serverOptionFor(routing.definition(event.getName()));
+        if (serverOption == null || !serverOption.equals(event.getFocusedOption().getName())) {
+            return;
+        }
+        event.replyChoiceStrings(serverSelector.searchServers(event.getName(), routing.serversFor(event.getName()),
+                event.getFocusedOption().getValue())).queue();
+    }
+
+    @Override
+    public void onButtonInteraction(ButtonInteractionEvent event) {
+        if (serverSelector.isChangeServerButton(event)) {
+            serverSelector.handleChangeServer(event);
+        }
+    }
+
     @Override
     public void onStringSelectInteraction(StringSelectInteractionEvent event) {
         if (!serverSelector.isValidSelectMenu(event)) return;
@@ -82,6 +82,11 @@ public class DiscordBotManager {
 
     public void shutdown() {
         if (jda != null) {
+            for (Object listener : jda.getRegisteredListeners()) {
+                if (listener instanceof DiscordBotListener botListener) {
+                    botListener.shutdown();
+                }
+            }
             jda.shutdownNow();
         }
     }
@@ -68,7 +68,7 @@ public class CommandHandler {
                         if (handler != null) {
                             String reqId = java.util.UUID.randomUUID().toString();
                             event.deferReply(false).queue(hook -> {
-                                requestSender.getPendingRequests().put(java.util.UUID.fromString(reqId), event);
+                                requestSender.getInteractions().put(java.util.UUID.fromString(reqId), event, null, false);
                                 handler.handleCommand(command, event.getOptions().stream().collect(
                                     java.util.stream.Collectors.toMap(o -> o.getName(), o -> o.getAsString())
                                 ), reqId);
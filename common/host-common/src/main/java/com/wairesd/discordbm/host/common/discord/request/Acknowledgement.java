@@ -0,0 +1,47 @@
+package com.wairesd.discordbm.host.common.discord.request;
+
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decides how a speculatively dispatched interaction is acknowledged.
+ *
+ * <p>The request goes to the server before the interaction is deferred. If
+ * the reply arrives before the defer deadline, it answers the interaction
+ * directly; otherwise the interaction is deferred and the reply follows up
+ * through the hook once the defer has gone through. Exactly one side wins.</p>
+ */
+public final class Acknowledgement {
+    private enum State { PENDING, REPLIED, DEFERRED }
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.PENDING);
+    private final CompletableFuture<InteractionHook> deferred = new CompletableFuture<>();
+
+    /**
+     * Claims the interaction for a direct reply.
+     *
+     * @return {@code false} if it has already been deferred
+     */
+    public boolean claimReply() {
+        return state.compareAndSet(State.PENDING, State.REPLIED);
+    }
+
+    /**
+     * Defers the interaction unless a reply has already claimed it.
+     */
+    public void defer(IReplyCallback interaction, boolean ephemeral) {
+        if (state.compareAndSet(State.PENDING, State.DEFERRED)) {
+            interaction.deferReply(ephemeral).queue(deferred::complete, deferred::completeExceptionally);
+        }
+    }
+
+    /**
+     * Completes with the hook once the interaction has been deferred.
+     */
+    public CompletableFuture<InteractionHook> deferred() {
+        return deferred;
+    }
+}
@@ -0,0 +1,92 @@
+package com.wairesd.discordbm.host.common.discord.request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How long servers take to answer each command, measured from the slash
+ * command arriving to its reply being handled.
+ *
+ * <p>Keeps the most recent {@link #WINDOW} samples per command and server,
+ * so percentiles follow current behaviour rather than the whole uptime.</p>
+ */
+public class CommandLatencies {
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    public void record(String commandName, String serverName, long millis) {
+        samples.computeIfAbsent(key(commandName, serverName), k -> new Samples()).add(millis);
+    }
+
+    /**
+     * Recent reply time of a command on one server at the given quantile.
+     *
+     * @return {@code -1} until at least {@value #MIN_SAMPLES} replies were seen
+     */
+    public long percentile(String commandName, String serverName, double quantile) {
+        Samples window = samples.get(key(commandName, serverName));
+        return window != null ? window.quantile(quantile) : -1;
+    }
+
+    /**
+     * Current percentiles for every command, slowest p90 first.
+     */
+    public List<Percentiles> snapshot() {
+        List<Percentiles> result = new ArrayList<>();
+        samples.forEach((key, window) -> {
+            Percentiles percentiles = window.percentiles(key);
+            if (percentiles != null) {
+                result.add(percentiles);
+            }
+        });
+        result.sort(Comparator.comparingLong(Percentiles::p90).reversed());
+        return result;
+    }
+
+    private static String key(String commandName, String serverName) {
+        return serverName != null ? commandName + "@" + serverName : commandName;
+    }
+
+    public record Percentiles(String command, long count, long p50, long p90, long p99, long max) {
+    }
+
+    private static final class Samples {
+        private final long[] values = new long[WINDOW];
+        private long count;
+
+        synchronized void add(long millis) {
+            values[(int) (count % WINDOW)] = millis;
+            count++;
+        }
+
+        synchronized Percentiles percentiles(String key) {
+            int size = (int) Math.min(count, WINDOW);
+            if (size == 0) {
+                return null;
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return new Percentiles(key, count, at(sorted, 0.50), at(sorted, 0.90), at(sorted, 0.99), sorted[size - 1]);
+        }
+
+        synchronized long quantile(double quantile) {
+            int size = (int) Math.min(count, WINDOW);
+            if (size < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return at(sorted, quantile);
+        }
+
+        private static long at(long[] sorted, double quantile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+        }
+    }
+}
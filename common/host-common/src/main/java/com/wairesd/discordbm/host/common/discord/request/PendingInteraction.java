@@ -0,0 +1,33 @@
+package com.wairesd.discordbm.host.common.discord.request;
+
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+
+import java.util.UUID;
+
+/**
+ * What is needed to answer an interaction once its server replies.
+ *
+ * <p>Only the interaction itself is kept, not the event that delivered it;
+ * the hook references the same interaction, so an entry holds nothing the
+ * hook would not keep alive anyway.</p>
+ *
+ * @param callback    the slash command, for its first response and for
+ *                    option placeholders; {@code null} for interactions that
+ *                    can only be followed up through {@code hook}
+ * @param serverName  server the request was sent to, or {@code null} if it
+ *                    is handled by the host itself
+ * @param ack         set when the request was sent before the interaction
+ *                    was acknowledged; {@code null} otherwise
+ */
+public record PendingInteraction(UUID requestId, SlashCommandInteraction callback, InteractionHook hook,
+                                 String commandName, String userId, String channelId, String serverName,
+                                 boolean ephemeral, Acknowledgement ack, long createdAt) {
+
+    public PendingInteraction(UUID requestId, SlashCommandInteraction callback, InteractionHook hook,
+                              String commandName, String userId, String channelId, String serverName,
+                              boolean ephemeral, Acknowledgement ack) {
+        this(requestId, callback, hook, commandName, userId, channelId, serverName, ephemeral, ack,
+                System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,432 @@
+package com.wairesd.discordbm.host.common.discord.request;
+
+import com.wairesd.discordbm.common.utils.logging.PluginLogger;
+import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
+import com.wairesd.discordbm.host.common.config.configurators.Settings;
+import com.wairesd.discordbm.host.common.network.ServerLoad;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Interactions waiting for a server to answer them, keyed by request id.
+ *
+ * <p>Discord accepts the first response to an interaction only within
+ * {@link #ACK_WINDOW_MILLIS} and follow-ups through its hook only within
+ * {@link #HOOK_WINDOW_MILLIS}. A watchdog on a hashed timing wheel keeps
+ * every entry inside those windows: an interaction its server has not
+ * answered by {@link Settings#getInteractionAutoDeferMs()} is deferred, so
+ * the user sees the bot thinking instead of "The application did not
+ * respond", and one still unanswered shortly before its hook expires gets
+ * the configured fallback message and is dropped.</p>
+ *
+ * <p>A reply can also beat the registration of its interaction, e.g. when
+ * the host answers a command from inside the defer callback. Such replies
+ * are {@link #park parked} for a short while and handed over the moment the
+ * interaction is registered.</p>
+ *
+ * <p>An interaction can also be {@link #addHedge hedged}: sent to a second
+ * server under its own request id. Whichever reply comes first answers it;
+ * the other is recognised as {@link #isSettled settled} and discarded.</p>
+ */
+public class PendingInteractions {
+    private static final PluginLogger logger = new Slf4jPluginLogger(LoggerFactory.getLogger("DiscordBM"));
+    public static final long ACK_WINDOW_MILLIS = 3_000;
+    public static final long HOOK_WINDOW_MILLIS = 15 * 60 * 1000;
+    private static final long FALLBACK_AT_MILLIS = HOOK_WINDOW_MILLIS - 60_000;
+    private static final long TICK_MILLIS = 100;
+    private static final int TICKS_PER_WHEEL = 512;
+    private static final long PARK_MILLIS = 5_000;
+    private static final int MAX_PARKED = 1024;
+    private static final long SETTLED_MILLIS = 60_000;
+
+    private final HashedWheelTimer timer;
+    private final CommandLatencies latencies;
+    private final ServerLoad load;
+    private final Map<UUID, Slot> entries = new ConcurrentHashMap<>();
+    private final Map<UUID, Parked> parked = new ConcurrentHashMap<>();
+    private final Map<UUID, Slot> hedges = new ConcurrentHashMap<>();
+    private final Map<UUID, Boolean> settled = new ConcurrentHashMap<>();
+    private final AtomicLong autoDeferred = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    public PendingInteractions(CommandLatencies latencies, ServerLoad load) {
+        this.latencies = latencies;
+        this.load = load;
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("DiscordBM-Interactions", true),
+                TICK_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Tracks a slash command whose answer comes from a server.
+     */
+    public PendingInteraction put(UUID requestId, SlashCommandInteractionEvent event, String serverName, boolean ephemeral) {
+        return put(requestId, event, serverName, ephemeral, null);
+    }
+
+    /**
+     * Tracks a slash command that is sent to its server before it is
+     * acknowledged. Unless the reply claims it first, the interaction is
+     * deferred after {@code deferAfterMillis}.
+     */
+    public PendingInteraction putSpeculative(UUID requestId, SlashCommandInteractionEvent event, String serverName,
+                                             boolean ephemeral, long deferAfterMillis) {
+        Acknowledgement ack = new Acknowledgement();
+        PendingInteraction interaction = put(requestId, event, serverName, ephemeral, ack);
+        long delay = Math.max(0, Math.min(deferAfterMillis, ACK_WINDOW_MILLIS - 1_000));
+        timer.newTimeout(t -> ack.defer(interaction.callback(), ephemeral), delay, TimeUnit.MILLISECONDS);
+        return interaction;
+    }
+
+    /**
+     * Tracks a slash command whose server may answer with a modal. A modal
+     * can only be the first answer, so the watchdog's defer and the modal
+     * race for the interaction through an {@link Acknowledgement}.
+     */
+    public PendingInteraction putModal(UUID requestId, SlashCommandInteractionEvent event, String serverName, boolean ephemeral) {
+        return put(requestId, event, serverName, ephemeral, new Acknowledgement());
+    }
+
+    private PendingInteraction put(UUID requestId, SlashCommandInteractionEvent event, String serverName,
+                                   boolean ephemeral, Acknowledgement ack) {
+        PendingInteraction interaction = new PendingInteraction(requestId, event.getInteraction(), event.getHook(), event.getName(),
+                event.getUser().getId(), event.getChannel().getId(), serverName, ephemeral, ack);
+        long autoDefer = Math.max(0, Math.min(Settings.getInteractionAutoDeferMs(), ACK_WINDOW_MILLIS - 500));
+        track(new Slot(interaction), autoDefer);
+        return interaction;
+    }
+
+    /**
+     * Tracks an interaction that was already acknowledged and is answered
+     * through its hook only.
+     */
+    public PendingInteraction putHook(UUID requestId, InteractionHook hook, String commandName, String serverName, boolean ephemeral) {
+        PendingInteraction interaction = new PendingInteraction(requestId, null, hook, commandName,
+                hook.getInteraction().getUser().getId(),
+                hook.getInteraction().getChannel() != null ? hook.getInteraction().getChannel().getId() : null,
+                serverName, ephemeral, null);
+        track(new Slot(interaction), FALLBACK_AT_MILLIS);
+        return interaction;
+    }
+
+    public PendingInteraction get(UUID requestId) {
+        Slot slot = slot(requestId);
+        return slot != null ? slot.interaction : null;
+    }
+
+    /**
+     * Looks up a request id as it arrives from a server.
+     *
+     * @return {@code null} if the id is unknown or not a UUID
+     */
+    public PendingInteraction get(String requestId) {
+        UUID id = parse(requestId);
+        return id != null ? get(id) : null;
+    }
+
+    /**
+     * Stops tracking an interaction whose request could not be sent; this
+     * counts as a failure of its server.
+     */
+    public PendingInteraction remove(UUID requestId) {
+        Slot slot = slot(requestId);
+        if (slot == null || !entries.remove(slot.interaction.requestId(), slot)) {
+            return null;
+        }
+        load.failed(slot.interaction.serverName());
+        finish(slot, slot.interaction.serverName(), -1);
+        return slot.interaction;
+    }
+
+    /**
+     * Stops tracking an interaction because its reply arrived, and records
+     * how long that took.
+     */
+    public PendingInteraction answer(UUID requestId) {
+        Slot slot = slot(requestId);
+        if (slot == null || !entries.remove(slot.interaction.requestId(), slot)) {
+            return null;
+        }
+        PendingInteraction interaction = slot.interaction;
+        // A hedge server only got the request when it was hedged.
+        boolean hedgeReply = requestId.equals(slot.hedgeId);
+        long millis = System.currentTimeMillis() - (hedgeReply ? slot.hedgedAt : interaction.createdAt());
+        String responder = hedgeReply ? slot.hedgeServer : interaction.serverName();
+        latencies.record(interaction.commandName(), responder, millis);
+        finish(slot, responder, millis);
+        return interaction;
+    }
+
+    /**
+     * Registers a second request id for an interaction that is about to be
+     * sent to another server as well. A reply to either id answers it.
+     *
+     * @return {@code false} if the interaction has already been answered or
+     *         hedged, in which case nothing should be sent
+     */
+    public boolean addHedge(UUID requestId, UUID hedgeId, String serverName) {
+        Slot slot = entries.get(requestId);
+        if (slot == null) {
+            return false;
+        }
+        synchronized (slot) {
+            if (slot.finished || slot.hedgeId != null) {
+                return false;
+            }
+            slot.hedgeId = hedgeId;
+            slot.hedgeServer = serverName;
+            slot.hedgedAt = System.currentTimeMillis();
+            hedges.put(hedgeId, slot);
+            load.started(serverName);
+        }
+        return true;
+    }
+
+    /**
+     * Whether a request id belongs to a hedged interaction that has already
+     * been answered, so a reply to it is a late duplicate.
+     */
+    public boolean isSettled(UUID requestId) {
+        return requestId != null && settled.containsKey(requestId);
+    }
+
+    /**
+     * Runs a task on the watchdog timer, e.g. to send a hedged request.
+     */
+    public void schedule(long delayMillis, Runnable task) {
+        timer.newTimeout(t -> task.run(), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Holds a reply whose interaction is not registered yet and delivers it
+     * to {@code delivery} as soon as it is, within {@value #PARK_MILLIS}ms.
+     *
+     * @return {@code false} if too many replies are already parked
+     */
+    public boolean park(UUID requestId, Consumer<PendingInteraction> delivery) {
+        if (parked.size() >= MAX_PARKED) {
+            return false;
+        }
+        Parked entry = new Parked(delivery);
+        Parked previous = parked.put(requestId, entry);
+        if (previous != null) {
+            previous.cancel();
+        }
+        entry.timeout = timer.newTimeout(t -> {
+            if (parked.remove(requestId, entry)) {
+                logger.warn("No interaction registered for requestId {} within {}ms, reply dropped", requestId, PARK_MILLIS);
+            }
+        }, PARK_MILLIS, TimeUnit.MILLISECONDS);
+        // The interaction may have been registered while this was parking.
+        if (entries.containsKey(requestId)) {
+            deliverParked(requestId);
+        }
+        return true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Number of interactions the watchdog deferred because their server had
+     * not answered yet.
+     */
+    public long getAutoDeferred() {
+        return autoDeferred.get();
+    }
+
+    /**
+     * Number of interactions dropped because nobody answered them in time.
+     */
+    public long getExpired() {
+        return expired.get();
+    }
+
+    public void shutdown() {
+        timer.stop();
+        entries.clear();
+        parked.clear();
+        hedges.clear();
+        settled.clear();
+    }
+
+    private Slot slot(UUID requestId) {
+        if (requestId == null) {
+            return null;
+        }
+        Slot slot = entries.get(requestId);
+        return slot != null ? slot : hedges.get(requestId);
+    }
+
+    /**
+     * Releases a slot that was just removed from {@link #entries}. Servers
+     * that did not answer are charged the time they were waited for.
+     *
+     * @param responder server whose reply answered it, {@code null} if none did
+     * @param millis    how long the reply took, or {@code -1} if the
+     *                  responder's load was already settled
+     */
+    private void finish(Slot slot, String responder, long millis) {
+        slot.cancel();
+        UUID hedgeId;
+        String hedgeServer;
+        synchronized (slot) {
+            slot.finished = true;
+            hedgeId = slot.hedgeId;
+            hedgeServer = slot.hedgeServer;
+        }
+        PendingInteraction interaction = slot.interaction;
+        long now = System.currentTimeMillis();
+        if (responder != null && responder.equals(interaction.serverName())) {
+            if (millis >= 0) {
+                load.answered(interaction.serverName(), millis);
+            }
+        } else {
+            load.abandoned(interaction.serverName(), now - interaction.createdAt());
+        }
+        if (hedgeId == null) {
+            return;
+        }
+        hedges.remove(hedgeId);
+        if (responder != null && responder.equals(hedgeServer) && !responder.equals(interaction.serverName())) {
+            load.answered(hedgeServer, millis);
+        } else {
+            load.abandoned(hedgeServer, now - slot.hedgedAt);
+        }
+        settled.put(interaction.requestId(), Boolean.TRUE);
+        settled.put(hedgeId, Boolean.TRUE);
+        timer.newTimeout(t -> {
+            settled.remove(interaction.requestId());
+            settled.remove(hedgeId);
+        }, SETTLED_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void track(Slot slot, long delayMillis) {
+        load.started(slot.interaction.serverName());
+        Slot previous = entries.put(slot.interaction.requestId(), slot);
+        if (previous != null) {
+            finish(previous, null, 0);
+        }
+        slot.timeout = timer.newTimeout(t -> onDeadline(slot), delayMillis, TimeUnit.MILLISECONDS);
+        if (!parked.isEmpty()) {
+            deliverParked(slot.interaction.requestId());
+        }
+    }
+
+    private void deliverParked(UUID requestId) {
+        Parked entry = parked.remove(requestId);
+        if (entry == null) {
+            return;
+        }
+        entry.cancel();
+        PendingInteraction interaction = answer(requestId);
+        if (interaction != null) {
+            entry.delivery.accept(interaction);
+        }
+    }
+
+    private void onDeadline(Slot slot) {
+        PendingInteraction interaction = slot.interaction;
+        if (entries.get(interaction.requestId()) != slot) {
+            return;
+        }
+        long age = System.currentTimeMillis() - interaction.createdAt();
+        if (age < FALLBACK_AT_MILLIS) {
+            SlashCommandInteraction callback = interaction.callback();
+            if (callback != null && !callback.isAcknowledged()) {
+                autoDefer(interaction);
+            }
+            slot.timeout = timer.newTimeout(t -> onDeadline(slot), FALLBACK_AT_MILLIS - age, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (entries.remove(interaction.requestId(), slot)) {
+            finish(slot, null, 0);
+            expired.incrementAndGet();
+            sendFallback(interaction);
+        }
+    }
+
+    private void autoDefer(PendingInteraction interaction) {
+        autoDeferred.incrementAndGet();
+        if (Settings.isDebugRequestProcessing()) {
+            logger.info("No reply for requestId {} (/{}) yet, deferring", interaction.requestId(), interaction.commandName());
+        }
+        if (interaction.ack() != null) {
+            interaction.ack().defer(interaction.callback(), interaction.ephemeral());
+        } else {
+            interaction.callback().deferReply(interaction.ephemeral()).queue(null,
+                    failure -> logger.warn("Could not defer /{}: {}", interaction.commandName(), failure.getMessage()));
+        }
+    }
+
+    private void sendFallback(PendingInteraction interaction) {
+        logger.warn("{} did not answer /{} (requestId {}) in time", interaction.serverName() != null
+                ? interaction.serverName() : "The host", interaction.commandName(), interaction.requestId());
+        String message = Settings.getInteractionFallbackMessage();
+        boolean acknowledged = interaction.callback() == null || interaction.callback().isAcknowledged();
+        if (message == null || message.isEmpty() || interaction.hook() == null || !acknowledged) {
+            return;
+        }
+        interaction.hook().editOriginal(message).queue(null,
+                failure -> logger.warn("Could not send fallback for /{}: {}", interaction.commandName(), failure.getMessage()));
+    }
+
+    private static UUID parse(String requestId) {
+        if (requestId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(requestId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Parked {
+        private final Consumer<PendingInteraction> delivery;
+        private volatile Timeout timeout;
+
+        Parked(Consumer<PendingInteraction> delivery) {
+            this.delivery = delivery;
+        }
+
+        void cancel() {
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    private static final class Slot {
+        private final PendingInteraction interaction;
+        private volatile Timeout timeout;
+        private volatile UUID hedgeId;
+        private volatile String hedgeServer;
+        private volatile long hedgedAt;
+        private boolean finished;
+
+        Slot(PendingInteraction interaction) {
+            this.interaction = interaction;
+        }
+
+        void cancel() {
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
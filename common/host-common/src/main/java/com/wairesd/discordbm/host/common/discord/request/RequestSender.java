@@ -1,92 +1,216 @@
 package com.wairesd.discordbm.host.common.discord.request;
 
-import com.google.gson.Gson;
+import com.wairesd.discordbm.common.network.transport.OutboundRejectedException;
 import com.wairesd.discordbm.common.utils.logging.PluginLogger;
 import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
 import com.wairesd.discordbm.host.common.config.configurators.Settings;
-import com.wairesd.discordbm.host.common.models.request.RequestMessage;
+import com.wairesd.discordbm.common.models.request.RequestMessage;
+import com.wairesd.discordbm.host.common.discord.request.gather.ResponseAggregators;
+import com.wairesd.discordbm.host.common.discord.request.gather.ScatterGather;
+import com.wairesd.discordbm.host.common.discord.selection.ServerSelector;
 import com.wairesd.discordbm.host.common.network.NettyServer;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.InteractionHook;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class RequestSender {
     private static final PluginLogger logger = new Slf4jPluginLogger(LoggerFactory.getLogger("DiscordBM"));
-    private static final Gson GSON = new Gson();
     private final NettyServer nettyServer;
-    private final ConcurrentHashMap<UUID, SlashCommandInteractionEvent> pendingRequests = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, InteractionHook> pendingHooks = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, String> requestServerNames = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, Boolean> requestEphemeral = new ConcurrentHashMap<>();
+    private final PendingInteractions interactions;
+    private final CommandLatencies latencies;
+    private final ScatterGather scatterGather;
     
     public static final String SERVER_NAME_VAR = "discordbm_server_name";
 
-    public RequestSender(NettyServer nettyServer, PluginLogger logger) {
+    public RequestSender(NettyServer nettyServer, CommandLatencies latencies, PluginLogger logger) {
         this.nettyServer = nettyServer;
+        this.latencies = latencies;
+        this.interactions = new PendingInteractions(latencies, nettyServer.getServerLoad());
+        this.scatterGather = new ScatterGather(interactions, latencies, nettyServer.getServerLoad());
     }
 
-    public void sendRequestToServer(SlashCommandInteractionEvent event, NettyServer.ServerInfo serverInfo, boolean requiresModal, boolean useDeferReply, UUID requestId, boolean ephemeral) {
-        requestEphemeral.put(requestId, ephemeral);
+    /**
+     * @param hedge whether the request may also be sent to a second server,
+     *              see {@link #scheduleHedge}; only for targets the
+     *              balancer picked, never for one the user chose
+     */
+    public void sendRequestToServer(SlashCommandInteractionEvent event, NettyServer.ServerInfo serverInfo, boolean requiresModal, boolean useDeferReply, UUID requestId, boolean ephemeral, boolean hedge) {
         if (requiresModal) {
-            pendingRequests.put(requestId, event);
-            requestServerNames.put(requestId, serverInfo.serverName());
+            interactions.putModal(requestId, event, serverInfo.serverName(), ephemeral);
             if (Settings.isDebugRequestProcessing()) {
-                logger.info("Added requestId {} to pendingRequests for modal", requestId);
+                logger.info("Added requestId {} to pending interactions for modal", requestId);
             }
-            RequestMessage request = createRequestMessage(event, requestId, ephemeral);
-            String json = GSON.toJson(request);
-            nettyServer.sendMessage(serverInfo.channel(), json);
+            send(event, serverInfo, requestId, ephemeral);
             if (Settings.isDebugRequestProcessing()) {
                 logger.info("Sent request for requestId {} (modal)", requestId);
             }
             return;
         }
         if (useDeferReply) {
-            pendingRequests.put(requestId, event);
-            requestServerNames.put(requestId, serverInfo.serverName());
+            interactions.put(requestId, event, serverInfo.serverName(), ephemeral);
             if (Settings.isDebugRequestProcessing()) {
-                logger.info("Added requestId {} to pendingRequests after defer (no second defer)", requestId);
+                logger.info("Added requestId {} to pending interactions after defer (no second defer)", requestId);
+            }
+            send(event, serverInfo, requestId, ephemeral);
+            if (hedge) {
+                scheduleHedge(event, serverInfo, requestId, ephemeral);
             }
-            RequestMessage request = createRequestMessage(event, requestId, ephemeral);
-            String json = GSON.toJson(request);
-            nettyServer.sendMessage(serverInfo.channel(), json);
             if (Settings.isDebugRequestProcessing()) {
                 logger.info("Sent request for requestId {} (after defer, no second defer)", requestId);
             }
             return;
         }
-        pendingRequests.put(requestId, event);
-        requestServerNames.put(requestId, serverInfo.serverName());
+        interactions.put(requestId, event, serverInfo.serverName(), ephemeral);
         if (Settings.isDebugRequestProcessing()) {
-            logger.info("Added requestId {} to pendingRequests (no defer)", requestId);
+            logger.info("Added requestId {} to pending interactions (no defer)", requestId);
+        }
+        send(event, serverInfo, requestId, ephemeral);
+        if (hedge) {
+            scheduleHedge(event, serverInfo, requestId, ephemeral);
         }
-        RequestMessage request = createRequestMessage(event, requestId, ephemeral);
-        String json = GSON.toJson(request);
-        nettyServer.sendMessage(serverInfo.channel(), json);
         if (Settings.isDebugRequestProcessing()) {
             logger.info("Sent request for requestId {} (no defer)", requestId);
         }
     }
 
-    public void storeInteractionHook(UUID requestId, InteractionHook hook) {
-        pendingHooks.put(requestId, hook);
+    /**
+     * Sends a request to its server right away and defers the interaction
+     * only if the reply has not answered it within
+     * {@link Settings#getSpeculativeDeferAfterMs()}.
+     *
+     * @param hedge as for {@link #sendRequestToServer}
+     */
+    public void sendSpeculatively(SlashCommandInteractionEvent event, NettyServer.ServerInfo serverInfo, UUID requestId, boolean ephemeral, boolean hedge) {
+        interactions.putSpeculative(requestId, event, serverInfo.serverName(), ephemeral, Settings.getSpeculativeDeferAfterMs());
+        send(event, serverInfo, requestId, ephemeral);
+        if (hedge) {
+            scheduleHedge(event, serverInfo, requestId, ephemeral);
+        }
         if (Settings.isDebugRequestProcessing()) {
-            logger.info("Stored interaction hook for requestId {}", requestId);
+            logger.info("Sent request for requestId {} (speculative, defer pending)", requestId);
+        }
+    }
+
+    /**
+     * For commands marked as hedged, sends the request to a second server if
+     * the first has not answered by the configured percentile of its recent
+     * reply times. The first reply answers the interaction.
+     */
+    private void scheduleHedge(SlashCommandInteractionEvent event, NettyServer.ServerInfo serverInfo, UUID requestId, boolean ephemeral) {
+        String command = event.getName();
+        if (!Settings.isHedged(command) || nettyServer.getServersForCommand(command).size() < 2) {
+            return;
+        }
+        long delay = latencies.percentile(command, serverInfo.serverName(), Settings.getHedgePercentile() / 100.0);
+        if (delay < 0) {
+            delay = Settings.getHedgeMaxDelayMs();
+        }
+        delay = Math.max(Settings.getHedgeMinDelayMs(), Math.min(delay, Settings.getHedgeMaxDelayMs()));
+        interactions.schedule(delay, () -> sendHedge(event, serverInfo.serverName(), requestId, ephemeral));
+    }
+
+    private void sendHedge(SlashCommandInteractionEvent event, String primary, UUID requestId, boolean ephemeral) {
+        NettyServer.ServerInfo target = nettyServer.getBalancer()
+                .alternative(nettyServer.getServersForCommand(event.getName()), primary);
+        UUID hedgeId = UUID.randomUUID();
+        if (target == null || !interactions.addHedge(requestId, hedgeId, target.serverName())) {
+            return;
+        }
+        if (Settings.isDebugRequestProcessing()) {
+            logger.info("{} has not answered requestId {} yet, also sending it to {} as {}", primary, requestId, target.serverName(), hedgeId);
+        }
+        nettyServer.sendMessage(target.channel(), createRequestMessage(event, hedgeId, ephemeral),
+                cause -> logger.warn("Hedged request {} for /{} was not sent to {}: {}", hedgeId, event.getName(), target.serverName(), cause.getMessage()));
+    }
+
+    private void send(SlashCommandInteractionEvent event, NettyServer.ServerInfo serverInfo, UUID requestId, boolean ephemeral) {
+        RequestMessage request = createRequestMessage(event, requestId, ephemeral);
+        nettyServer.sendMessage(serverInfo.channel(), request,
+                cause -> onSendFailure(event, serverInfo.serverName(), requestId, cause));
+    }
+
+    /**
+     * Answers the interaction when its request could not be handed to the
+     * server, e.g. because the server is backed up and interaction requests
+     * fail fast instead of queueing past Discord's reply window.
+     */
+    private void onSendFailure(SlashCommandInteractionEvent event, String serverName, UUID requestId, Throwable cause) {
+        PendingInteraction pending = interactions.remove(requestId);
+        logger.warn("Request {} for /{} was not sent to {}: {}", requestId, event.getName(), serverName, cause.getMessage());
+
+        String reply = cause instanceof OutboundRejectedException
+                ? "Server " + serverName + " is busy right now. Please try again."
+                : "Server " + serverName + " is not connected. Please try again.";
+        Acknowledgement ack = pending != null ? pending.ack() : null;
+        if (ack != null && !ack.claimReply()) {
+            ack.deferred().thenAccept(hook -> hook.sendMessage(reply).setEphemeral(true).queue());
+        } else if (event.isAcknowledged()) {
+            event.getHook().sendMessage(reply).setEphemeral(true).queue();
+        } else {
+            event.reply(reply).setEphemeral(true).queue();
         }
     }
 
-    public InteractionHook removeInteractionHook(UUID requestId) {
-        return pendingHooks.remove(requestId);
+    /**
+     * Sends a command to every server of its scatter target at once and
+     * answers with the merged replies, see {@link ScatterGather}.
+     *
+     * @param target "all" or the name of a server group
+     */
+    public void scatter(SlashCommandInteractionEvent event, List<NettyServer.ServerInfo> servers, String target) {
+        String command = event.getName();
+        List<String> group = "all".equalsIgnoreCase(target) ? null : Settings.getServerGroup(target);
+        Map<UUID, NettyServer.ServerInfo> targets = new LinkedHashMap<>();
+        for (NettyServer.ServerInfo server : servers) {
+            if (server.channel() != null && (group == null || group.contains(server.serverName()))) {
+                targets.put(UUID.randomUUID(), server);
+            }
+        }
+        if (targets.isEmpty()) {
+            event.reply("No server of " + target + " is connected. Please try again later.").setEphemeral(true).queue();
+            return;
+        }
+
+        event.deferReply(false).queue(hook -> {
+            scatterGather.start(command, hook, ResponseAggregators.get(Settings.getScatterAggregator(command)),
+                    targets, Settings.getScatterDeadlineMs(command));
+            Map<String, String> options = requestOptions(event, false);
+            targets.forEach((requestId, server) -> nettyServer.sendMessage(server.channel(),
+                    new RequestMessage("request", command, options, requestId.toString()),
+                    cause -> {
+                        logger.warn("Request {} for /{} was not sent to {}: {}", requestId, command, server.serverName(), cause.getMessage());
+                        scatterGather.fail(requestId);
+                    }));
+            if (Settings.isDebugRequestProcessing()) {
+                logger.info("Sent /{} to {} servers", command, targets.size());
+            }
+        }, failure -> logger.warn("Could not defer /{}: {}", command, failure.getMessage()));
+    }
+
+    public void storeInteractionHook(UUID requestId, InteractionHook hook, String commandName, String serverName) {
+        interactions.putHook(requestId, hook, commandName, serverName, false);
+        if (Settings.isDebugRequestProcessing()) {
+            logger.info("Stored interaction hook for requestId {}", requestId);
+        }
     }
 
     private RequestMessage createRequestMessage(SlashCommandInteractionEvent event, UUID requestId, boolean ephemeral) {
+        return new RequestMessage("request", event.getName(), requestOptions(event, ephemeral), requestId.toString());
+    }
+
+    private Map<String, String> requestOptions(SlashCommandInteractionEvent event, boolean ephemeral) {
         Map<String, String> options = event.getOptions().stream()
                 .collect(Collectors.toMap(opt -> opt.getName(), opt -> opt.getAsString()));
+        String serverOption = ServerSelector.serverOptionFor(nettyServer.getRouting().definition(event.getName()));
+        if (serverOption != null) {
+            options.remove(serverOption);
+        }
         options.put("user_Id", event.getUser().getId());
         if (event.getGuild() != null) {
             options.put("guild_Id", event.getGuild().getId());
@@ -99,18 +223,18 @@ public class RequestSender {
         }
         options.put("ephemeral", Boolean.toString(ephemeral));
         options.put("channelId", event.getChannel().getId());
-        return new RequestMessage("request", event.getName(), options, requestId.toString());
+        return options;
     }
 
-    public ConcurrentHashMap<UUID, SlashCommandInteractionEvent> getPendingRequests() {
-        return pendingRequests;
+    public PendingInteractions getInteractions() {
+        return interactions;
     }
 
-    public String getServerNameForRequest(UUID requestId) {
-        return requestServerNames.get(requestId);
+    public ScatterGather getScatterGather() {
+        return scatterGather;
     }
 
-    public void storeServerNameForRequest(UUID requestId, String serverName) {
-        requestServerNames.put(requestId, serverName);
+    public void shutdown() {
+        interactions.shutdown();
     }
 }
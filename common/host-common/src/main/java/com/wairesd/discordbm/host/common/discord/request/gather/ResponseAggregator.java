@@ -0,0 +1,17 @@
+package com.wairesd.discordbm.host.common.discord.request.gather;
+
+import java.util.List;
+
+/**
+ * Merges the answers of several servers into one reply.
+ */
+@FunctionalInterface
+public interface ResponseAggregator {
+
+    /**
+     * @param replies answers that arrived before the deadline, in arrival order
+     * @param missing servers that did not answer in time or could not be reached
+     * @return the reply text; empty if there is nothing to show
+     */
+    String aggregate(List<ServerReply> replies, List<String> missing);
+}
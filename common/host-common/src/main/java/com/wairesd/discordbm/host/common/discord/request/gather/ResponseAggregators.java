@@ -0,0 +1,77 @@
+package com.wairesd.discordbm.host.common.discord.request.gather;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregators that scatter-gather commands can name in settings.yml.
+ *
+ * <p>Built in are {@code list} (one line per server), {@code concat} (the
+ * answers one after another), {@code sum} (adds up numeric answers) and
+ * {@code first} (the first answer that came back). Addons can
+ * {@link #register} their own.</p>
+ */
+public final class ResponseAggregators {
+    public static final String DEFAULT = "list";
+
+    private static final Map<String, ResponseAggregator> aggregators = new ConcurrentHashMap<>();
+
+    static {
+        register("list", ResponseAggregators::list);
+        register("concat", (replies, missing) -> replies.stream()
+                .map(ServerReply::text)
+                .filter(text -> !text.isEmpty())
+                .collect(Collectors.joining("\n")));
+        register("sum", ResponseAggregators::sum);
+        register("first", (replies, missing) -> replies.stream()
+                .map(ServerReply::text)
+                .filter(text -> !text.isEmpty())
+                .findFirst()
+                .orElse(""));
+    }
+
+    private ResponseAggregators() {
+    }
+
+    public static void register(String name, ResponseAggregator aggregator) {
+        aggregators.put(name.toLowerCase(Locale.ROOT), aggregator);
+    }
+
+    /**
+     * @return the named aggregator, or {@code list} if there is none by that name
+     */
+    public static ResponseAggregator get(String name) {
+        ResponseAggregator aggregator = name != null ? aggregators.get(name.toLowerCase(Locale.ROOT)) : null;
+        return aggregator != null ? aggregator : aggregators.get(DEFAULT);
+    }
+
+    private static String list(List<ServerReply> replies, List<String> missing) {
+        StringBuilder text = new StringBuilder();
+        replies.stream()
+                .sorted(Comparator.comparing(ServerReply::serverName))
+                .forEach(reply -> text.append("**").append(reply.serverName()).append("**: ").append(reply.text()).append('\n'));
+        missing.stream()
+                .sorted()
+                .forEach(server -> text.append("**").append(server).append("**: no answer\n"));
+        return text.toString().trim();
+    }
+
+    private static String sum(List<ServerReply> replies, List<String> missing) {
+        double total = 0;
+        int counted = 0;
+        for (ServerReply reply : replies) {
+            try {
+                total += Double.parseDouble(reply.text().trim());
+                counted++;
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        String value = total == Math.rint(total) ? Long.toString((long) total) : Double.toString(total);
+        int servers = replies.size() + missing.size();
+        return counted == servers ? value : value + " (" + counted + " of " + servers + " servers)";
+    }
+}
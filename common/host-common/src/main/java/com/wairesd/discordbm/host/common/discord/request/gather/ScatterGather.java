@@ -0,0 +1,199 @@
+package com.wairesd.discordbm.host.common.discord.request.gather;
+
+import com.wairesd.discordbm.common.models.response.ResponseMessage;
+import com.wairesd.discordbm.common.utils.logging.PluginLogger;
+import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
+import com.wairesd.discordbm.host.common.config.configurators.Settings;
+import com.wairesd.discordbm.host.common.discord.request.CommandLatencies;
+import com.wairesd.discordbm.host.common.discord.request.PendingInteractions;
+import com.wairesd.discordbm.host.common.network.NettyServer;
+import com.wairesd.discordbm.host.common.network.ServerLoad;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Commands answered by several servers at once.
+ *
+ * <p>Each server gets the request under its own request id. Replies are
+ * collected until every server has answered or the deadline passes, then
+ * merged by the command's {@link ResponseAggregator} into one reply; servers
+ * that did not answer in time are left out. Replies arriving after that are
+ * discarded.</p>
+ */
+public class ScatterGather {
+    private static final PluginLogger logger = new Slf4jPluginLogger(LoggerFactory.getLogger("DiscordBM"));
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final long LATE_REPLY_MILLIS = 60_000;
+
+    private final PendingInteractions interactions;
+    private final CommandLatencies latencies;
+    private final ServerLoad load;
+    private final Map<UUID, Gather> parts = new ConcurrentHashMap<>();
+
+    public ScatterGather(PendingInteractions interactions, CommandLatencies latencies, ServerLoad load) {
+        this.interactions = interactions;
+        this.latencies = latencies;
+        this.load = load;
+    }
+
+    /**
+     * Starts waiting for the given requests. Call before sending them.
+     *
+     * @param targets request id of each server's copy of the request
+     */
+    public void start(String commandName, InteractionHook hook, ResponseAggregator aggregator,
+                      Map<UUID, NettyServer.ServerInfo> targets, long deadlineMillis) {
+        Gather gather = new Gather(commandName, hook, aggregator, targets);
+        targets.forEach((requestId, server) -> {
+            parts.put(requestId, gather);
+            load.started(server.serverName());
+        });
+        interactions.schedule(deadlineMillis, () -> complete(gather));
+    }
+
+    /**
+     * Hands a reply to the scatter-gather request it belongs to.
+     *
+     * @return {@code false} if the reply is not part of one
+     */
+    public boolean offer(UUID requestId, ResponseMessage response) {
+        Gather gather = requestId != null ? parts.get(requestId) : null;
+        if (gather == null) {
+            return false;
+        }
+        NettyServer.ServerInfo server = gather.targets.get(requestId);
+        long millis = System.currentTimeMillis() - gather.startedAt;
+        String text = response.response() != null ? response.response()
+                : response.embed() != null && response.embed().description() != null ? response.embed().description() : "";
+        if (!gather.add(requestId, new ServerReply(server.serverName(), text, millis))) {
+            if (Settings.isDebugRequestProcessing()) {
+                logger.info("Discarding late reply from {} for /{}", server.serverName(), gather.commandName);
+            }
+            return true;
+        }
+        latencies.record(gather.commandName, server.serverName(), millis);
+        load.answered(server.serverName(), millis);
+        if (gather.isAnswered()) {
+            complete(gather);
+        }
+        return true;
+    }
+
+    /**
+     * Gives up on one server's part, e.g. because the request could not be
+     * sent to it.
+     */
+    public void fail(UUID requestId) {
+        Gather gather = parts.get(requestId);
+        if (gather != null && gather.add(requestId, null)) {
+            load.failed(gather.targets.get(requestId).serverName());
+            if (gather.isAnswered()) {
+                complete(gather);
+            }
+        }
+    }
+
+    private void complete(Gather gather) {
+        List<ServerReply> replies = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        if (!gather.finish(replies, missing)) {
+            return;
+        }
+        long waited = System.currentTimeMillis() - gather.startedAt;
+        gather.targets.forEach((requestId, server) -> {
+            if (missing.contains(server.serverName()) && !gather.failed(requestId)) {
+                load.abandoned(server.serverName(), waited);
+            }
+        });
+        interactions.schedule(LATE_REPLY_MILLIS, () -> gather.targets.keySet().forEach(id -> parts.remove(id, gather)));
+        if (!missing.isEmpty()) {
+            logger.warn("/{} got no answer from {} in time", gather.commandName, missing);
+        }
+
+        String text;
+        try {
+            text = gather.aggregator.aggregate(replies, missing);
+        } catch (RuntimeException e) {
+            logger.error("Could not aggregate replies for /{}: {}", gather.commandName, e.getMessage(), e);
+            text = "";
+        }
+        if (text == null || text.isEmpty()) {
+            text = replies.isEmpty() ? "No server answered in time. Please try again." : "No results.";
+        } else if (text.length() > MAX_MESSAGE_LENGTH) {
+            text = text.substring(0, MAX_MESSAGE_LENGTH - 3) + "...";
+        }
+        gather.hook.editOriginal(text).queue(null,
+                failure -> logger.warn("Could not send gathered reply for /{}: {}", gather.commandName, failure.getMessage()));
+    }
+
+    private static final class Gather {
+        private final String commandName;
+        private final InteractionHook hook;
+        private final ResponseAggregator aggregator;
+        private final Map<UUID, NettyServer.ServerInfo> targets;
+        private final long startedAt = System.currentTimeMillis();
+        private final Map<UUID, ServerReply> replies = new HashMap<>();
+        private final List<UUID> failed = new ArrayList<>();
+        private final List<ServerReply> arrived = new ArrayList<>();
+        private boolean finished;
+
+        Gather(String commandName, InteractionHook hook, ResponseAggregator aggregator, Map<UUID, NettyServer.ServerInfo> targets) {
+            this.commandName = commandName;
+            this.hook = hook;
+            this.aggregator = aggregator;
+            this.targets = targets;
+        }
+
+        /**
+         * Records a server's reply, or its failure if {@code reply} is null.
+         *
+         * @return {@code false} if the gather is over or the part was already settled
+         */
+        synchronized boolean add(UUID requestId, ServerReply reply) {
+            if (finished || replies.containsKey(requestId) || failed.contains(requestId)) {
+                return false;
+            }
+            if (reply != null) {
+                replies.put(requestId, reply);
+                arrived.add(reply);
+            } else {
+                failed.add(requestId);
+            }
+            return true;
+        }
+
+        synchronized boolean isAnswered() {
+            return replies.size() + failed.size() == targets.size();
+        }
+
+        synchronized boolean failed(UUID requestId) {
+            return failed.contains(requestId);
+        }
+
+        /**
+         * Ends the gather and collects what arrived.
+         *
+         * @return {@code false} if it had already ended
+         */
+        synchronized boolean finish(List<ServerReply> repliesOut, List<String> missingOut) {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            repliesOut.addAll(arrived);
+            targets.forEach((requestId, server) -> {
+                if (!replies.containsKey(requestId)) {
+                    missingOut.add(server.serverName());
+                }
+            });
+            return true;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.wairesd.discordbm.host.common.discord.request.gather;
+
+/**
+ * One server's answer to a scatter-gather request.
+ *
+ * @param text   the reply text, or the embed description if it only sent an embed
+ * @param millis how long the server took to answer
+ */
+public record ServerReply(String serverName, String text, long millis) {
+}
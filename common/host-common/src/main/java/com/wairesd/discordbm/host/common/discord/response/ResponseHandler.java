@@ -15,6 +15,8 @@ import com.wairesd.discordbm.host.common.commandbuilder.utils.message.MessageUpd
 import com.wairesd.discordbm.host.common.discord.DiscordBMHPlatformManager;
 import com.wairesd.discordbm.host.common.config.configurators.Settings;
 import com.wairesd.discordbm.host.common.discord.DiscordBotListener;
+import com.wairesd.discordbm.host.common.discord.request.Acknowledgement;
+import com.wairesd.discordbm.host.common.discord.request.PendingInteraction;
 import com.wairesd.discordbm.host.common.discord.request.RequestSender;
 import com.wairesd.discordbm.host.common.commandbuilder.core.models.context.Context;
 import com.wairesd.discordbm.host.common.commandbuilder.utils.MessageFormatterUtils;
@@ -25,8 +27,8 @@ import com.wairesd.discordbm.host.common.commandbuilder.core.models.error.Comman
 import com.wairesd.discordbm.host.common.commandbuilder.components.buttons.registry.ButtonActionRegistry;
 import com.wairesd.discordbm.api.message.ResponseType;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.interactions.components.text.TextInput;
@@ -66,11 +68,11 @@ public class ResponseHandler {
         
         if (respMsg.conditions() != null && !respMsg.conditions().isEmpty()) {
             Context context = null;
-            var event = listener != null ? listener.getRequestSender().getPendingRequests().get(respMsg.requestId()) : null;
-            if (event != null) {
-                context = new Context(event);
+            var pending = listener != null ? listener.getRequestSender().getInteractions().get(respMsg.requestId()) : null;
+            if (pending != null && pending.callback() != null) {
+                context = new Context(pending.callback());
             } else {
-                context = new Context((SlashCommandInteractionEvent) null);
+                context = new Context((SlashCommandInteraction) null);
             }
             for (var condMap : respMsg.conditions()) {
                 try {
@@ -99,6 +101,10 @@ public class ResponseHandler {
                     break;
             }
 
+            if (requestId != null && listener != null && listener.getRequestSender().getScatterGather().offer(requestId, respMsg)) {
+                return;
+            }
+
             switch (responseType) {
                 case MODAL:
                     if (sentFormRequests.putIfAbsent(respMsg.requestId(), true) != null) {
@@ -156,37 +162,23 @@ public class ResponseHandler {
                 return;
             }
 
-            InteractionHook storedHook = listener.getRequestSender().removeInteractionHook(requestId);
-            if (storedHook != null) {
-                sendResponseWithHook(storedHook, respMsg);
-                return;
-            }
-
-            final UUID finalRequestId = requestId;
-            var event = listener.getRequestSender().getPendingRequests().remove(requestId);
-            if (event == null) {
+            PendingInteraction pending = listener.getRequestSender().getInteractions().answer(requestId);
+            if (pending == null) {
+                if (listener.getRequestSender().getInteractions().isSettled(requestId)) {
+                    if (Settings.isDebugRequestProcessing()) {
+                        logger.info("Discarding late reply for requestId {}, another server already answered", requestId);
+                    }
+                    return;
+                }
                 if (respMsg.embed() != null && respMsg.buttons() != null && !respMsg.buttons().isEmpty()) {
                     return;
                 }
-                new java.util.Timer().schedule(new java.util.TimerTask() {
-                    @Override
-                    public void run() {
-                        InteractionHook retryHook = listener.getRequestSender().removeInteractionHook(finalRequestId);
-                        if (retryHook != null) {
-                            sendResponseWithHook(retryHook, respMsg);
-                            return;
-                        }
-                        var retryEvent = listener.getRequestSender().getPendingRequests().remove(finalRequestId);
-                        if (retryEvent != null) {
-                            sendResponse(retryEvent, respMsg);
-                        } else {
-                            logger.error("Still no event or hook found for requestId: {}", finalRequestId);
-                        }
-                    }
-                }, 100);
+                if (!listener.getRequestSender().getInteractions().park(requestId, parked -> sendResponse(parked, respMsg))) {
+                    logger.error("Too many replies waiting for their interaction, dropping requestId: {}", requestId);
+                }
                 return;
             } else {
-                sendResponse(event, respMsg);
+                sendResponse(pending, respMsg);
             }
         } catch (IllegalArgumentException e) {
             logInvalidUUID(respMsg.requestId(), e);
@@ -194,6 +186,15 @@ public class ResponseHandler {
     }
 
     private static void handleFormResponse(UUID requestId, ResponseMessage respMsg) {
+        handleFormResponse(requestId, respMsg, false);
+    }
+
+    /**
+     * @param withReply whether this answers a REPLY_MODAL that already
+     *                  claimed the interaction; its text is then sent after
+     *                  the modal, since a modal has to be the first answer
+     */
+    private static void handleFormResponse(UUID requestId, ResponseMessage respMsg, boolean withReply) {
         ModalDefinition formDef = respMsg.modal();
         if (formDef == null) {
             logger.error("Form definition is null for requestId: {}", requestId);
@@ -234,13 +235,34 @@ public class ResponseHandler {
             }
         }
 
-        var event = listener.getRequestSender().getPendingRequests().get(requestId);
-        if (event != null) {
+        PendingInteraction pending = listener.getRequestSender().getInteractions().answer(requestId);
+        if (pending != null && pending.callback() != null) {
+            Acknowledgement ack = pending.ack();
+            if (!withReply && ack != null && !ack.claimReply()) {
+                ack.deferred().whenComplete((hook, failure) -> {
+                    if (failure != null) {
+                        logger.error("Failed to defer form requestId: {} - {}", requestId, failure.getMessage());
+                    } else {
+                        sendFormUnavailable(hook, respMsg);
+                    }
+                });
+                return;
+            }
+            var event = pending.callback();
+            if (ack == null && event.isAcknowledged()) {
+                sendFormUnavailable(pending.hook(), respMsg);
+                return;
+            }
             event.replyModal(modal).queue(
                     success -> {
                         if (Settings.isDebugRequestProcessing()) {
                             logger.info("Form sent successfully for requestId: {}", requestId);
                         }
+                        if (withReply && respMsg.response() != null && !respMsg.response().isEmpty()) {
+                            boolean ephemeral = respMsg.flags() != null && respMsg.flags().isEphemeral();
+                            event.getHook().sendMessage(respMsg.response()).setEphemeral(ephemeral).queue(null,
+                                    failure -> logger.error("Failed to send reply for REPLY_MODAL: {}", failure.getMessage()));
+                        }
                     },
                     failure -> {
                         logger.error("Failed to send form: {}", failure.getMessage());
@@ -248,19 +270,93 @@ public class ResponseHandler {
                     }
             );
         } else {
-            InteractionHook hook = listener.getRequestSender().removeInteractionHook(requestId);
+            InteractionHook hook = pending != null ? pending.hook() : null;
             if (hook != null) {
-                if (respMsg.response() != null && !respMsg.response().isEmpty()) {
-                    hook.sendMessage(respMsg.response()).setEphemeral(true).queue();
-                }
-                hook.sendMessage("Form functionality is not available for deferred responses.").setEphemeral(true).queue();
+                sendFormUnavailable(hook, respMsg);
             } else {
                 logger.error("No event or hook found for form requestId: {}", requestId);
             }
         }
     }
 
-    private static void sendResponse(SlashCommandInteractionEvent event, ResponseMessage respMsg) {
+    /**
+     * A modal can only be the first answer to an interaction, so an already
+     * deferred one gets the form's message and a notice instead.
+     */
+    private static void sendFormUnavailable(InteractionHook hook, ResponseMessage respMsg) {
+        if (respMsg.response() != null && !respMsg.response().isEmpty()) {
+            hook.sendMessage(respMsg.response()).setEphemeral(true).queue();
+        }
+        hook.sendMessage("Form functionality is not available for deferred responses.").setEphemeral(true).queue();
+    }
+
+    private static void sendResponse(PendingInteraction pending, ResponseMessage respMsg) {
+        List<ButtonDefinition> buttons = listener.getServerSelector().withChangeServerButton(pending.requestId(), respMsg.buttons());
+        deliverResponse(pending, buttons != respMsg.buttons() ? respMsg.withButtons(buttons) : respMsg);
+    }
+
+    private static void deliverResponse(PendingInteraction pending, ResponseMessage respMsg) {
+        var event = pending.callback();
+        if (event == null) {
+            sendResponseWithHook(pending.hook(), respMsg);
+            return;
+        }
+        Acknowledgement ack = pending.ack();
+        if (ack != null) {
+            if (ack.claimReply()) {
+                replyDirectly(pending, respMsg);
+            } else {
+                ack.deferred().whenComplete((hook, failure) -> {
+                    if (failure != null) {
+                        logger.error("Failed to defer reply for requestId: {} - {}", respMsg.requestId(), failure.getMessage());
+                    } else {
+                        sendDeferredResponse(pending, respMsg);
+                    }
+                });
+            }
+            return;
+        }
+        sendDeferredResponse(pending, respMsg);
+    }
+
+    /**
+     * Answers a speculatively dispatched interaction whose reply arrived
+     * before it was deferred, with a single reply instead of a defer and a
+     * follow-up. Responses that only make sense after a defer are deferred now.
+     */
+    private static void replyDirectly(PendingInteraction pending, ResponseMessage respMsg) {
+        var event = pending.callback();
+        boolean ephemeral = respMsg.flags() != null && respMsg.flags().isEphemeral();
+        String responseType = respMsg.flags() != null ? respMsg.flags().getResponseType() : null;
+        boolean plainText = respMsg.response() != null && !respMsg.response().startsWith("ERROR:");
+        if (responseType != null || (respMsg.embed() == null && !plainText)) {
+            event.deferReply(ephemeral).queue(hook -> sendDeferredResponse(pending, respMsg),
+                    failure -> logger.error("Failed to defer reply for requestId: {} - {}", respMsg.requestId(), failure.getMessage()));
+            return;
+        }
+        var action = respMsg.embed() != null
+                ? event.replyEmbeds(buildCustomEmbed(event, respMsg.embed(), pending.serverName()))
+                : event.reply(respMsg.response());
+        if (respMsg.buttons() != null && !respMsg.buttons().isEmpty()) {
+            action = action.addActionRow(toJdaButtons(respMsg.buttons()));
+        }
+        String label = respMsg.requestId();
+        action.setEphemeral(ephemeral).queue(
+                hook -> {
+                    if (label != null && !label.isEmpty() && respMsg.embed() == null) {
+                        hook.retrieveOriginal().queue(message ->
+                                platformManager.setGlobalMessageLabel(label, pending.channelId(), message.getId()));
+                    }
+                    if (Settings.isDebugRequestProcessing()) {
+                        logger.info("Replied directly to requestId: {}", respMsg.requestId());
+                    }
+                },
+                failure -> logger.error("Failed to reply to requestId: {} - {}", respMsg.requestId(), failure.getMessage())
+        );
+    }
+
+    private static void sendDeferredResponse(PendingInteraction pending, ResponseMessage respMsg) {
+        var event = pending.callback();
         boolean ephemeral = respMsg.flags() != null && respMsg.flags().isEphemeral();
         String responseType = respMsg.flags() != null ? respMsg.flags().getResponseType() : null;
         String label = respMsg.requestId();
@@ -315,7 +411,7 @@ public class ResponseHandler {
             return;
         }
         if (respMsg.embed() != null) {
-            sendCustomEmbed(event, respMsg.embed(), respMsg.buttons(), UUID.fromString(respMsg.requestId()), ephemeral);
+            sendCustomEmbed(event, respMsg.embed(), respMsg.buttons(), pending.requestId(), pending.serverName(), ephemeral);
         } else if (respMsg.response() != null) {
             if (respMsg.response().startsWith("ERROR:")) {
                 handleConditionError(event, respMsg.response(), ephemeral);
@@ -367,8 +463,6 @@ public class ResponseHandler {
             if (Settings.isDebugRequestProcessing()) {
                 logger.info("Response sent for requestId: {}", respMsg.requestId());
             }
-            UUID requestId = UUID.fromString(respMsg.requestId());
-            var removed = listener.getRequestSender().getPendingRequests().remove(requestId);
         } else {
             event.getHook().sendMessage("No response provided.").setEphemeral(ephemeral).queue();
         }
@@ -388,14 +482,50 @@ public class ResponseHandler {
         }
     }
 
-    private static void sendCustomEmbed(SlashCommandInteractionEvent event, EmbedDefinition embedDef, List<ButtonDefinition> buttons, UUID requestId, boolean ephemeral) {
+    private static void sendCustomEmbed(SlashCommandInteraction event, EmbedDefinition embedDef, List<ButtonDefinition> buttons, UUID requestId, String serverName, boolean ephemeral) {
+        var embed = buildCustomEmbed(event, embedDef, serverName);
+        if (buttons != null && !buttons.isEmpty()) {
+            List<Button> jdaButtons = toJdaButtons(buttons);
+            if (ephemeral) {
+                event.getHook().sendMessageEmbeds(embed).addActionRow(jdaButtons).setEphemeral(true).queue();
+            } else {
+                event.getHook().editOriginalEmbeds(embed)
+                        .setActionRow(jdaButtons.toArray(new Button[0]))
+                        .queue();
+            }
+        } else {
+            if (Settings.isDebugRequestProcessing()) {
+                logger.info("About to send embed for requestId: {}", requestId);
+            }
+            if (ephemeral) {
+                event.getHook().sendMessageEmbeds(embed).setEphemeral(true).queue(
+                        success -> {
+                            if (Settings.isDebugRequestProcessing()) {
+                                logger.info("Successfully sent embed for requestId: {}", requestId);
+                            }
+                        },
+                        failure -> logger.error("Failed to send embed for requestId: {} - {}", requestId, failure.getMessage())
+                );
+            } else {
+                event.getHook().editOriginalEmbeds(embed).queue(
+                        success -> {
+                            if (Settings.isDebugRequestProcessing()) {
+                                logger.info("Successfully sent embed for requestId: {}", requestId);
+                            }
+                        },
+                        failure -> logger.error("Failed to send embed for requestId: {} - {}", requestId, failure.getMessage())
+                );
+            }
+        }
+    }
+
+    private static MessageEmbed buildCustomEmbed(SlashCommandInteraction event, EmbedDefinition embedDef, String serverName) {
         var embedBuilder = new EmbedBuilder();
         if (embedDef.title() != null) {
             embedBuilder.setTitle(embedDef.title());
         }
         if (embedDef.description() != null) {
             Context context = new Context(event);
-            String serverName = listener.getRequestSender().getServerNameForRequest(requestId);
             if (serverName != null) {
                 Map<String, String> variables = new HashMap<>();
                 variables.put(RequestSender.SERVER_NAME_VAR, serverName);
@@ -417,7 +547,6 @@ public class ResponseHandler {
         if (embedDef.fields() != null) {
             for (var field : embedDef.fields()) {
                 Context context = new Context(event);
-                String serverName = listener.getRequestSender().getServerNameForRequest(requestId);
                 if (serverName != null) {
                     Map<String, String> variables = new HashMap<>();
                     variables.put(RequestSender.SERVER_NAME_VAR, serverName);
@@ -436,49 +565,20 @@ public class ResponseHandler {
                 embedBuilder.addField(fieldName, fieldValue, field.inline());
             }
         }
-        var embed = embedBuilder.build();
-        if (buttons != null && !buttons.isEmpty()) {
-            List<Button> jdaButtons = buttons.stream()
-                    .map(btn -> {
-                        if (btn.style() == ButtonStyle.LINK) {
-                            return Button.link(btn.url(), btn.label());
-                        } else {
-                            return Button.of(getJdaButtonStyle(btn.style()), btn.customId(), btn.label())
-                                    .withDisabled(btn.disabled());
-                        }
-                    })
-                    .collect(Collectors.toList());
-            if (ephemeral) {
-                event.getHook().sendMessageEmbeds(embed).addActionRow(jdaButtons).setEphemeral(true).queue();
-            } else {
-                event.getHook().editOriginalEmbeds(embed)
-                        .setActionRow(jdaButtons.toArray(new Button[0]))
-                        .queue();
-            }
-        } else {
-            if (Settings.isDebugRequestProcessing()) {
-                logger.info("About to send embed for requestId: {}", requestId);
-            }
-            if (ephemeral) {
-                event.getHook().sendMessageEmbeds(embed).setEphemeral(true).queue(
-                        success -> {
-                            if (Settings.isDebugRequestProcessing()) {
-                                logger.info("Successfully sent embed for requestId: {}", requestId);
-                            }
-                        },
-                        failure -> logger.error("Failed to send embed for requestId: {} - {}", requestId, failure.getMessage())
-                );
-            } else {
-                event.getHook().editOriginalEmbeds(embed).queue(
-                        success -> {
-                            if (Settings.isDebugRequestProcessing()) {
-                                logger.info("Successfully sent embed for requestId: {}", requestId);
-                            }
-                        },
-                        failure -> logger.error("Failed to send embed for requestId: {} - {}", requestId, failure.getMessage())
-                );
-            }
-        }
+        return embedBuilder.build();
+    }
+
+    private static List<Button> toJdaButtons(List<ButtonDefinition> buttons) {
+        return buttons.stream()
+                .map(btn -> {
+                    if (btn.style() == ButtonStyle.LINK) {
+                        return Button.link(btn.url(), btn.label());
+                    } else {
+                        return Button.of(getJdaButtonStyle(btn.style()), btn.customId(), btn.label())
+                                .withDisabled(btn.disabled());
+                    }
+                })
+                .collect(Collectors.toList());
     }
 
     private static net.dv8tion.jda.api.interactions.components.buttons.ButtonStyle getJdaButtonStyle(ButtonStyle style) {
@@ -555,25 +655,15 @@ public class ResponseHandler {
     }
 
     private static void handleReplyModal(UUID requestId, ResponseMessage respMsg) {
-        var event = listener.getRequestSender().getPendingRequests().remove(requestId);
-        if (event != null) {
-            boolean ephemeral = respMsg.flags() != null && respMsg.flags().isEphemeral();
-            if (respMsg.response() != null && !respMsg.response().isEmpty()) {
-                event.getHook().sendMessage(respMsg.response()).setEphemeral(ephemeral).queue(
-                    success -> {
-                        if (Settings.isDebugRequestProcessing()) {
-                            logger.info("Reply sent for REPLY_MODAL, now sending form for requestId: {}", requestId);
-                        }
-                        handleFormResponse(requestId, respMsg);
-                    },
-                    failure -> logger.error("Failed to send reply for REPLY_MODAL: {}", failure.getMessage())
-                );
-            } else {
-                handleFormResponse(requestId, respMsg);
-            }
-        } else {
+        PendingInteraction pending = listener.getRequestSender().getInteractions().get(requestId);
+        if (pending == null || pending.callback() == null) {
             logger.error("No event found for REPLY_MODAL requestId: {}", requestId);
+            return;
         }
+        // Claim before sending anything: text queued on the hook would wait
+        // for the defer, and the modal would always come too late.
+        Acknowledgement ack = pending.ack();
+        handleFormResponse(requestId, respMsg, ack == null || ack.claimReply());
     }
 
     public static void sendDirectMessage(ResponseMessage respMsg) {
@@ -743,7 +833,7 @@ public class ResponseHandler {
         }
     }
     
-    private static void handleConditionError(SlashCommandInteractionEvent event, String errorMessage, boolean ephemeral) {
+    private static void handleConditionError(SlashCommandInteraction event, String errorMessage, boolean ephemeral) {
         try {
             String[] parts = errorMessage.split(":", 3);
             if (parts.length < 2) {
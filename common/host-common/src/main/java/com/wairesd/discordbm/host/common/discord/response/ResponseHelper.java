@@ -3,6 +3,7 @@ package com.wairesd.discordbm.host.common.discord.response;
 import com.wairesd.discordbm.host.common.config.configurators.Messages;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 
 public class ResponseHelper {
 
@@ -12,7 +13,7 @@ public class ResponseHelper {
                 .queue();
     }
 
-    public void replySelectionTimeout(StringSelectInteractionEvent event) {
+    public void replySelectionTimeout(IReplyCallback event) {
         event.reply(Messages.get(Messages.Keys.SERVER_SELECTION_TIMEOUT))
                 .setEphemeral(true)
                 .queue();
@@ -24,7 +25,7 @@ public class ResponseHelper {
                 .queue();
     }
 
-    public void replyServerNotFound(StringSelectInteractionEvent event) {
+    public void replyServerNotFound(IReplyCallback event) {
         event.reply(Messages.get(Messages.Keys.SERVER_SELECTION_NOT_FOUND))
                 .setEphemeral(true)
                 .queue();
@@ -0,0 +1,132 @@
+package com.wairesd.discordbm.host.common.discord.selection;
+
+import com.wairesd.discordbm.host.common.config.configurators.Messages;
+import com.wairesd.discordbm.host.common.config.configurators.Settings;
+import com.wairesd.discordbm.host.common.network.NettyServer;
+import net.dv8tion.jda.api.interactions.components.selections.SelectOption;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sorted view of the servers handling one command, built once per routing
+ * table and settings reload instead of on every menu.
+ *
+ * <p>Servers are ordered by name, ignoring case. Groups come from
+ * {@code Discord.routing.groups}; servers in no group are listed under an
+ * extra "other" group.</p>
+ */
+final class ServerIndex {
+    private final List<NettyServer.ServerInfo> source;
+    private final int generation;
+    private final List<String> names;
+    private final List<String> lowerNames;
+    private final Map<String, NettyServer.ServerInfo> byName;
+    private final List<SelectOption> serverOptions;
+    private final Map<String, List<SelectOption>> groupOptions;
+    private final List<SelectOption> groupChoices;
+
+    ServerIndex(List<NettyServer.ServerInfo> servers) {
+        this.source = servers;
+        this.generation = Settings.getGeneration();
+
+        TreeMap<String, NettyServer.ServerInfo> sorted = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (NettyServer.ServerInfo server : servers) {
+            sorted.putIfAbsent(server.serverName(), server);
+        }
+        this.byName = Collections.unmodifiableMap(new HashMap<>(sorted));
+        this.names = List.copyOf(sorted.keySet());
+        this.lowerNames = names.stream().map(name -> name.toLowerCase(Locale.ROOT)).toList();
+        this.serverOptions = names.stream().map(ServerIndex::option).toList();
+
+        Map<String, List<SelectOption>> groups = new LinkedHashMap<>();
+        List<String> ungrouped = new ArrayList<>(names);
+        Settings.getServerGroups().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(String.CASE_INSENSITIVE_ORDER))
+                .forEach(group -> {
+                    List<SelectOption> members = names.stream()
+                            .filter(group.getValue()::contains)
+                            .map(ServerIndex::option)
+                            .toList();
+                    if (!members.isEmpty()) {
+                        groups.put(group.getKey(), members);
+                        ungrouped.removeAll(group.getValue());
+                    }
+                });
+        if (!groups.isEmpty() && !ungrouped.isEmpty()) {
+            groups.put("", ungrouped.stream().map(ServerIndex::option).toList());
+        }
+        this.groupOptions = Collections.unmodifiableMap(groups);
+
+        String other = Messages.getMessage(Messages.Keys.SERVER_SELECTION_OTHER_GROUP, "Other");
+        this.groupChoices = groups.entrySet().stream()
+                .map(group -> SelectOption.of(group.getKey().isEmpty() ? other : group.getKey(), ServerSelector.groupPage(group.getKey(), 0)))
+                .toList();
+    }
+
+    /**
+     * Whether this index still matches the command's servers and settings.
+     * Routing tables are immutable, so the same list means the same servers.
+     */
+    boolean isCurrent(List<NettyServer.ServerInfo> servers) {
+        return source == servers && generation == Settings.getGeneration();
+    }
+
+    NettyServer.ServerInfo get(String serverName) {
+        return byName.get(serverName);
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    boolean hasGroups() {
+        return !groupOptions.isEmpty();
+    }
+
+    List<SelectOption> servers() {
+        return serverOptions;
+    }
+
+    /**
+     * Servers of a group, or all servers for an unknown group.
+     */
+    List<SelectOption> servers(String group) {
+        return groupOptions.getOrDefault(group, serverOptions);
+    }
+
+    List<SelectOption> groups() {
+        return groupChoices;
+    }
+
+    /**
+     * Names starting with the query first, then names containing it,
+     * each in sorted order.
+     */
+    List<String> search(String query, int limit) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>(Math.min(limit, names.size()));
+        for (int i = 0; i < names.size() && result.size() < limit; i++) {
+            if (lowerNames.get(i).startsWith(needle)) {
+                result.add(names.get(i));
+            }
+        }
+        for (int i = 0; i < names.size() && result.size() < limit && !needle.isEmpty(); i++) {
+            String name = lowerNames.get(i);
+            if (!name.startsWith(needle) && name.contains(needle)) {
+                result.add(names.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static SelectOption option(String serverName) {
+        return SelectOption.of(serverName, ServerSelector.SERVER_VALUE + serverName);
+    }
+}
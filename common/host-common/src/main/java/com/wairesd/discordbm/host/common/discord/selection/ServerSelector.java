@@ -1,26 +1,60 @@
 package com.wairesd.discordbm.host.common.discord.selection;
 
-import com.google.gson.Gson;
+import com.wairesd.discordbm.common.models.buttons.ButtonDefinition;
+import com.wairesd.discordbm.common.models.buttons.ButtonStyle;
 import com.wairesd.discordbm.host.common.config.configurators.Messages;
+import com.wairesd.discordbm.host.common.config.configurators.Settings;
+import com.wairesd.discordbm.host.common.discord.request.PendingInteractions;
 import com.wairesd.discordbm.host.common.discord.request.RequestSender;
 import com.wairesd.discordbm.host.common.discord.response.ResponseHelper;
-import com.wairesd.discordbm.host.common.models.request.RequestMessage;
+import com.wairesd.discordbm.common.models.request.RequestMessage;
+import com.wairesd.discordbm.host.common.models.command.CommandDefinition;
 import com.wairesd.discordbm.host.common.network.NettyServer;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.components.selections.SelectOption;
 import net.dv8tion.jda.api.interactions.components.selections.StringSelectMenu;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
+/**
+ * Lets the user pick the server for a command several servers registered.
+ *
+ * <p>The pick is remembered per user, or per guild, for
+ * {@link Settings#getSelectionRememberMinutes()}; later invocations go
+ * straight to that server and their reply carries a "change server" button
+ * that opens the menu again. Menus nobody answers are forgotten once their
+ * interaction has expired.</p>
+ *
+ * <p>A select menu holds at most 25 options, so larger networks get pages,
+ * and a list of server groups first when groups are configured. Commands
+ * can also take the server as an autocompleted option, see
+ * {@link Settings#getSelectionServerOption()}.</p>
+ */
 public class ServerSelector {
     private static final String SELECT_MENU_PREFIX = "select_server_";
+    public static final String CHANGE_SERVER_PREFIX = "change_server_";
+    private static final long SELECTION_TTL_MILLIS = PendingInteractions.HOOK_WINDOW_MILLIS;
+    private static final int MAX_BUTTONS_PER_ROW = 5;
+    private static final int MAX_OPTIONS = 25;
+
+    static final String SERVER_VALUE = "s:";
+    private static final String ALL_PAGE_VALUE = "a:";
+    private static final String GROUP_PAGE_VALUE = "p:";
+    private static final String GROUPS_PAGE_VALUE = "q:";
 
     private final ConcurrentHashMap<String, SelectionInfo> pendingSelections = new ConcurrentHashMap<>();
+    private final Map<String, Choice> choices = new ConcurrentHashMap<>();
+    private final Map<UUID, String> stickyRequests = new ConcurrentHashMap<>();
+    private final Map<String, ServerIndex> indexes = new ConcurrentHashMap<>();
 
     private final RequestSender requestSender;
     private final ResponseHelper responseHelper;
@@ -32,9 +66,9 @@ public class ServerSelector {
 
     public void sendServerSelectionMenu(SlashCommandInteractionEvent event, List<NettyServer.ServerInfo> servers) {
         String selectMenuId = generateSelectMenuId();
-        pendingSelections.put(selectMenuId, new SelectionInfo(event, servers));
+        addSelection(selectMenuId, new SelectionInfo(event, servers));
 
-        StringSelectMenu menu = createServerSelectMenu(selectMenuId, servers);
+        StringSelectMenu menu = createServerSelectMenu(selectMenuId, indexFor(event.getName(), servers));
 
         event.reply(Messages.get(Messages.Keys.SERVER_SELECTION_PROMPT))
                 .addActionRow(menu)
@@ -42,28 +76,160 @@ public class ServerSelector {
                 .queue();
     }
 
+    /**
+     * Name of the option that picks the server for a command, or
+     * {@code null} if none is configured or the command has an option of
+     * that name itself.
+     */
+    public static String serverOptionFor(CommandDefinition definition) {
+        String option = Settings.getSelectionServerOption();
+        if (option == null || option.isBlank() || definition == null) {
+            return null;
+        }
+        if (definition.options() != null && definition.options().stream().anyMatch(opt -> option.equals(opt.name()))) {
+            return null;
+        }
+        return option;
+    }
+
+    /**
+     * The server named in the command's server option.
+     *
+     * @return {@code null} if no server of that name handles the command
+     */
+    public NettyServer.ServerInfo requestedServer(SlashCommandInteractionEvent event, String serverOption, List<NettyServer.ServerInfo> servers) {
+        OptionMapping option = event.getOption(serverOption);
+        if (option == null) {
+            return null;
+        }
+        NettyServer.ServerInfo server = indexFor(event.getName(), servers).get(option.getAsString().trim());
+        return server != null && server.channel() != null && server.channel().isActive() ? server : null;
+    }
+
+    /**
+     * Server names for the server option's autocomplete.
+     */
+    public List<String> searchServers(String command, List<NettyServer.ServerInfo> servers, String query) {
+        return indexFor(command, servers).search(query, MAX_OPTIONS);
+    }
+
+    /**
+     * The server this user (or guild) last picked for the command, if the
+     * pick has not expired and that server still handles the command.
+     */
+    public NettyServer.ServerInfo rememberedServer(SlashCommandInteractionEvent event, List<NettyServer.ServerInfo> servers) {
+        if (Settings.getSelectionRememberMinutes() <= 0) {
+            return null;
+        }
+        Choice choice = choices.get(choiceKey(event));
+        if (choice == null || choice.expiresAt() < System.currentTimeMillis()) {
+            return null;
+        }
+        for (NettyServer.ServerInfo server : servers) {
+            if (server.serverName().equals(choice.serverName()) && server.channel() != null && server.channel().isActive()) {
+                return server;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Notes that a request was routed by a remembered pick, so its reply
+     * gets a button to pick again.
+     */
+    public void markRemembered(UUID requestId, SlashCommandInteractionEvent event, List<NettyServer.ServerInfo> servers) {
+        String selectionId = UUID.randomUUID().toString();
+        addSelection(CHANGE_SERVER_PREFIX + selectionId, new SelectionInfo(event, servers));
+        stickyRequests.put(requestId, selectionId);
+        requestSender.getInteractions().schedule(SELECTION_TTL_MILLIS, () -> stickyRequests.remove(requestId, selectionId));
+    }
+
+    /**
+     * Adds the "change server" button to a reply if its request was routed
+     * by a remembered pick and the reply has room for it.
+     */
+    public List<ButtonDefinition> withChangeServerButton(UUID requestId, List<ButtonDefinition> buttons) {
+        String selectionId = requestId != null ? stickyRequests.remove(requestId) : null;
+        if (selectionId == null || buttons != null && buttons.size() >= MAX_BUTTONS_PER_ROW) {
+            return buttons;
+        }
+        ButtonDefinition change = new ButtonDefinition.Builder()
+                .label(Messages.getMessage(Messages.Keys.SERVER_CHANGE_BUTTON, "Change server"))
+                .customId(CHANGE_SERVER_PREFIX + selectionId)
+                .style(ButtonStyle.SECONDARY)
+                .build();
+        if (buttons == null || buttons.isEmpty()) {
+            return List.of(change);
+        }
+        List<ButtonDefinition> extended = new ArrayList<>(buttons);
+        extended.add(change);
+        return extended;
+    }
+
     public boolean isValidSelectMenu(StringSelectInteractionEvent event) {
         return event.getComponentId().startsWith(SELECT_MENU_PREFIX);
     }
 
+    public boolean isChangeServerButton(ButtonInteractionEvent event) {
+        return event.getComponentId().startsWith(CHANGE_SERVER_PREFIX);
+    }
+
+    /**
+     * Forgets the remembered pick and shows the selection menu again.
+     */
+    public void handleChangeServer(ButtonInteractionEvent event) {
+        SelectionInfo selectionInfo = pendingSelections.get(event.getComponentId());
+        if (selectionInfo == null) {
+            responseHelper.replySelectionTimeout(event);
+            return;
+        }
+        if (!event.getUser().getId().equals(selectionInfo.event().getUser().getId())) {
+            event.reply(Messages.getMessage(Messages.Keys.SERVER_CHANGE_NOT_ALLOWED,
+                    "Only the user who ran the command can change its server.")).setEphemeral(true).queue();
+            return;
+        }
+        choices.remove(choiceKey(selectionInfo.event()));
+
+        String selectMenuId = generateSelectMenuId();
+        addSelection(selectMenuId, selectionInfo);
+        event.reply(Messages.get(Messages.Keys.SERVER_SELECTION_PROMPT))
+                .addActionRow(createServerSelectMenu(selectMenuId, indexFor(selectionInfo.event().getName(), selectionInfo.servers())))
+                .setEphemeral(true)
+                .queue();
+    }
+
     public void handleSelection(StringSelectInteractionEvent event) {
-        SelectionInfo selectionInfo = pendingSelections.remove(event.getComponentId());
+        String selectMenuId = event.getComponentId();
+        SelectionInfo selectionInfo = pendingSelections.get(selectMenuId);
         if (selectionInfo == null) {
             responseHelper.replySelectionTimeout(event);
             return;
         }
 
-        String chosenServerName = event.getValues().stream().findFirst().orElse(null);
-        if (chosenServerName == null) {
+        String value = event.getValues().stream().findFirst().orElse(null);
+        if (value == null) {
             responseHelper.replyNoServerSelected(event);
             return;
         }
 
-        NettyServer.ServerInfo targetServer = findTargetServer(selectionInfo.servers(), chosenServerName);
+        ServerIndex index = indexFor(selectionInfo.event().getName(), selectionInfo.servers());
+        StringSelectMenu page = navigate(selectMenuId, index, value);
+        if (page != null) {
+            event.editSelectMenu(page).queue();
+            return;
+        }
+
+        String chosenServerName = value.startsWith(SERVER_VALUE) ? value.substring(SERVER_VALUE.length()) : null;
+        NettyServer.ServerInfo targetServer = chosenServerName != null ? index.get(chosenServerName) : null;
         if (targetServer == null) {
             responseHelper.replyServerNotFound(event);
             return;
         }
+        if (!pendingSelections.remove(selectMenuId, selectionInfo)) {
+            responseHelper.replySelectionTimeout(event);
+            return;
+        }
+        remember(selectionInfo.event(), chosenServerName);
 
         event.deferEdit().queue(hook -> {
             SlashCommandInteractionEvent originalEvent = selectionInfo.event();
@@ -72,37 +238,132 @@ public class ServerSelector {
             UUID requestId = UUID.randomUUID();
             Map<String, String> options = originalEvent.getOptions().stream()
                     .collect(Collectors.toMap(opt -> opt.getName(), opt -> opt.getAsString()));
-            
+
             RequestMessage request = new RequestMessage("request", commandName, options, requestId.toString());
-            String json = new Gson().toJson(request);
-            
-            requestSender.storeInteractionHook(requestId, hook);
-            requestSender.storeServerNameForRequest(requestId, chosenServerName);
-            
-            targetServer.channel().writeAndFlush(json);
-            
+
+            requestSender.storeInteractionHook(requestId, hook, commandName, chosenServerName);
+
+            targetServer.channel().writeAndFlush(request);
+
             hook.editOriginal(Messages.get(Messages.Keys.SERVER_PROCESSING, chosenServerName)).queue();
         });
     }
 
-    private NettyServer.ServerInfo findTargetServer(List<NettyServer.ServerInfo> servers, String chosenServerName) {
-        return servers.stream()
-                .filter(server -> server.serverName().equals(chosenServerName))
-                .findFirst()
-                .orElse(null);
+    private void remember(SlashCommandInteractionEvent event, String serverName) {
+        int minutes = Settings.getSelectionRememberMinutes();
+        if (minutes <= 0) {
+            return;
+        }
+        String key = choiceKey(event);
+        long ttl = minutes * 60_000L;
+        Choice choice = new Choice(serverName, System.currentTimeMillis() + ttl);
+        choices.put(key, choice);
+        requestSender.getInteractions().schedule(ttl, () -> choices.remove(key, choice));
+    }
+
+    /**
+     * Key of a remembered pick: the command plus the guild when picks are
+     * shared per guild, otherwise the user.
+     */
+    private static String choiceKey(SlashCommandInteractionEvent event) {
+        if ("guild".equalsIgnoreCase(Settings.getSelectionRememberScope()) && event.getGuild() != null) {
+            return event.getName() + ":g" + event.getGuild().getId();
+        }
+        return event.getName() + ":u" + event.getUser().getId();
+    }
+
+    private void addSelection(String id, SelectionInfo selectionInfo) {
+        pendingSelections.put(id, selectionInfo);
+        requestSender.getInteractions().schedule(SELECTION_TTL_MILLIS, () -> pendingSelections.remove(id, selectionInfo));
+    }
+
+    /**
+     * The command's index, rebuilt only when its servers or the settings
+     * have changed.
+     */
+    private ServerIndex indexFor(String command, List<NettyServer.ServerInfo> servers) {
+        return indexes.compute(command, (key, index) -> index != null && index.isCurrent(servers) ? index : new ServerIndex(servers));
     }
 
     private String generateSelectMenuId() {
         return SELECT_MENU_PREFIX + UUID.randomUUID();
     }
 
-    private StringSelectMenu createServerSelectMenu(String selectMenuId, List<NettyServer.ServerInfo> servers) {
-        List<SelectOption> options = servers.stream()
-                .map(server -> SelectOption.of(server.serverName(), server.serverName()))
-                .collect(Collectors.toList());
+    /**
+     * First view of the menu: all servers if they fit or no groups are
+     * configured, otherwise the groups.
+     */
+    private StringSelectMenu createServerSelectMenu(String selectMenuId, ServerIndex index) {
+        if (index.hasGroups() && index.size() > MAX_OPTIONS) {
+            return groupsPage(selectMenuId, index, 0);
+        }
+        return page(selectMenuId, index.servers(), 0, p -> ALL_PAGE_VALUE + p, false);
+    }
+
+    /**
+     * The view a navigation option leads to.
+     *
+     * @return {@code null} if the value is not a navigation option
+     */
+    private StringSelectMenu navigate(String selectMenuId, ServerIndex index, String value) {
+        try {
+            if (value.startsWith(ALL_PAGE_VALUE)) {
+                int page = Integer.parseInt(value.substring(ALL_PAGE_VALUE.length()));
+                return page(selectMenuId, index.servers(), page, p -> ALL_PAGE_VALUE + p, false);
+            }
+            if (value.startsWith(GROUPS_PAGE_VALUE)) {
+                return groupsPage(selectMenuId, index, Integer.parseInt(value.substring(GROUPS_PAGE_VALUE.length())));
+            }
+            if (value.startsWith(GROUP_PAGE_VALUE)) {
+                int separator = value.indexOf(':', GROUP_PAGE_VALUE.length());
+                int page = Integer.parseInt(value.substring(GROUP_PAGE_VALUE.length(), separator));
+                String group = value.substring(separator + 1);
+                return page(selectMenuId, index.servers(group), page, p -> groupPage(group, p), true);
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * Option value opening a page of a group's servers; the group goes last
+     * as it may contain colons.
+     */
+    static String groupPage(String group, int page) {
+        return GROUP_PAGE_VALUE + page + ":" + group;
+    }
+
+    private StringSelectMenu groupsPage(String selectMenuId, ServerIndex index, int page) {
+        return page(selectMenuId, index.groups(), page, p -> GROUPS_PAGE_VALUE + p, false);
+    }
+
+    /**
+     * One page of options, with previous and next options when they do not
+     * all fit and a way back to the groups inside a group.
+     */
+    private StringSelectMenu page(String selectMenuId, List<SelectOption> items, int page,
+                                  IntFunction<String> pageValue, boolean backToGroups) {
+        int room = MAX_OPTIONS - (backToGroups ? 1 : 0);
+        int perPage = items.size() <= room ? room : room - 2;
+        int pages = Math.max(1, (items.size() + perPage - 1) / perPage);
+        page = Math.max(0, Math.min(page, pages - 1));
 
+        List<SelectOption> options = new ArrayList<>(MAX_OPTIONS);
+        if (page > 0) {
+            options.add(SelectOption.of(Messages.getMessage(Messages.Keys.SERVER_SELECTION_PREVIOUS, "« Previous page"), pageValue.apply(page - 1)));
+        }
+        options.addAll(items.subList(page * perPage, Math.min(items.size(), (page + 1) * perPage)));
+        if (page < pages - 1) {
+            options.add(SelectOption.of(Messages.getMessage(Messages.Keys.SERVER_SELECTION_NEXT, "Next page »"), pageValue.apply(page + 1)));
+        }
+        if (backToGroups) {
+            options.add(SelectOption.of(Messages.getMessage(Messages.Keys.SERVER_SELECTION_ALL_GROUPS, "« All groups"), GROUPS_PAGE_VALUE + 0));
+        }
+
+        String placeholder = Messages.get(Messages.Keys.SERVER_SELECTION_PLACEHOLDER);
         return StringSelectMenu.create(selectMenuId)
-                .setPlaceholder(Messages.get(Messages.Keys.SERVER_SELECTION_PLACEHOLDER))
+                .setPlaceholder(pages > 1 ? placeholder + " (" + (page + 1) + "/" + pages + ")" : placeholder)
                 .setRequiredRange(1, 1)
                 .addOptions(options)
                 .build();
@@ -110,4 +371,7 @@ public class ServerSelector {
 
     public record SelectionInfo(SlashCommandInteractionEvent event, List<NettyServer.ServerInfo> servers) {
     }
-} 
\ No newline at end of file
+
+    private record Choice(String serverName, long expiresAt) {
+    }
+}
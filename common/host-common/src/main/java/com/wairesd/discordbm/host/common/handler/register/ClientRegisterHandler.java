@@ -1,6 +1,10 @@
 package com.wairesd.discordbm.host.common.handler.register;
 
+import com.google.gson.JsonObject;
 import com.wairesd.discordbm.common.models.register.ClientRegisterMessage;
+import com.wairesd.discordbm.common.network.codec.FrameCompression;
+import com.wairesd.discordbm.common.network.codec.FramingDetector;
+import com.wairesd.discordbm.common.network.codec.WireFormat;
 import com.wairesd.discordbm.host.common.config.configurators.Settings;
 import com.wairesd.discordbm.host.common.database.Database;
 import com.wairesd.discordbm.host.common.network.NettyServer;
@@ -33,13 +37,39 @@ public class ClientRegisterHandler {
             nettyContext.setAuthenticated(true);
             dbManager.resetAttempts(ip);
             nettyServer.setServerName(ctx.channel(), regMsg.getServerName());
-            ctx.writeAndFlush("{\"type\":\"auth_ok\"}");
+            WireFormat format = negotiateFormat(regMsg.getProtocol());
+            JsonObject authOk = new JsonObject();
+            authOk.addProperty("type", "auth_ok");
+            authOk.addProperty("protocol", format.id());
+            boolean compress = Settings.isNettyCompression() && FrameCompression.isSupported(regMsg.getCompression());
+            if (compress) {
+                authOk.addProperty("compression", FrameCompression.DEFLATE);
+                authOk.addProperty("compressionThreshold", Settings.getNettyCompressionThreshold());
+            }
+            WireFormat.set(ctx.channel(), format);
+            ctx.writeAndFlush(authOk.toString());
+            if (compress) {
+                FrameCompression.enable(ctx.channel(), Settings.getNettyCompressionThreshold());
+            }
+            if (FramingDetector.isLegacy(ctx.channel())) {
+                logger.warn("Client {} uses the old two-byte framing; messages to it are limited to 64 KB until its DiscordBM is updated",
+                        regMsg.getServerName());
+            }
             if (Settings.isDebugAuthentication()) {
-                logger.info("Client {} IP - {} Port - {} authenticated successfully", regMsg.getServerName(), ip, port);
+                logger.info("Client {} IP - {} Port - {} authenticated successfully ({}{})", regMsg.getServerName(), ip, port,
+                        format.id(), compress ? ", " + FrameCompression.DEFLATE : "");
             }
         }
     }
 
+    private WireFormat negotiateFormat(String requested) {
+        WireFormat preferred = WireFormat.fromId(Settings.getNettyProtocol());
+        if (preferred == WireFormat.BINARY && WireFormat.fromId(requested) == WireFormat.BINARY) {
+            return WireFormat.BINARY;
+        }
+        return WireFormat.JSON;
+    }
+
     public interface NettyServerHandlerContext {
         boolean isAuthenticated();
         void setAuthenticated(boolean value);
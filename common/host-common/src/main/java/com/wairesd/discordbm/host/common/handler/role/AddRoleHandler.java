@@ -1,6 +1,5 @@
 package com.wairesd.discordbm.host.common.handler.role;
 
-import com.google.gson.Gson;
 import com.wairesd.discordbm.common.models.request.AddRoleRequest;
 import com.wairesd.discordbm.common.models.response.RoleActionResponse;
 import io.netty.channel.ChannelHandlerContext;
@@ -40,6 +39,6 @@ public class AddRoleHandler {
 
     private void sendRoleActionResponse(ChannelHandlerContext ctx, String requestId, boolean success, String error) {
         RoleActionResponse resp = new RoleActionResponse(requestId, success, error);
-        ctx.channel().writeAndFlush(new Gson().toJson(resp));
+        ctx.channel().writeAndFlush(resp);
     }
 }
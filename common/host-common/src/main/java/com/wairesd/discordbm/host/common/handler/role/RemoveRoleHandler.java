@@ -1,6 +1,5 @@
 package com.wairesd.discordbm.host.common.handler.role;
 
-import com.google.gson.Gson;
 import com.wairesd.discordbm.common.models.request.RemoveRoleRequest;
 import com.wairesd.discordbm.common.models.response.RoleActionResponse;
 import io.netty.channel.ChannelHandlerContext;
@@ -10,7 +9,6 @@ import net.dv8tion.jda.api.entities.Role;
 
 public class RemoveRoleHandler {
     private final JDA jda;
-    private static final Gson gson = new Gson();
 
     public RemoveRoleHandler(Object jda) {
         this.jda = (JDA) jda;
@@ -40,6 +38,6 @@ public class RemoveRoleHandler {
 
     private void sendResponse(ChannelHandlerContext ctx, String requestId, boolean success, String error) {
         RoleActionResponse resp = new RoleActionResponse(requestId, success, error);
-        ctx.channel().writeAndFlush(gson.toJson(resp));
+        ctx.channel().writeAndFlush(resp);
     }
 }
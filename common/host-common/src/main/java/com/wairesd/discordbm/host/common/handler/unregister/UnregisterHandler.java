@@ -8,7 +8,6 @@ import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
 import io.netty.channel.ChannelHandlerContext;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
 
 public class UnregisterHandler {
     private static final PluginLogger logger = new Slf4jPluginLogger(LoggerFactory.getLogger("DiscordBM"));
@@ -27,13 +26,7 @@ public class UnregisterHandler {
         String serverName = unregMsg.serverName;
         String commandName = unregMsg.commandName;
 
-        List<NettyServer.ServerInfo> servers = nettyServer.getCommandToServers().get(commandName);
-        if (servers != null) {
-            servers.removeIf(serverInfo -> serverInfo.serverName().equals(serverName));
-            if (servers.isEmpty()) {
-                nettyServer.getCommandDefinitions().remove(commandName);
-            }
-        }
+        nettyServer.updateRouting(routing -> routing.removeServer(commandName, serverName));
 
         if (Settings.isDebugCommandRegistrations()) {
             logger.warn("Unregistered command {} for server {}", commandName, serverName);
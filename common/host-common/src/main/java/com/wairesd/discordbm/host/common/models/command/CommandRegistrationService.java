@@ -1,6 +1,7 @@
 package com.wairesd.discordbm.host.common.models.command;
 
 import com.wairesd.discordbm.host.common.config.configurators.Settings;
+import com.wairesd.discordbm.host.common.discord.selection.ServerSelector;
 import com.wairesd.discordbm.host.common.network.NettyServer;
 import io.netty.channel.Channel;
 import net.dv8tion.jda.api.JDA;
@@ -37,6 +38,8 @@ public class CommandRegistrationService {
             }
         }
 
+        List<CommandDefinition> added = new ArrayList<>();
+        List<String> routed = new ArrayList<>();
         for (var cmd : commands) {
             if (commandDefinitions.containsKey(cmd.name())) {
                 CommandDefinition existing = commandDefinitions.get(cmd.name());
@@ -48,7 +51,7 @@ public class CommandRegistrationService {
                 }
             } else {
                 commandDefinitions.put(cmd.name(), cmd);
-                nettyServer.getCommandDefinitions().put(cmd.name(), cmd);
+                added.add(cmd);
                 var cmdData = net.dv8tion.jda.api.interactions.commands.build.Commands.slash(cmd.name(), cmd.description());
                 for (var opt : cmd.options()) {
                     cmdData.addOption(
@@ -58,6 +61,11 @@ public class CommandRegistrationService {
                             opt.required()
                     );
                 }
+                String serverOption = ServerSelector.serverOptionFor(cmd);
+                if (serverOption != null && cmd.options().size() < 25) {
+                    cmdData.addOption(net.dv8tion.jda.api.interactions.commands.OptionType.STRING,
+                            serverOption, "Server to run the command on", false, true);
+                }
                 switch (cmd.context()) {
                     case "both", "dm" -> cmdData.setGuildOnly(false);
                     case "server" -> cmdData.setGuildOnly(true);
@@ -74,11 +82,17 @@ public class CommandRegistrationService {
                 }
             }
 
-            List<NettyServer.ServerInfo> servers = nettyServer.getCommandToServers().computeIfAbsent(cmd.name(), k -> new ArrayList<>());
-            servers.removeIf(serverInfo -> serverInfo.serverName().equals(serverName));
-            servers.add(new NettyServer.ServerInfo(serverName, channel));
+            routed.add(cmd.name());
+        }
+
+        NettyServer.ServerInfo server = new NettyServer.ServerInfo(serverName, channel);
+        nettyServer.updateRouting(routing -> {
+            added.forEach(routing::putDefinition);
+            routed.forEach(name -> routing.addServer(name, server));
+        });
+        for (String name : routed) {
             logger.info("Registered command '{}' for server '{}'. Total servers for command: {}",
-                    cmd.name(), serverName, nettyServer.getCommandToServers().get(cmd.name()).size());
+                    name, serverName, nettyServer.getServersForCommand(name).size());
         }
     }
 
@@ -77,12 +77,9 @@ public class HostCommandRegistration implements CommandRegistration {
                 List.of(),
                 command.getPluginName()
             );
-            nettyServer.getCommandDefinitions().put(def.name(), def);
             String serverName = nettyServer.getJda() != null ? nettyServer.getJda().getSelfUser().getName() : "host";
             NettyServer.ServerInfo serverInfo = new NettyServer.ServerInfo(serverName, null);
-            nettyServer.getCommandToServers()
-                .computeIfAbsent(def.name(), k -> new ArrayList<>())
-                .add(serverInfo);
+            nettyServer.updateRouting(routing -> routing.putDefinition(def).addServer(def.name(), serverInfo));
         }
     }
 
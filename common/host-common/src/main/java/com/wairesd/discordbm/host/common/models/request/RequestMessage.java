@@ -1,5 +0,0 @@
-package com.wairesd.discordbm.host.common.models.request;
-
-import java.util.Map;
-
-public record RequestMessage(String type, String command, Map<String, String> options, String requestId) {}
\ No newline at end of file
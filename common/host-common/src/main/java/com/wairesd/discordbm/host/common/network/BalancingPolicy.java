@@ -0,0 +1,37 @@
+package com.wairesd.discordbm.host.common.network;
+
+import java.util.Locale;
+
+/**
+ * How a slash command registered by several servers picks the one that
+ * handles it.
+ */
+public enum BalancingPolicy {
+    /** Show the server selection menu and let the user pick. */
+    ASK_USER,
+    /** Take turns through the servers. */
+    ROUND_ROBIN,
+    /** The server with the fewest unanswered interactions. */
+    LEAST_IN_FLIGHT,
+    /** The server with the lowest recent reply time, weighted by its backlog. */
+    LOWEST_LATENCY,
+    /** Always the same server for the same user, as long as it is connected. */
+    HASH_USER,
+    /** Always the same server for the same guild; by user in direct messages. */
+    HASH_GUILD;
+
+    public String id() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public static BalancingPolicy fromId(String id) {
+        if (id != null) {
+            for (BalancingPolicy policy : values()) {
+                if (policy.id().equalsIgnoreCase(id.trim())) {
+                    return policy;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.wairesd.discordbm.host.common.network;
+
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import com.wairesd.discordbm.common.models.placeholders.response.CanHandleResponse;
+import com.wairesd.discordbm.common.models.placeholders.response.PlaceholdersResponse;
+import com.wairesd.discordbm.common.models.register.RegisterMessage;
+import com.wairesd.discordbm.common.models.request.AddRoleRequest;
+import com.wairesd.discordbm.common.models.request.RemoveRoleRequest;
+import com.wairesd.discordbm.common.models.response.ResponseMessage;
+import com.wairesd.discordbm.common.models.unregister.UnregisterMessage;
+import com.wairesd.discordbm.common.network.dispatch.MessageDispatcher;
+import com.wairesd.discordbm.host.common.config.configurators.Webhooks;
+import com.wairesd.discordbm.host.common.database.Database;
+import com.wairesd.discordbm.host.common.discord.response.ResponseHandler;
+import com.wairesd.discordbm.host.common.handler.register.RegisterHandler;
+import com.wairesd.discordbm.host.common.handler.role.AddRoleHandler;
+import com.wairesd.discordbm.host.common.handler.role.RemoveRoleHandler;
+import com.wairesd.discordbm.host.common.handler.unregister.UnregisterHandler;
+import com.wairesd.discordbm.host.common.models.command.CommandDefinition;
+import com.wairesd.discordbm.host.common.utils.ChannelAddresses;
+import com.wairesd.discordbm.host.common.utils.WebhookSender;
+import io.netty.channel.ChannelHandlerContext;
+
+
+/**
+ * Built-in routes for messages the host accepts from authenticated clients.
+ */
+final class HostMessageRoutes {
+    private final NettyServer nettyServer;
+    private final RegisterHandler registerHandler;
+    private final UnregisterHandler unregisterHandler;
+
+    private HostMessageRoutes(NettyServer nettyServer, Database dbManager) {
+        this.nettyServer = nettyServer;
+        this.registerHandler = new RegisterHandler(dbManager, nettyServer);
+        this.unregisterHandler = new UnregisterHandler(nettyServer);
+    }
+
+    static void registerDefaults(MessageDispatcher dispatcher, NettyServer nettyServer, Database dbManager) {
+        HostMessageRoutes routes = new HostMessageRoutes(nettyServer, dbManager);
+
+        dispatcher.registerTypeResolver(ResponseMessage.class, ResponseMessage::type);
+        for (String type : new String[]{"request", "response", "form", "direct_message",
+                "channel_message", "edit_message", "edit_component"}) {
+            dispatcher.register(type, ResponseMessage.class, (ctx, msg) -> routes.handleResponseMessage(msg));
+        }
+
+        dispatcher
+                .register("add_role", AddRoleRequest.class,
+                        (ctx, req) -> new AddRoleHandler(nettyServer.getJda()).handle(ctx, req))
+                .register("remove_role", RemoveRoleRequest.class,
+                        (ctx, req) -> new RemoveRoleHandler(nettyServer.getJda()).handle(ctx, req))
+                .register("register", new TypeToken<RegisterMessage<CommandDefinition>>() {}, routes::handleRegister)
+                .register("unregister", UnregisterMessage.class, routes.unregisterHandler::handleUnregister)
+                .register("can_handle_response", CanHandleResponse.class, (ctx, resp) -> routes.completeCanHandle(resp))
+                .register("placeholders_response", PlaceholdersResponse.class, (ctx, resp) -> routes.completePlaceholders(resp))
+                .register("delete_message", JsonObject.class, (ctx, json) -> routes.handleDeleteMessage(json))
+                .register("send_webhook", JsonObject.class, routes::handleSendWebhook);
+    }
+
+    private void handleRegister(ChannelHandlerContext ctx, RegisterMessage<CommandDefinition> msg) {
+        registerHandler.handleRegister(ctx, msg, ChannelAddresses.ip(ctx.channel()), ChannelAddresses.port(ctx.channel()));
+    }
+
+    private void handleResponseMessage(ResponseMessage respMsg) {
+        switch (respMsg.type()) {
+            case "form" -> ResponseHandler.handleFormOnly(respMsg);
+            case "direct_message" -> ResponseHandler.sendDirectMessage(respMsg);
+            case "channel_message" -> ResponseHandler.sendChannelMessage(respMsg);
+            case "edit_message" -> ResponseHandler.editMessage(respMsg);
+            case "edit_component" -> ResponseHandler.editComponent(respMsg);
+            default -> ResponseHandler.handleResponse(respMsg);
+        }
+    }
+
+    private void completeCanHandle(CanHandleResponse resp) {
+        nettyServer.getPendingRequests().complete(resp.requestId(), resp.canHandle());
+    }
+
+    private void completePlaceholders(PlaceholdersResponse resp) {
+        nettyServer.getPendingRequests().complete(resp.requestId(), resp);
+    }
+
+    private void handleDeleteMessage(JsonObject json) {
+        String label = json.get("label").getAsString();
+        boolean deleteAll = !json.has("delete_all") || json.get("delete_all").getAsBoolean();
+        ResponseMessage respMsg = new ResponseMessage.Builder()
+            .type("delete_message")
+            .requestId(label)
+            .deleteAll(deleteAll)
+            .build();
+        ResponseHandler.deleteMessage(respMsg);
+    }
+
+    private void handleSendWebhook(ChannelHandlerContext ctx, JsonObject json) {
+        String webhookName = json.get("webhookName").getAsString();
+        String message = json.get("message").getAsString();
+        var webhook = Webhooks.getWebhooks().stream()
+            .filter(w -> w.name().equals(webhookName) && w.enabled())
+            .findFirst()
+            .orElse(null);
+        if (webhook == null) {
+            ctx.writeAndFlush("{\"type\":\"error\",\"message\":\"Webhook not found: " + webhookName + "\"}");
+            return;
+        }
+        WebhookSender.sendWebhook(webhook.url(), message);
+    }
+}
@@ -0,0 +1,158 @@
+package com.wairesd.discordbm.host.common.network;
+
+import com.wairesd.discordbm.common.utils.DiscordBMThreadPool;
+import com.wairesd.discordbm.common.utils.logging.PluginLogger;
+import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
+import com.wairesd.discordbm.host.common.config.configurators.Settings;
+import io.netty.channel.Channel;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs inbound work for each client channel in its own serial lane.
+ *
+ * <p>Messages from one channel are processed strictly in arrival order, while
+ * different channels run in parallel on a shared pool. A lane with work is
+ * queued on the pool as a single task that runs at most {@link #QUANTUM}
+ * messages before going back to the end of the queue, so a busy client only
+ * ever delays the others by a few messages.</p>
+ *
+ * <p>Each lane holds at most {@code capacity} messages. When it fills up,
+ * messages are shed by {@link MessagePriority}: bulk traffic first, then
+ * interactions; control messages are always admitted.</p>
+ */
+public class MessageLanes {
+    private static final PluginLogger logger = new Slf4jPluginLogger(LoggerFactory.getLogger("DiscordBM"));
+    private static final int QUANTUM = 4;
+
+    private final DiscordBMThreadPool pool;
+    private final int capacity;
+    private final Map<Channel, Lane> lanes = new ConcurrentHashMap<>();
+    private final Map<MessagePriority, AtomicLong> shedCounts = new EnumMap<>(MessagePriority.class);
+
+    public enum Admission {
+        ACCEPTED,
+        SHED,
+        /** Shed, and the lane has just become overloaded. */
+        SHED_OVERLOADED
+    }
+
+    public MessageLanes(int threads, int capacity) {
+        this.pool = new DiscordBMThreadPool(Math.max(1, threads));
+        this.capacity = Math.max(4, capacity);
+        for (MessagePriority priority : MessagePriority.values()) {
+            shedCounts.put(priority, new AtomicLong());
+        }
+    }
+
+    /**
+     * Queues a task on the channel's lane unless the lane is too full for
+     * the given priority. Must be called from the channel's event loop.
+     */
+    public Admission execute(Channel channel, MessagePriority priority, Runnable task) {
+        return lanes.computeIfAbsent(channel, ch -> new Lane()).offer(priority, task);
+    }
+
+    /**
+     * Forgets the lane of a closed channel. Work already queued still runs.
+     */
+    public void remove(Channel channel) {
+        lanes.remove(channel);
+    }
+
+    public int getQueueDepth(Channel channel) {
+        Lane lane = lanes.get(channel);
+        return lane != null ? lane.depth.get() : 0;
+    }
+
+    public int getTotalQueueDepth() {
+        int total = 0;
+        for (Lane lane : lanes.values()) {
+            total += lane.depth.get();
+        }
+        return total;
+    }
+
+    public long getShedCount(Channel channel) {
+        Lane lane = lanes.get(channel);
+        return lane != null ? lane.shed.get() : 0L;
+    }
+
+    public long getShedCount(MessagePriority priority) {
+        return shedCounts.get(priority).get();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private final class Lane implements Runnable {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean overloaded = new AtomicBoolean();
+        private final AtomicLong shed = new AtomicLong();
+
+        Admission offer(MessagePriority priority, Runnable task) {
+            if (depth.get() >= priority.admissionLimit(capacity)) {
+                shed.incrementAndGet();
+                shedCounts.get(priority).incrementAndGet();
+                return overloaded.compareAndSet(false, true) ? Admission.SHED_OVERLOADED : Admission.SHED;
+            }
+            tasks.add(task);
+            depth.incrementAndGet();
+            schedule();
+            return Admission.ACCEPTED;
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                pool.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                tasks.clear();
+                depth.set(0);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < QUANTUM; i++) {
+                    Runnable task = tasks.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    depth.decrementAndGet();
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        if (Settings.isDebugErrors()) {
+                            logger.error("Error in message lane: {}", t.getMessage(), t);
+                        }
+                    }
+                }
+            } finally {
+                if (overloaded.get() && depth.get() <= capacity / 2) {
+                    overloaded.set(false);
+                }
+                scheduled.set(false);
+                if (!tasks.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.wairesd.discordbm.host.common.network;
+
+/**
+ * How important an inbound client message is when its lane is overloaded.
+ */
+public enum MessagePriority {
+    /** Registration, role and placeholder replies; never shed. */
+    CONTROL,
+    /** Replies to Discord interactions, which have a hard 3 second window. */
+    INTERACTION,
+    /** Channel/direct messages, webhooks and deletes; shed first. */
+    BULK;
+
+    public static MessagePriority of(String type) {
+        if (type == null) {
+            return BULK;
+        }
+        return switch (type) {
+            case "client_register", "register", "unregister", "add_role", "remove_role",
+                 "can_handle_response", "placeholders_response" -> CONTROL;
+            case "request", "response", "form", "edit_message", "edit_component" -> INTERACTION;
+            default -> BULK;
+        };
+    }
+
+    /**
+     * Queue depth at which messages of this priority stop being admitted.
+     * Bulk traffic leaves a quarter of the lane free for interactions.
+     */
+    int admissionLimit(int capacity) {
+        return switch (this) {
+            case CONTROL -> Integer.MAX_VALUE;
+            case INTERACTION -> capacity;
+            case BULK -> capacity - capacity / 4;
+        };
+    }
+}
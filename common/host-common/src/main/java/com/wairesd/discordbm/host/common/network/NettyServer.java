@@ -1,8 +1,14 @@
 package com.wairesd.discordbm.host.common.network;
 
-import com.wairesd.discordbm.common.network.codec.ByteBufDecoder;
-import com.wairesd.discordbm.common.network.codec.ByteBufEncoder;
-import com.wairesd.discordbm.common.models.placeholders.response.PlaceholdersResponse;
+import com.wairesd.discordbm.common.models.register.RegisterMessage;
+import com.wairesd.discordbm.common.network.codec.BinaryProtocol;
+import com.wairesd.discordbm.common.network.codec.FrameLimits;
+import com.wairesd.discordbm.common.network.codec.PipelineCodecs;
+import com.wairesd.discordbm.common.network.correlation.PendingRequests;
+import com.wairesd.discordbm.common.network.dispatch.MessageDispatcher;
+import com.wairesd.discordbm.common.network.transport.NettyTransport;
+import com.wairesd.discordbm.common.network.transport.OutboundBatch;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueSettings;
 import com.wairesd.discordbm.common.utils.logging.PluginLogger;
 import com.wairesd.discordbm.common.utils.logging.Slf4jPluginLogger;
 import com.wairesd.discordbm.host.common.models.command.CommandRegistrationService;
@@ -11,69 +17,91 @@ import com.wairesd.discordbm.host.common.database.Database;
 import com.wairesd.discordbm.host.common.models.command.CommandDefinition;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.channel.unix.DomainSocketAddress;
 import net.dv8tion.jda.api.JDA;
 import org.slf4j.LoggerFactory;
 import com.wairesd.discordbm.host.common.utils.ClientInfo;
 
+import java.io.IOException;
 import java.net.BindException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class NettyServer {
     private static final PluginLogger logger = new Slf4jPluginLogger(LoggerFactory.getLogger("DiscordBM"));
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
     private Channel serverChannel;
-    private final Map<String, CommandDefinition> commandDefinitions = new HashMap<>();
-    private final Map<String, List<ServerInfo>> commandToServers = new HashMap<>();
+    private Channel unixServerChannel;
+    private String unixSocketPath;
+    private final Object routingLock = new Object();
+    private volatile RoutingTable routing = RoutingTable.EMPTY;
+    private final ServerLoad serverLoad = new ServerLoad();
+    private final ServerBalancer balancer = new ServerBalancer(serverLoad);
     private final Map<Channel, String> channelToServerName = new ConcurrentHashMap<>();
+    private final Map<String, Channel> serverNameToChannel = new ConcurrentHashMap<>();
     private JDA jda;
     private final int port = Settings.getNettyPort();
     private final Database dbManager;
-    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> canHandleFutures = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, CompletableFuture<PlaceholdersResponse>> placeholderFutures = new ConcurrentHashMap<>();
+    private final PendingRequests pendingRequests = new PendingRequests("h");
     private final String ip = Settings.getNettyIp();
     private final CommandRegistrationService commandRegistrationService;
     private final Map<String, String> commandToPlugin = new ConcurrentHashMap<>();
     private final Map<Channel, Long> channelConnectTime = new ConcurrentHashMap<>();
+    private final MessageDispatcher messageDispatcher = new MessageDispatcher();
+    private final FrameLimits frameLimits = new FrameLimits(
+            Settings.getNettyMaxMessageSizeKb() * 1024, Settings.getNettyMaxConnectionBufferKb() * 1024);
+    private final OutboundQueueSettings outboundSettings = OutboundQueueSettings.of(
+            Settings.getNettyWriteBufferLowKb(), Settings.getNettyWriteBufferHighKb(),
+            Settings.getNettyOutboundQueueSize(), Settings.getNettyOutboundPolicies());
+    private final MessageLanes messageLanes = new MessageLanes(
+            Settings.getNettyWorkerThreads(), Settings.getNettyLaneCapacity());
+
+    static {
+        BinaryProtocol.register(BinaryProtocol.TAG_REGISTER, RegisterMessage.class, new RegisterMessageCodec());
+    }
 
     public NettyServer(Database dbManager) {
         this.dbManager = dbManager;
         this.commandRegistrationService = new CommandRegistrationService(null, this);
+        HostMessageRoutes.registerDefaults(messageDispatcher, this, dbManager);
     }
 
     public void start() {
-        bossGroup = new NioEventLoopGroup(1);
-        workerGroup = new NioEventLoopGroup(2 * Runtime.getRuntime().availableProcessors());
+        NettyTransport transport = selectTransport();
+        String unixSocket = Settings.getNettyUnixSocket();
+        if (unixSocket != null && !unixSocket.isEmpty() && !transport.supportsDomainSockets()) {
+            if (NettyTransport.EPOLL.isAvailable()) {
+                logger.info("Using the epoll transport because netty.unix-socket is set");
+                transport = NettyTransport.EPOLL;
+            } else {
+                logger.warn("netty.unix-socket needs the epoll transport, which is not available ({}); only TCP will be used",
+                        NettyTransport.EPOLL.unavailabilityReason());
+                unixSocket = null;
+            }
+        }
+        bossGroup = transport.newEventLoopGroup(1);
+        workerGroup = transport.newEventLoopGroup(2 * Runtime.getRuntime().availableProcessors());
         try {
             ServerBootstrap bootstrap = new ServerBootstrap();
             bootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .childHandler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        protected void initChannel(SocketChannel ch) {
-                            ch.pipeline().addLast("frameDecoder", new LengthFieldBasedFrameDecoder(65535, 0, 2, 0, 2));
-                            ch.pipeline().addLast("byteBufDecoder", new ByteBufDecoder());
-                            ch.pipeline().addLast("frameEncoder", new LengthFieldPrepender(2));
-                            ch.pipeline().addLast("byteBufEncoder", new ByteBufEncoder());
-                            ch.pipeline().addLast("handler", new NettyServerHandler(NettyServer.this, jda, dbManager));
-                        }
-                    })
+                    .channel(transport.serverSocketChannel())
+                    .childHandler(newPipelineInitializer())
                     .option(ChannelOption.SO_BACKLOG, 128)
                     .childOption(ChannelOption.SO_KEEPALIVE, true)
                     .childOption(ChannelOption.SO_REUSEADDR, true)
                     .childOption(ChannelOption.SO_RCVBUF, 128 * 1024)
                     .childOption(ChannelOption.SO_SNDBUF, 128 * 1024)
-                    .childOption(ChannelOption.TCP_NODELAY, true);
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, outboundSettings.waterMark());
 
             ChannelFuture future = (ip == null || ip.isEmpty())
                     ? bootstrap.bind(port).sync()
@@ -82,7 +110,11 @@ public class NettyServer {
             serverChannel = future.channel();
 
             if (Settings.isDebugNettyStart()) {
-                logger.info("Netty server started on {}:{}", ip == null || ip.isEmpty() ? "0.0.0.0" : ip, port);
+                logger.info("Netty server started on {}:{} ({})", ip == null || ip.isEmpty() ? "0.0.0.0" : ip, port, transport.id());
+            }
+
+            if (unixSocket != null && !unixSocket.isEmpty()) {
+                bindUnixSocket(transport, unixSocket);
             }
 
             serverChannel.closeFuture().sync();
@@ -105,13 +137,54 @@ public class NettyServer {
         }
     }
 
-    public Channel getChannelByServerName(String serverName) {
-        for (Map.Entry<Channel, String> entry : channelToServerName.entrySet()) {
-            if (entry.getValue().equals(serverName)) {
-                return entry.getKey();
+    private ChannelInitializer<Channel> newPipelineInitializer() {
+        return new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                PipelineCodecs.installHost(ch.pipeline(), frameLimits, outboundSettings);
+                ch.pipeline().addLast("handler", new NettyServerHandler(NettyServer.this, dbManager));
             }
+        };
+    }
+
+    /**
+     * Opens a second listener on a Unix domain socket for backends running on
+     * the same machine. It shares the event loops, pipeline and authentication
+     * with the TCP listener.
+     */
+    private void bindUnixSocket(NettyTransport transport, String path) throws InterruptedException {
+        try {
+            Files.deleteIfExists(Path.of(path));
+        } catch (IOException e) {
+            logger.warn("Could not remove stale unix socket {}: {}", path, e.getMessage());
+        }
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        bootstrap.group(bossGroup, workerGroup)
+                .channel(transport.serverDomainSocketChannel())
+                .childHandler(newPipelineInitializer())
+                .childOption(ChannelOption.SO_RCVBUF, 128 * 1024)
+                .childOption(ChannelOption.SO_SNDBUF, 128 * 1024)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, outboundSettings.waterMark());
+        unixServerChannel = bootstrap.bind(new DomainSocketAddress(path)).sync().channel();
+        unixSocketPath = path;
+        if (Settings.isDebugNettyStart()) {
+            logger.info("Netty server listening on unix socket {}", path);
         }
-        return null;
+    }
+
+    private NettyTransport selectTransport() {
+        String preference = Settings.getNettyTransport();
+        NettyTransport requested = NettyTransport.fromId(preference);
+        NettyTransport transport = NettyTransport.select(preference);
+        if (requested != null && requested != transport) {
+            logger.warn("Netty transport {} is not available ({}), falling back to {}",
+                    requested.id(), requested.unavailabilityReason(), transport.id());
+        }
+        return transport;
+    }
+
+    public Channel getChannelByServerName(String serverName) {
+        return serverName != null ? serverNameToChannel.get(serverName) : null;
     }
 
     public void shutdown() {
@@ -124,13 +197,21 @@ public class NettyServer {
         if (serverChannel != null) {
             serverChannel.close().syncUninterruptibly();
         }
-        NettyServerHandler.shutdown();
+        if (unixServerChannel != null) {
+            unixServerChannel.close().syncUninterruptibly();
+            try {
+                Files.deleteIfExists(Path.of(unixSocketPath));
+            } catch (IOException ignored) {
+            }
+        }
+        messageLanes.shutdown();
+        pendingRequests.shutdown();
         if (Settings.isDebugConnections()) {
             logger.info("Netty server shutdown complete");
         }
     }
 
-    public void sendMessage(Channel channel, String message) {
+    public void sendMessage(Channel channel, Object message) {
         if (channel != null) {
             if (channel.isActive()) {
                 channel.writeAndFlush(message);
@@ -138,56 +219,125 @@ public class NettyServer {
         }
     }
 
-    public void removeServer(Channel channel) {
-        List<String> commandsToRemove = new ArrayList<>();
-        for (var entry : commandToServers.entrySet()) {
-            entry.getValue().removeIf(serverInfo -> serverInfo.channel() == channel);
-            if (entry.getValue().isEmpty()) {
-                commandsToRemove.add(entry.getKey());
+    /**
+     * Like {@link #sendMessage(Channel, Object)}, but reports messages that were
+     * not written, including ones the outbound queue rejected because the
+     * client is not keeping up.
+     */
+    public void sendMessage(Channel channel, Object message, Consumer<Throwable> onFailure) {
+        if (channel == null || !channel.isActive()) {
+            onFailure.accept(new ClosedChannelException());
+            return;
+        }
+        channel.writeAndFlush(message).addListener(future -> {
+            if (!future.isSuccess()) {
+                onFailure.accept(future.cause());
             }
+        });
+    }
+
+    /**
+     * Sends several messages to one client with a single flush.
+     */
+    public void sendMessages(Channel channel, Collection<?> messages) {
+        if (channel != null && !messages.isEmpty()) {
+            new OutboundBatch().addAll(channel, messages).send();
         }
+    }
+
+    public void removeServer(Channel channel) {
+        List<String> commandsToRemove = new ArrayList<>();
+        updateRouting(table -> commandsToRemove.addAll(table.removeChannel(channel)));
         for (String cmd : commandsToRemove) {
-            commandToServers.remove(cmd);
-            commandDefinitions.remove(cmd);
             commandToPlugin.remove(cmd);
             if (Settings.isDebugCommandRegistrations()) {
                 logger.info("Removed command {} as no servers remain", cmd);
             }
         }
-        channelToServerName.remove(channel);
+        synchronized (channelToServerName) {
+            String serverName = channelToServerName.remove(channel);
+            if (serverName != null) {
+                serverNameToChannel.remove(serverName, channel);
+            }
+        }
         channelConnectTime.remove(channel);
     }
 
+    /**
+     * Authenticated clients and their server names. Read-only; use
+     * {@link #setServerName} so the reverse index stays in step.
+     */
     public Map<Channel, String> getChannelToServerName() {
-        return channelToServerName;
-    }
-
-    public ConcurrentHashMap<String, CompletableFuture<Boolean>> getCanHandleFutures() {
-        return this.canHandleFutures;
+        return Collections.unmodifiableMap(channelToServerName);
     }
 
-    public ConcurrentHashMap<String, CompletableFuture<PlaceholdersResponse>> getPlaceholderFutures() {
-        return this.placeholderFutures;
+    /**
+     * Requests sent to clients that are waiting for a reply.
+     */
+    public PendingRequests getPendingRequests() {
+        return pendingRequests;
     }
 
+    /**
+     * Names the client on a channel. If another channel already uses the
+     * name, e.g. a client that reconnected before its old connection was
+     * noticed as closed, lookups by name go to the newest one.
+     */
     public void setServerName(Channel channel, String serverName) {
-        channelToServerName.put(channel, serverName);
+        synchronized (channelToServerName) {
+            String previous = channelToServerName.put(channel, serverName);
+            if (previous != null && !previous.equals(serverName)) {
+                serverNameToChannel.remove(previous, channel);
+            }
+            serverNameToChannel.put(serverName, channel);
+        }
     }
 
     public String getServerName(Channel channel) {
         return channelToServerName.get(channel);
     }
 
+    /**
+     * Current routing snapshot. It never changes; read it once to get a
+     * consistent view of servers and definitions.
+     */
+    public RoutingTable getRouting() {
+        return routing;
+    }
+
+    /**
+     * Applies a change to a copy of the routing table and publishes the
+     * result. Changes are applied one at a time; readers never wait.
+     */
+    public void updateRouting(Consumer<RoutingTable.Builder> change) {
+        synchronized (routingLock) {
+            RoutingTable.Builder builder = routing.toBuilder();
+            change.accept(builder);
+            routing = builder.build();
+        }
+    }
+
+    /**
+     * Unanswered interactions and reply times per server.
+     */
+    public ServerLoad getServerLoad() {
+        return serverLoad;
+    }
+
+    public ServerBalancer getBalancer() {
+        return balancer;
+    }
+
     public Map<String, List<ServerInfo>> getCommandToServers() {
-        return commandToServers;
+        return routing.commandToServers();
     }
 
     public List<ServerInfo> getServersForCommand(String command) {
-        return commandToServers.getOrDefault(command, new ArrayList<>());
+        return routing.serversFor(command);
     }
 
     public Map<String, CommandDefinition> getCommandDefinitions() {
-        return commandDefinitions;
+        return routing.definitions();
     }
 
     public record ServerInfo(String serverName, Channel channel) {
@@ -206,6 +356,18 @@ public class NettyServer {
         return this.jda;
     }
 
+    /**
+     * Routing table shared by all client channels. Addons can register
+     * additional message types here.
+     */
+    public MessageDispatcher getMessageDispatcher() {
+        return messageDispatcher;
+    }
+
+    public MessageLanes getMessageLanes() {
+        return messageLanes;
+    }
+
     public void registerAddonCommand(String commandName, String pluginName) {
         commandToPlugin.put(commandName, pluginName);
     }
@@ -223,6 +385,6 @@ public class NettyServer {
     }
 
     public List<ClientInfo> getActiveClientsInfo() {
-        return ClientInfo.getActiveClientsInfo(channelToServerName, channelConnectTime);
+        return ClientInfo.getActiveClientsInfo(channelToServerName, channelConnectTime, messageLanes, pendingRequests);
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.wairesd.discordbm.host.common.network;
+
+import com.google.gson.reflect.TypeToken;
+import com.wairesd.discordbm.common.models.register.RegisterMessage;
+import com.wairesd.discordbm.common.network.codec.BinaryMessageCodec;
+import com.wairesd.discordbm.host.common.models.command.CommandDefinition;
+import com.wairesd.discordbm.host.common.models.option.OptionDefinition;
+import io.netty.buffer.ByteBuf;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.wairesd.discordbm.common.network.codec.BinaryProtocol.*;
+
+/**
+ * Binary form of {@code register} messages on the host side. The field layout
+ * must stay in sync with the client's codec for its {@code Command} model.
+ */
+public class RegisterMessageCodec implements BinaryMessageCodec<RegisterMessage<CommandDefinition>> {
+    private static final Type CONDITIONS_TYPE = new TypeToken<List<Map<String, Object>>>() {}.getType();
+
+    @Override
+    public void encode(RegisterMessage<CommandDefinition> msg, ByteBuf out) {
+        writeString(out, msg.type());
+        writeString(out, msg.serverName());
+        writeString(out, msg.pluginName());
+        writeString(out, msg.secret());
+        if (writeSize(out, msg.commands())) {
+            for (CommandDefinition cmd : msg.commands()) {
+                writeString(out, cmd.name());
+                writeString(out, cmd.description());
+                writeString(out, cmd.pluginName());
+                writeString(out, cmd.context());
+                if (writeSize(out, cmd.options())) {
+                    for (OptionDefinition opt : cmd.options()) {
+                        writeString(out, opt.name());
+                        writeString(out, opt.type());
+                        writeString(out, opt.description());
+                        writeBoolean(out, opt.required());
+                    }
+                }
+                writeString(out, cmd.permission());
+                writeJson(out, cmd.conditions());
+            }
+        }
+    }
+
+    @Override
+    public RegisterMessage<CommandDefinition> decode(ByteBuf in) {
+        RegisterMessage.Builder<CommandDefinition> builder = new RegisterMessage.Builder<CommandDefinition>()
+                .type(readString(in))
+                .serverName(readString(in))
+                .pluginName(readString(in))
+                .secret(readString(in));
+        int commandCount = readSize(in);
+        if (commandCount >= 0) {
+            List<CommandDefinition> commands = new ArrayList<>(commandCount);
+            for (int i = 0; i < commandCount; i++) {
+                String name = readString(in);
+                String description = readString(in);
+                String pluginName = readString(in);
+                String context = readString(in);
+                List<OptionDefinition> options = null;
+                int optionCount = readSize(in);
+                if (optionCount >= 0) {
+                    options = new ArrayList<>(optionCount);
+                    for (int j = 0; j < optionCount; j++) {
+                        options.add(new OptionDefinition(readString(in), readString(in), readString(in), readBoolean(in)));
+                    }
+                }
+                String permission = readString(in);
+                List<Map<String, Object>> conditions = readJson(in, CONDITIONS_TYPE);
+                commands.add(new CommandDefinition(name, description, context, options, permission, conditions, pluginName));
+            }
+            builder.commands(commands);
+        }
+        return builder.build();
+    }
+}
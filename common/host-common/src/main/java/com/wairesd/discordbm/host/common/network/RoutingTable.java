@@ -0,0 +1,186 @@
+package com.wairesd.discordbm.host.common.network;
+
+import com.wairesd.discordbm.host.common.models.command.CommandDefinition;
+import io.netty.channel.Channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable snapshot of which servers handle which commands.
+ *
+ * <p>{@link NettyServer} publishes a new snapshot whenever a client registers
+ * or unregisters commands or disconnects, so the JDA threads routing slash
+ * commands always read a consistent table without locking or copying. All
+ * lookups are single map reads.</p>
+ */
+public final class RoutingTable {
+    static final RoutingTable EMPTY = new RoutingTable(Map.of(), Map.of(), Map.of());
+
+    private final Map<String, List<NettyServer.ServerInfo>> commandToServers;
+    private final Map<String, CommandDefinition> definitions;
+    private final Map<Channel, Set<String>> channelToCommands;
+
+    private RoutingTable(Map<String, List<NettyServer.ServerInfo>> commandToServers,
+                         Map<String, CommandDefinition> definitions,
+                         Map<Channel, Set<String>> channelToCommands) {
+        this.commandToServers = commandToServers;
+        this.definitions = definitions;
+        this.channelToCommands = channelToCommands;
+    }
+
+    /**
+     * Servers registered for a command; empty if there are none.
+     */
+    public List<NettyServer.ServerInfo> serversFor(String command) {
+        List<NettyServer.ServerInfo> servers = commandToServers.get(command);
+        return servers != null ? servers : List.of();
+    }
+
+    public CommandDefinition definition(String command) {
+        return definitions.get(command);
+    }
+
+    public Map<String, List<NettyServer.ServerInfo>> commandToServers() {
+        return commandToServers;
+    }
+
+    public Map<String, CommandDefinition> definitions() {
+        return definitions;
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Working copy of a table, used once to build the next snapshot.
+     *
+     * <p>The maps are copied shallowly; the lists and sets inside them are
+     * shared with the original table and replaced, never modified, when a
+     * change touches them. Indexes are kept up to date as changes are made,
+     * so removing a channel only visits the commands it registered.</p>
+     */
+    public static final class Builder {
+        private final Map<String, List<NettyServer.ServerInfo>> commandToServers;
+        private final Map<String, CommandDefinition> definitions;
+        private final Map<Channel, Set<String>> channelToCommands;
+        private final Set<Channel> ownedCommandSets = new HashSet<>();
+
+        private Builder(RoutingTable table) {
+            this.commandToServers = new HashMap<>(table.commandToServers);
+            this.definitions = new HashMap<>(table.definitions);
+            this.channelToCommands = new HashMap<>(table.channelToCommands);
+        }
+
+        /**
+         * Routes a command to a server, replacing an earlier registration of
+         * a server with the same name.
+         */
+        public Builder addServer(String command, NettyServer.ServerInfo server) {
+            strip(command, existing -> existing.serverName().equals(server.serverName()), true);
+            List<NettyServer.ServerInfo> current = commandToServers.getOrDefault(command, List.of());
+            List<NettyServer.ServerInfo> updated = new ArrayList<>(current.size() + 1);
+            updated.addAll(current);
+            updated.add(server);
+            commandToServers.put(command, Collections.unmodifiableList(updated));
+            if (server.channel() != null) {
+                commandSet(server.channel()).add(command);
+            }
+            return this;
+        }
+
+        /**
+         * Stops routing a command to a server. A command left without
+         * servers is dropped along with its definition.
+         */
+        public Builder removeServer(String command, String serverName) {
+            strip(command, server -> server.serverName().equals(serverName), false);
+            return this;
+        }
+
+        /**
+         * Removes every registration made over a channel.
+         *
+         * @return commands that no longer have any server
+         */
+        public List<String> removeChannel(Channel channel) {
+            Set<String> commands = channelToCommands.remove(channel);
+            ownedCommandSets.remove(channel);
+            if (commands == null) {
+                return List.of();
+            }
+            List<String> orphaned = new ArrayList<>();
+            for (String command : commands) {
+                if (strip(command, server -> server.channel() == channel, false)) {
+                    orphaned.add(command);
+                }
+            }
+            return orphaned;
+        }
+
+        public Builder putDefinition(CommandDefinition definition) {
+            definitions.put(definition.name(), definition);
+            return this;
+        }
+
+        public RoutingTable build() {
+            for (Channel channel : ownedCommandSets) {
+                channelToCommands.computeIfPresent(channel, (ch, commands) -> Collections.unmodifiableSet(commands));
+            }
+            ownedCommandSets.clear();
+            return new RoutingTable(Collections.unmodifiableMap(commandToServers), Collections.unmodifiableMap(definitions),
+                    Collections.unmodifiableMap(channelToCommands));
+        }
+
+        /**
+         * Drops the servers of a command that match, unlinking them from the
+         * channel index. With {@code keepCommand} the command survives even
+         * if no server is left, because one is about to be added.
+         *
+         * @return {@code true} if the command was dropped
+         */
+        private boolean strip(String command, Predicate<NettyServer.ServerInfo> match, boolean keepCommand) {
+            List<NettyServer.ServerInfo> current = commandToServers.get(command);
+            if (current == null) {
+                return false;
+            }
+            List<NettyServer.ServerInfo> remaining = new ArrayList<>(current.size());
+            for (NettyServer.ServerInfo server : current) {
+                if (!match.test(server)) {
+                    remaining.add(server);
+                } else if (server.channel() != null && channelToCommands.containsKey(server.channel())) {
+                    Set<String> commands = commandSet(server.channel());
+                    commands.remove(command);
+                    if (commands.isEmpty()) {
+                        channelToCommands.remove(server.channel());
+                        ownedCommandSets.remove(server.channel());
+                    }
+                }
+            }
+            if (remaining.size() == current.size()) {
+                return false;
+            }
+            if (remaining.isEmpty() && !keepCommand) {
+                commandToServers.remove(command);
+                definitions.remove(command);
+                return true;
+            }
+            commandToServers.put(command, Collections.unmodifiableList(remaining));
+            return false;
+        }
+
+        private Set<String> commandSet(Channel channel) {
+            if (ownedCommandSets.add(channel)) {
+                channelToCommands.put(channel, new HashSet<>(channelToCommands.getOrDefault(channel, Set.of())));
+            }
+            return channelToCommands.get(channel);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.wairesd.discordbm.host.common.network;
+
+import com.wairesd.discordbm.host.common.config.configurators.Settings;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the server for a slash command that several servers registered,
+ * following the command's {@link BalancingPolicy} from settings.yml.
+ */
+public class ServerBalancer {
+    private final ServerLoad load;
+    private final Map<String, AtomicInteger> turns = new ConcurrentHashMap<>();
+
+    public ServerBalancer(ServerLoad load) {
+        this.load = load;
+    }
+
+    public BalancingPolicy policyFor(String command) {
+        BalancingPolicy policy = BalancingPolicy.fromId(Settings.getRoutingPolicy(command));
+        return policy != null ? policy : BalancingPolicy.ASK_USER;
+    }
+
+    /**
+     * Only connected servers are considered; if none is, the choice is made
+     * among all of them so sending reports the server as not connected.
+     *
+     * @param guildId {@code null} in direct messages
+     * @return the chosen server, or {@code null} if the user should choose
+     */
+    public NettyServer.ServerInfo choose(String command, List<NettyServer.ServerInfo> servers, String userId, String guildId) {
+        if (servers.isEmpty()) {
+            return null;
+        }
+        if (servers.size() == 1) {
+            return servers.get(0);
+        }
+        List<NettyServer.ServerInfo> active = servers.stream().filter(ServerBalancer::isActive).toList();
+        if (!active.isEmpty()) {
+            servers = active;
+        }
+        if (servers.size() == 1) {
+            return servers.get(0);
+        }
+        return switch (policyFor(command)) {
+            case ASK_USER -> null;
+            case ROUND_ROBIN -> roundRobin(command, servers);
+            case LEAST_IN_FLIGHT -> leastInFlight(servers);
+            case LOWEST_LATENCY -> lowestLatency(servers);
+            case HASH_USER -> rendezvous(servers, userId);
+            case HASH_GUILD -> rendezvous(servers, guildId != null ? guildId : userId);
+        };
+    }
+
+    /**
+     * Least loaded connected server other than {@code excluded}, for sending
+     * a request a second time.
+     *
+     * @return {@code null} if there is none
+     */
+    public NettyServer.ServerInfo alternative(List<NettyServer.ServerInfo> servers, String excluded) {
+        NettyServer.ServerInfo best = null;
+        int bestInFlight = Integer.MAX_VALUE;
+        for (NettyServer.ServerInfo server : servers) {
+            if (!isActive(server) || server.serverName().equals(excluded)) {
+                continue;
+            }
+            int inFlight = load.getInFlight(server.serverName());
+            if (inFlight < bestInFlight) {
+                best = server;
+                bestInFlight = inFlight;
+            }
+        }
+        return best;
+    }
+
+    private NettyServer.ServerInfo roundRobin(String command, List<NettyServer.ServerInfo> servers) {
+        int turn = turns.computeIfAbsent(command, k -> new AtomicInteger()).getAndIncrement();
+        return servers.get(Math.floorMod(turn, servers.size()));
+    }
+
+    /**
+     * Fewest unanswered interactions; ties go to the faster server.
+     */
+    private NettyServer.ServerInfo leastInFlight(List<NettyServer.ServerInfo> servers) {
+        double prior = meanAverageMillis(servers);
+        NettyServer.ServerInfo best = null;
+        int bestInFlight = Integer.MAX_VALUE;
+        double bestMillis = Double.MAX_VALUE;
+        for (NettyServer.ServerInfo server : servers) {
+            int inFlight = load.getInFlight(server.serverName());
+            double millis = averageMillis(server, prior);
+            if (inFlight < bestInFlight || inFlight == bestInFlight && millis < bestMillis) {
+                best = server;
+                bestInFlight = inFlight;
+                bestMillis = millis;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lowest expected wait: the average reply time scaled by the replies
+     * already queued on that server; ties go to the server with fewer.
+     * Servers without samples are assumed to be as fast as the average of
+     * the others, so a new server neither wins every pick nor is starved.
+     */
+    private NettyServer.ServerInfo lowestLatency(List<NettyServer.ServerInfo> servers) {
+        double prior = meanAverageMillis(servers);
+        NettyServer.ServerInfo best = null;
+        double bestCost = Double.MAX_VALUE;
+        int bestInFlight = Integer.MAX_VALUE;
+        for (NettyServer.ServerInfo server : servers) {
+            int inFlight = load.getInFlight(server.serverName());
+            double cost = averageMillis(server, prior) * (1 + inFlight);
+            if (cost < bestCost || cost == bestCost && inFlight < bestInFlight) {
+                best = server;
+                bestCost = cost;
+                bestInFlight = inFlight;
+            }
+        }
+        return best;
+    }
+
+    private double averageMillis(NettyServer.ServerInfo server, double prior) {
+        double millis = load.getAverageMillis(server.serverName());
+        return millis >= 0 ? millis : prior;
+    }
+
+    /**
+     * Mean moving average of the servers that have samples; {@code 0} if
+     * none has.
+     */
+    private double meanAverageMillis(List<NettyServer.ServerInfo> servers) {
+        double sum = 0;
+        int sampled = 0;
+        for (NettyServer.ServerInfo server : servers) {
+            double millis = load.getAverageMillis(server.serverName());
+            if (millis >= 0) {
+                sum += millis;
+                sampled++;
+            }
+        }
+        return sampled > 0 ? sum / sampled : 0;
+    }
+
+    private static boolean isActive(NettyServer.ServerInfo server) {
+        return server.channel() != null && server.channel().isActive();
+    }
+
+    /**
+     * Rendezvous hashing: every server scores the key and the highest score
+     * wins. A server joining or leaving only moves the keys it takes over
+     * or gives up.
+     */
+    private static NettyServer.ServerInfo rendezvous(List<NettyServer.ServerInfo> servers, String key) {
+        if (key == null) {
+            return servers.get(0);
+        }
+        NettyServer.ServerInfo best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (NettyServer.ServerInfo server : servers) {
+            long score = mix(((long) key.hashCode() << 32) | (server.serverName().hashCode() & 0xffffffffL));
+            if (best == null || score > bestScore) {
+                best = server;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,89 @@
+package com.wairesd.discordbm.host.common.network;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live load of each server: interactions sent to it that are still waiting
+ * for a reply, and a moving average of how long its replies take.
+ *
+ * <p>Kept by server name so the figures survive a reconnect. Requests a
+ * server never answered count against its average too, so a server that
+ * stalls or drops requests does not look fast for lack of samples.</p>
+ */
+public class ServerLoad {
+    /** Weight of the newest sample in the moving average. */
+    private static final double ALPHA = 0.2;
+    /** Sample recorded for a request that could not be delivered at all. */
+    private static final long FAILURE_PENALTY_MILLIS = 5_000;
+    /** Most one unanswered request adds, so a server recovers after a bad spell. */
+    private static final long MAX_PENALTY_MILLIS = 30_000;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public void started(String serverName) {
+        if (serverName != null) {
+            stats(serverName).inFlight.incrementAndGet();
+        }
+    }
+
+    /**
+     * An interaction stopped waiting for this server without a reply, e.g.
+     * it expired, the scatter deadline passed or another server answered the
+     * hedged request first. The time waited is recorded as a sample, since
+     * the reply would have taken at least that long.
+     */
+    public void abandoned(String serverName, long waitedMillis) {
+        if (serverName != null) {
+            Stats server = stats(serverName);
+            server.inFlight.updateAndGet(n -> Math.max(0, n - 1));
+            server.record(Math.min(waitedMillis, MAX_PENALTY_MILLIS));
+        }
+    }
+
+    /**
+     * A request could not be handed to this server at all.
+     */
+    public void failed(String serverName) {
+        abandoned(serverName, FAILURE_PENALTY_MILLIS);
+    }
+
+    public void answered(String serverName, long millis) {
+        if (serverName == null) {
+            return;
+        }
+        Stats server = stats(serverName);
+        server.inFlight.updateAndGet(n -> Math.max(0, n - 1));
+        server.record(millis);
+    }
+
+    public int getInFlight(String serverName) {
+        Stats server = stats.get(serverName);
+        return server != null ? server.inFlight.get() : 0;
+    }
+
+    /**
+     * Moving average reply time, or {@code -1} if there are no samples for
+     * the server yet.
+     */
+    public double getAverageMillis(String serverName) {
+        Stats server = stats.get(serverName);
+        return server != null && server.samples > 0 ? server.averageMillis : -1;
+    }
+
+    private Stats stats(String serverName) {
+        return stats.computeIfAbsent(serverName, k -> new Stats());
+    }
+
+    private static final class Stats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double averageMillis;
+        private volatile long samples;
+
+        synchronized void record(long millis) {
+            averageMillis = samples == 0 ? millis : averageMillis + ALPHA * (millis - averageMillis);
+            samples++;
+        }
+    }
+}
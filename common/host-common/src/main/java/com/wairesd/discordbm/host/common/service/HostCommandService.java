@@ -6,6 +6,7 @@ import com.wairesd.discordbm.host.common.config.configurators.Messages;
 import com.wairesd.discordbm.host.common.manager.WebhookManager;
 import com.wairesd.discordbm.host.common.scheduler.WebhookScheduler;
 import com.wairesd.discordbm.host.common.discord.DiscordBMHPlatformManager;
+import com.wairesd.discordbm.host.common.discord.request.CommandLatencies;
 import com.wairesd.discordbm.host.common.network.NettyServer;
 import com.wairesd.discordbm.host.common.utils.ClientInfo;
 import com.wairesd.discordbm.host.common.commandbuilder.core.models.structures.CommandStructured;
@@ -36,6 +37,7 @@ import com.wairesd.discordbm.api.event.plugin.DiscordBMReloadEvent;
 
 public class HostCommandService {
     private static final String BYTEBIN_URL = "https://bytebin.lucko.me/";
+    private static final int SLOWEST_COMMANDS = 10;
 
     public static String reload(Path dataDirectory, DiscordBMHPlatformManager platformManager) {
         WebhookScheduler.shutdown();
@@ -73,7 +75,31 @@ public class HostCommandService {
         for (ClientInfo client : clients) {
             sb.append("\n- ").append(client.name)
               .append(" (").append(client.ip).append(":").append(client.port).append(") time: ")
-              .append(formatUptime(client.uptimeMillis));
+              .append(formatUptime(client.uptimeMillis))
+              .append(" queue: ").append(client.queueDepth);
+            if (client.shedCount > 0) {
+                sb.append(" shed: ").append(client.shedCount);
+            }
+            if (client.pendingBytes > 0 || client.outboundQueued > 0) {
+                sb.append(" pending: ").append(client.pendingBytes / 1024).append("KB")
+                  .append(" held: ").append(client.outboundQueued);
+            }
+            if (client.outboundDropped > 0) {
+                sb.append(" undelivered: ").append(client.outboundDropped);
+            }
+            if (client.inFlightRequests > 0 || client.timedOutRequests > 0) {
+                sb.append(" awaiting: ").append(client.inFlightRequests)
+                  .append(" timed out: ").append(client.timedOutRequests);
+            }
+        }
+        List<CommandLatencies.Percentiles> latencies = platformManager.getCommandLatencies().snapshot();
+        if (!latencies.isEmpty()) {
+            sb.append("\nSlowest commands (p50/p90/p99, max):");
+            for (CommandLatencies.Percentiles latency : latencies.subList(0, Math.min(SLOWEST_COMMANDS, latencies.size()))) {
+                sb.append("\n- /").append(latency.command()).append(" ")
+                  .append(latency.p50()).append("/").append(latency.p90()).append("/").append(latency.p99())
+                  .append("ms, ").append(latency.max()).append("ms (").append(latency.count()).append(" replies)");
+            }
         }
         return sb.toString();
     }
@@ -0,0 +1,27 @@
+package com.wairesd.discordbm.host.common.utils;
+
+import io.netty.channel.Channel;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Remote address helpers that also work for clients connected over a Unix
+ * domain socket, which have no IP or port.
+ */
+public final class ChannelAddresses {
+    public static final String UNIX_SOCKET_IP = "unix";
+
+    private ChannelAddresses() {
+    }
+
+    public static String ip(Channel channel) {
+        if (channel.remoteAddress() instanceof InetSocketAddress address) {
+            return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+        }
+        return UNIX_SOCKET_IP;
+    }
+
+    public static int port(Channel channel) {
+        return channel.remoteAddress() instanceof InetSocketAddress address ? address.getPort() : -1;
+    }
+}
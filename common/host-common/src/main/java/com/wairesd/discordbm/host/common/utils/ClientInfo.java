@@ -1,5 +1,8 @@
 package com.wairesd.discordbm.host.common.utils;
 
+import com.wairesd.discordbm.common.network.correlation.PendingRequests;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueHandler;
+import com.wairesd.discordbm.host.common.network.MessageLanes;
 import io.netty.channel.Channel;
 import java.util.*;
 
@@ -8,15 +11,32 @@ public class ClientInfo {
     public final String ip;
     public final int port;
     public final long uptimeMillis;
+    public final int queueDepth;
+    public final long shedCount;
+    public final long pendingBytes;
+    public final int outboundQueued;
+    public final long outboundDropped;
+    public final int inFlightRequests;
+    public final long timedOutRequests;
 
-    public ClientInfo(String name, String ip, int port, long uptimeMillis) {
+    public ClientInfo(String name, String ip, int port, long uptimeMillis, int queueDepth, long shedCount,
+                      long pendingBytes, int outboundQueued, long outboundDropped,
+                      int inFlightRequests, long timedOutRequests) {
         this.name = name;
         this.ip = ip;
         this.port = port;
         this.uptimeMillis = uptimeMillis;
+        this.queueDepth = queueDepth;
+        this.shedCount = shedCount;
+        this.pendingBytes = pendingBytes;
+        this.outboundQueued = outboundQueued;
+        this.outboundDropped = outboundDropped;
+        this.inFlightRequests = inFlightRequests;
+        this.timedOutRequests = timedOutRequests;
     }
 
-    public static List<ClientInfo> getActiveClientsInfo(Map<Channel, String> channelToServerName, Map<Channel, Long> channelConnectTime) {
+    public static List<ClientInfo> getActiveClientsInfo(Map<Channel, String> channelToServerName, Map<Channel, Long> channelConnectTime,
+                                                        MessageLanes lanes, PendingRequests pendingRequests) {
         List<ClientInfo> result = new ArrayList<>();
         for (Map.Entry<Channel, String> entry : channelToServerName.entrySet()) {
             Channel channel = entry.getKey();
@@ -24,13 +44,18 @@ public class ClientInfo {
             String ip = "unknown";
             int port = -1;
             try {
-                java.net.InetSocketAddress addr = (java.net.InetSocketAddress) channel.remoteAddress();
-                ip = addr.getHostString();
-                port = addr.getPort();
+                ip = ChannelAddresses.ip(channel);
+                port = ChannelAddresses.port(channel);
             } catch (Exception ignored) {}
             Long connectTime = channelConnectTime.get(channel);
             long uptime = connectTime != null ? System.currentTimeMillis() - connectTime : 0L;
-            result.add(new ClientInfo(name, ip, port, uptime));
+            OutboundQueueHandler outbound = OutboundQueueHandler.of(channel);
+            result.add(new ClientInfo(name, ip, port, uptime,
+                    lanes.getQueueDepth(channel), lanes.getShedCount(channel),
+                    outbound != null ? outbound.getPendingBytes() : 0L,
+                    outbound != null ? outbound.getQueuedMessages() : 0,
+                    outbound != null ? outbound.getDroppedMessages() + outbound.getRejectedMessages() : 0L,
+                    pendingRequests.getInFlight(channel), pendingRequests.getTimeouts(channel)));
         }
         return result;
     }
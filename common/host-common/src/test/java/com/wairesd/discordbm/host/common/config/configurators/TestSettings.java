@@ -0,0 +1,19 @@
+package com.wairesd.discordbm.host.common.config.configurators;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads a settings.yml written by a test, so code reading {@link Settings}
+ * sees the values the test needs.
+ */
+public final class TestSettings {
+    private TestSettings() {
+    }
+
+    public static void load(Path dataDir, String yaml) throws IOException {
+        Files.writeString(dataDir.resolve("settings.yml"), yaml);
+        Settings.init(dataDir.toFile());
+    }
+}
@@ -0,0 +1,87 @@
+package com.wairesd.discordbm.host.common.discord.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AcknowledgementTest {
+
+    @Test
+    void claimedReplyKeepsTheDeferOff() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        Acknowledgement ack = new Acknowledgement();
+        assertTrue(ack.claimReply());
+        ack.defer(fake.interaction(), false);
+        assertEquals(0, fake.defers());
+        assertFalse(ack.deferred().isDone());
+        assertFalse(ack.claimReply());
+    }
+
+    @Test
+    void deferFirstTurnsTheReplyIntoAFollowUp() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        Acknowledgement ack = new Acknowledgement();
+        ack.defer(fake.interaction(), true);
+        ack.defer(fake.interaction(), true);
+        assertEquals(1, fake.defers());
+        assertFalse(ack.claimReply());
+        assertSame(fake.hook(), ack.deferred().getNow(null));
+    }
+
+    @Test
+    void failedDeferFailsTheFollowUp() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        fake.failDefers();
+        Acknowledgement ack = new Acknowledgement();
+        ack.defer(fake.interaction(), false);
+        assertTrue(ack.deferred().isCompletedExceptionally());
+        assertFalse(ack.claimReply());
+    }
+
+    @Test
+    void exactlyOneSideWinsARace() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 200; round++) {
+                FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+                Acknowledgement ack = new Acknowledgement();
+                AtomicInteger replies = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> tasks = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    tasks.add(pool.submit(() -> {
+                        start.await();
+                        if (ack.claimReply()) {
+                            replies.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                    tasks.add(pool.submit(() -> {
+                        start.await();
+                        ack.defer(fake.interaction(), false);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> task : tasks) {
+                    task.get(5, TimeUnit.SECONDS);
+                }
+                assertEquals(1, replies.get() + fake.defers(), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
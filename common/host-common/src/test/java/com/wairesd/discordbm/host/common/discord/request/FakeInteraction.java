@@ -0,0 +1,143 @@
+package com.wairesd.discordbm.host.common.discord.request;
+
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageEditAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Slash command interaction for tests, made of dynamic proxies so no JDA
+ * session is needed. Records the defers it receives and the messages its
+ * hook edits in; REST actions complete right away when queued.
+ */
+public final class FakeInteraction {
+    private final String name;
+    private final String userId;
+    private final String channelId;
+    private final AtomicInteger defers = new AtomicInteger();
+    private final List<String> edits = new CopyOnWriteArrayList<>();
+    private final SlashCommandInteraction interaction;
+    private final InteractionHook hook;
+    private volatile boolean acknowledged;
+    private volatile boolean failDefers;
+
+    public FakeInteraction(String name, String userId, String channelId) {
+        this.name = name;
+        this.userId = userId;
+        this.channelId = channelId;
+        this.interaction = proxy(SlashCommandInteraction.class, this::onInteraction);
+        this.hook = proxy(InteractionHook.class, this::onHook);
+    }
+
+    public SlashCommandInteractionEvent event() {
+        return new SlashCommandInteractionEvent(null, 0, interaction);
+    }
+
+    public SlashCommandInteraction interaction() {
+        return interaction;
+    }
+
+    public InteractionHook hook() {
+        return hook;
+    }
+
+    /** Makes later defers fail as if Discord rejected them. */
+    public void failDefers() {
+        failDefers = true;
+    }
+
+    public int defers() {
+        return defers.get();
+    }
+
+    public List<String> edits() {
+        return edits;
+    }
+
+    private Object onInteraction(Object self, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "getName" -> name;
+            case "getUser" -> proxy(User.class, (user, m, a) -> "getId".equals(m.getName()) ? userId : unsupported(m));
+            case "getChannel" -> proxy(MessageChannelUnion.class, (channel, m, a) -> "getId".equals(m.getName()) ? channelId : unsupported(m));
+            case "getHook" -> hook;
+            case "isAcknowledged" -> acknowledged;
+            case "deferReply" -> action(ReplyCallbackAction.class, () -> {
+                defers.incrementAndGet();
+                if (failDefers) {
+                    throw new IllegalStateException("defer rejected");
+                }
+                acknowledged = true;
+                return hook;
+            });
+            default -> unsupported(method);
+        };
+    }
+
+    private Object onHook(Object self, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "getInteraction" -> interaction;
+            case "editOriginal" -> action(WebhookMessageEditAction.class, () -> {
+                edits.add(String.valueOf(args[0]));
+                return null;
+            });
+            default -> unsupported(method);
+        };
+    }
+
+    /**
+     * A REST action that runs {@code result} when queued and hands its value,
+     * or the exception it throws, to the callbacks. Setters return the action.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T action(Class<T> type, Supplier<Object> result) {
+        return proxy(type, (self, method, args) -> {
+            if (!"queue".equals(method.getName())) {
+                return method.getReturnType().isInstance(self) ? self : unsupported(method);
+            }
+            Object value;
+            try {
+                value = result.get();
+            } catch (RuntimeException e) {
+                if (args != null && args.length > 1 && args[1] != null) {
+                    ((Consumer<Throwable>) args[1]).accept(e);
+                }
+                return null;
+            }
+            if (args != null && args.length > 0 && args[0] != null) {
+                ((Consumer<Object>) args[0]).accept(value);
+            }
+            return null;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocation = (self, method, args) -> switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(self);
+            case "equals" -> self == args[0];
+            case "toString" -> "Fake" + type.getSimpleName();
+            default -> handler.handle(self, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(FakeInteraction.class.getClassLoader(), new Class<?>[]{type}, invocation));
+    }
+
+    private static Object unsupported(Method method) {
+        throw new UnsupportedOperationException(method.getDeclaringClass().getSimpleName() + "." + method.getName());
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object self, Method method, Object[] args);
+    }
+}
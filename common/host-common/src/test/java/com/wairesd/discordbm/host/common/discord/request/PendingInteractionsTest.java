@@ -0,0 +1,263 @@
+package com.wairesd.discordbm.host.common.discord.request;
+
+import com.wairesd.discordbm.host.common.config.configurators.TestSettings;
+import com.wairesd.discordbm.host.common.network.ServerLoad;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class PendingInteractionsTest {
+    @TempDir
+    static Path dataDir;
+
+    private final ServerLoad load = new ServerLoad();
+    private final PendingInteractions interactions = new PendingInteractions(new CommandLatencies(), load);
+
+    @BeforeAll
+    static void loadSettings() throws IOException {
+        TestSettings.load(dataDir, """
+                Discord:
+                  interactions:
+                    auto-defer-ms: 50
+                """);
+    }
+
+    @AfterEach
+    void shutdown() {
+        interactions.shutdown();
+    }
+
+    @Test
+    void unansweredInteractionIsDeferred() throws InterruptedException {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        interactions.put(UUID.randomUUID(), fake.event(), "a", false);
+        await(() -> fake.defers() == 1);
+        assertEquals(1, interactions.getAutoDeferred());
+        assertEquals(1, interactions.size());
+    }
+
+    @Test
+    void answeredInteractionIsNotDeferred() throws InterruptedException {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        interactions.put(requestId, fake.event(), "a", false);
+        PendingInteraction answered = interactions.answer(requestId);
+        assertSame(fake.interaction(), answered.callback());
+        assertEquals("channel", answered.channelId());
+        assertNull(interactions.answer(requestId));
+
+        Thread.sleep(400);
+        assertEquals(0, fake.defers());
+        assertEquals(0, interactions.size());
+        assertEquals(0, load.getInFlight("a"));
+        assertTrue(load.getAverageMillis("a") >= 0);
+    }
+
+    @Test
+    void speculativeInteractionIsDeferredOnce() throws InterruptedException {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        PendingInteraction pending = interactions.putSpeculative(UUID.randomUUID(), fake.event(), "a", false, 50);
+        await(() -> pending.ack().deferred().isDone());
+        assertSame(fake.hook(), pending.ack().deferred().getNow(null));
+        assertFalse(pending.ack().claimReply());
+
+        Thread.sleep(300);
+        assertEquals(1, fake.defers());
+    }
+
+    @Test
+    void claimedReplyIsNotDeferred() throws InterruptedException {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        PendingInteraction pending = interactions.putSpeculative(UUID.randomUUID(), fake.event(), "a", false, 50);
+        assertTrue(pending.ack().claimReply());
+
+        Thread.sleep(400);
+        assertEquals(0, fake.defers());
+    }
+
+    @Test
+    void modalInteractionIsDeferredThroughItsAcknowledgement() throws InterruptedException {
+        FakeInteraction fake = new FakeInteraction("form", "user", "channel");
+        PendingInteraction pending = interactions.putModal(UUID.randomUUID(), fake.event(), "a", false);
+        await(() -> fake.defers() == 1);
+        assertFalse(pending.ack().claimReply());
+    }
+
+    @Test
+    void modalClaimedBeforeTheWatchdogIsNotDeferred() throws InterruptedException {
+        FakeInteraction fake = new FakeInteraction("form", "user", "channel");
+        PendingInteraction pending = interactions.putModal(UUID.randomUUID(), fake.event(), "a", false);
+        assertTrue(pending.ack().claimReply());
+
+        Thread.sleep(300);
+        assertEquals(0, fake.defers());
+    }
+
+    @Test
+    void hookOnlyInteractionIsLeftAlone() throws InterruptedException {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        interactions.putHook(requestId, fake.hook(), "ping", "a", false);
+        assertEquals("user", interactions.get(requestId.toString()).userId());
+
+        Thread.sleep(300);
+        assertEquals(0, fake.defers());
+        assertEquals(1, interactions.size());
+    }
+
+    @Test
+    void sendFailureChargesTheServer() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        interactions.put(requestId, fake.event(), "a", false);
+        assertEquals(1, load.getInFlight("a"));
+
+        assertSame(fake.interaction(), interactions.remove(requestId).callback());
+        assertNull(interactions.remove(requestId));
+        assertEquals(0, load.getInFlight("a"));
+        assertEquals(5_000, load.getAverageMillis("a"));
+    }
+
+    @Test
+    void unknownRequestIdsAreIgnored() {
+        assertNull(interactions.get("not-a-uuid"));
+        assertNull(interactions.get((String) null));
+        assertNull(interactions.answer(UUID.randomUUID()));
+    }
+
+    @Test
+    void replyParkedBeforeItsInteractionIsDeliveredOnRegistration() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        List<PendingInteraction> delivered = new CopyOnWriteArrayList<>();
+        assertTrue(interactions.park(requestId, delivered::add));
+        assertTrue(delivered.isEmpty());
+
+        interactions.put(requestId, fake.event(), "a", false);
+        assertEquals(1, delivered.size());
+        assertEquals(requestId, delivered.get(0).requestId());
+        assertEquals(0, interactions.size());
+        assertEquals(0, load.getInFlight("a"));
+    }
+
+    @Test
+    void replyParkedForARegisteredInteractionIsDeliveredAtOnce() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        interactions.put(requestId, fake.event(), "a", false);
+        List<PendingInteraction> delivered = new CopyOnWriteArrayList<>();
+        assertTrue(interactions.park(requestId, delivered::add));
+        assertEquals(1, delivered.size());
+        assertEquals(0, interactions.size());
+    }
+
+    @Test
+    void laterParkedReplyReplacesTheEarlierOne() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        List<PendingInteraction> first = new CopyOnWriteArrayList<>();
+        List<PendingInteraction> second = new CopyOnWriteArrayList<>();
+        interactions.park(requestId, first::add);
+        interactions.park(requestId, second::add);
+
+        interactions.put(requestId, fake.event(), "a", false);
+        assertTrue(first.isEmpty());
+        assertEquals(1, second.size());
+    }
+
+    @Test
+    void parkedReplyOnlyGoesToItsOwnInteraction() {
+        List<PendingInteraction> delivered = new CopyOnWriteArrayList<>();
+        interactions.park(UUID.randomUUID(), delivered::add);
+        interactions.put(UUID.randomUUID(), new FakeInteraction("ping", "user", "channel").event(), "a", false);
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, interactions.size());
+    }
+
+    @Test
+    void hedgeReplyAnswersTheInteractionAndSettlesBothIds() throws InterruptedException {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        UUID hedgeId = UUID.randomUUID();
+        interactions.putHook(requestId, fake.hook(), "ping", "a", false);
+        Thread.sleep(300);
+        assertTrue(interactions.addHedge(requestId, hedgeId, "b"));
+        assertEquals(1, load.getInFlight("b"));
+
+        PendingInteraction answered = interactions.answer(hedgeId);
+        assertEquals(requestId, answered.requestId());
+        assertTrue(interactions.isSettled(requestId));
+        assertTrue(interactions.isSettled(hedgeId));
+        assertNull(interactions.answer(requestId));
+        assertEquals(0, interactions.size());
+        assertEquals(0, load.getInFlight("a"));
+        assertEquals(0, load.getInFlight("b"));
+        // b is timed from the hedge, a from the original request
+        assertTrue(load.getAverageMillis("a") >= 300);
+        assertTrue(load.getAverageMillis("b") < 300);
+    }
+
+    @Test
+    void primaryReplyLeavesTheHedgeAsALateDuplicate() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        UUID hedgeId = UUID.randomUUID();
+        interactions.putHook(requestId, fake.hook(), "ping", "a", false);
+        interactions.addHedge(requestId, hedgeId, "b");
+
+        assertEquals(requestId, interactions.answer(requestId).requestId());
+        assertNull(interactions.answer(hedgeId));
+        assertTrue(interactions.isSettled(hedgeId));
+        assertEquals(0, load.getInFlight("b"));
+    }
+
+    @Test
+    void interactionIsHedgedAtMostOnce() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        assertFalse(interactions.addHedge(requestId, UUID.randomUUID(), "b"));
+
+        interactions.putHook(requestId, fake.hook(), "ping", "a", false);
+        assertTrue(interactions.addHedge(requestId, UUID.randomUUID(), "b"));
+        assertFalse(interactions.addHedge(requestId, UUID.randomUUID(), "c"));
+        assertEquals(0, load.getInFlight("c"));
+
+        interactions.answer(requestId);
+        assertFalse(interactions.addHedge(requestId, UUID.randomUUID(), "c"));
+    }
+
+    @Test
+    void unhedgedRepliesAreNeverSettled() {
+        FakeInteraction fake = new FakeInteraction("ping", "user", "channel");
+        UUID requestId = UUID.randomUUID();
+        interactions.putHook(requestId, fake.hook(), "ping", "a", false);
+        interactions.answer(requestId);
+        assertFalse(interactions.isSettled(requestId));
+        assertFalse(interactions.isSettled(null));
+    }
+
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 5s");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
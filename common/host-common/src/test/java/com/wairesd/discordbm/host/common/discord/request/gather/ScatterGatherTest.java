@@ -0,0 +1,170 @@
+package com.wairesd.discordbm.host.common.discord.request.gather;
+
+import com.wairesd.discordbm.common.models.response.ResponseMessage;
+import com.wairesd.discordbm.host.common.config.configurators.TestSettings;
+import com.wairesd.discordbm.host.common.discord.request.CommandLatencies;
+import com.wairesd.discordbm.host.common.discord.request.FakeInteraction;
+import com.wairesd.discordbm.host.common.discord.request.PendingInteractions;
+import com.wairesd.discordbm.host.common.network.NettyServer;
+import com.wairesd.discordbm.host.common.network.ServerLoad;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ScatterGatherTest {
+    @TempDir
+    static Path dataDir;
+
+    private final ServerLoad load = new ServerLoad();
+    private final PendingInteractions interactions = new PendingInteractions(new CommandLatencies(), load);
+    private final ScatterGather gather = new ScatterGather(interactions, new CommandLatencies(), load);
+    private final FakeInteraction fake = new FakeInteraction("online", "user", "channel");
+    private final UUID a = UUID.randomUUID();
+    private final UUID b = UUID.randomUUID();
+
+    @BeforeAll
+    static void loadSettings() throws IOException {
+        TestSettings.load(dataDir, "Discord: {}\n");
+    }
+
+    @AfterEach
+    void shutdown() {
+        interactions.shutdown();
+    }
+
+    @Test
+    void repliesAreMergedOnceEveryServerAnswered() {
+        start(ResponseAggregators.get("list"), 10_000);
+        assertTrue(gather.offer(b, reply(b, "2 online")));
+        assertTrue(fake.edits().isEmpty());
+
+        assertTrue(gather.offer(a, reply(a, "1 online")));
+        assertEquals(List.of("**a**: 1 online\n**b**: 2 online"), fake.edits());
+        assertEquals(0, load.getInFlight("a"));
+        assertEquals(0, load.getInFlight("b"));
+    }
+
+    @Test
+    void deadlineLeavesOutServersThatDidNotAnswer() throws InterruptedException {
+        start(ResponseAggregators.get("list"), 50);
+        gather.offer(a, reply(a, "1 online"));
+        await(fake);
+        assertEquals(List.of("**a**: 1 online\n**b**: no answer"), fake.edits());
+        assertEquals(0, load.getInFlight("b"));
+        assertTrue(load.getAverageMillis("b") >= 0);
+
+        assertTrue(gather.offer(b, reply(b, "2 online")));
+        assertEquals(1, fake.edits().size());
+    }
+
+    @Test
+    void failedPartsCompleteTheGatherWithoutWaiting() {
+        start(ResponseAggregators.get("sum"), 10_000);
+        gather.offer(a, reply(a, "3"));
+        gather.fail(b);
+        gather.fail(b);
+        assertEquals(List.of("3 (1 of 2 servers)"), fake.edits());
+        assertEquals(0, load.getInFlight("b"));
+        assertEquals(5_000, load.getAverageMillis("b"));
+    }
+
+    @Test
+    void emptyResultsGetAPlaceholderReply() {
+        start(ResponseAggregators.get("first"), 10_000);
+        gather.fail(a);
+        gather.fail(b);
+        assertEquals(List.of("No server answered in time. Please try again."), fake.edits());
+
+        FakeInteraction other = new FakeInteraction("online", "user", "channel");
+        UUID c = UUID.randomUUID();
+        gather.start("online", other.hook(), ResponseAggregators.get("first"), Map.of(c, server("c")), 10_000);
+        gather.offer(c, reply(c, ""));
+        assertEquals(List.of("No results."), other.edits());
+    }
+
+    @Test
+    void failingAggregatorCountsAsNoResults() {
+        start((replies, missing) -> {
+            throw new IllegalStateException("broken");
+        }, 10_000);
+        gather.offer(a, reply(a, "1"));
+        gather.offer(b, reply(b, "2"));
+        assertEquals(List.of("No results."), fake.edits());
+    }
+
+    @Test
+    void longRepliesAreCutToTheMessageLimit() {
+        start((replies, missing) -> "x".repeat(3_000), 10_000);
+        gather.offer(a, reply(a, "1"));
+        gather.offer(b, reply(b, "2"));
+        String text = fake.edits().get(0);
+        assertEquals(2_000, text.length());
+        assertTrue(text.endsWith("..."));
+    }
+
+    @Test
+    void repliesOutsideAGatherAreNotTaken() {
+        assertFalse(gather.offer(UUID.randomUUID(), reply(a, "1")));
+        assertFalse(gather.offer(null, reply(a, "1")));
+    }
+
+    @Test
+    void builtInAggregators() {
+        List<ServerReply> replies = List.of(new ServerReply("b", "2.5", 10), new ServerReply("a", "", 20),
+                new ServerReply("c", "1", 30));
+        assertEquals("**a**: \n**b**: 2.5\n**c**: 1\n**d**: no answer",
+                ResponseAggregators.get("list").aggregate(replies, List.of("d")));
+        assertEquals("2.5\n1", ResponseAggregators.get("concat").aggregate(replies, List.of()));
+        assertEquals("2.5", ResponseAggregators.get("first").aggregate(replies, List.of()));
+        assertEquals("3.5 (2 of 4 servers)", ResponseAggregators.get("sum").aggregate(replies, List.of("d")));
+        assertEquals("4", ResponseAggregators.get("sum").aggregate(
+                List.of(new ServerReply("a", " 1 ", 1), new ServerReply("b", "3", 1)), List.of()));
+    }
+
+    @Test
+    void unknownAggregatorNamesFallBackToList() {
+        assertSame(ResponseAggregators.get("list"), ResponseAggregators.get("nope"));
+        assertSame(ResponseAggregators.get("list"), ResponseAggregators.get(null));
+        assertSame(ResponseAggregators.get("sum"), ResponseAggregators.get("SUM"));
+    }
+
+    private void start(ResponseAggregator aggregator, long deadlineMillis) {
+        Map<UUID, NettyServer.ServerInfo> targets = new LinkedHashMap<>();
+        targets.put(a, server("a"));
+        targets.put(b, server("b"));
+        gather.start("online", fake.hook(), aggregator, targets, deadlineMillis);
+    }
+
+    private static ResponseMessage reply(UUID requestId, String text) {
+        return new ResponseMessage.Builder().requestId(requestId.toString()).response(text).build();
+    }
+
+    private static NettyServer.ServerInfo server(String name) {
+        return new NettyServer.ServerInfo(name, new EmbeddedChannel());
+    }
+
+    private static void await(FakeInteraction interaction) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (interaction.edits().isEmpty()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("No reply within 5s");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.wairesd.discordbm.host.common.network;
+
+import com.wairesd.discordbm.host.common.config.configurators.TestSettings;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ServerBalancerTest {
+    @TempDir
+    static Path dataDir;
+
+    private final ServerLoad load = new ServerLoad();
+    private final ServerBalancer balancer = new ServerBalancer(load);
+
+    @BeforeAll
+    static void loadSettings() throws IOException {
+        TestSettings.load(dataDir, """
+                Discord:
+                  routing:
+                    default-policy: ask-user
+                    commands:
+                      rr: round-robin
+                      least: least-in-flight
+                      latency: lowest-latency
+                      user: hash-user
+                      guild: hash-guild
+                """);
+    }
+
+    @Test
+    void askUserLeavesTheChoiceToTheUser() {
+        assertEquals(BalancingPolicy.ASK_USER, balancer.policyFor("other"));
+        assertNull(balancer.choose("other", List.of(server("a"), server("b")), "u", "g"));
+    }
+
+    @Test
+    void singleServerIsAlwaysChosen() {
+        NettyServer.ServerInfo a = server("a");
+        assertSame(a, balancer.choose("other", List.of(a), "u", "g"));
+    }
+
+    @Test
+    void roundRobinTakesTurns() {
+        List<NettyServer.ServerInfo> servers = List.of(server("a"), server("b"), server("c"));
+        List<String> picks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            picks.add(balancer.choose("rr", servers, "u", "g").serverName());
+        }
+        assertEquals(List.of("a", "b", "c", "a", "b", "c"), picks);
+    }
+
+    @Test
+    void leastInFlightBreaksTiesByReplyTime() {
+        List<NettyServer.ServerInfo> servers = List.of(server("a"), server("b"), server("c"));
+        reply("b", 300);
+        reply("c", 100);
+        assertEquals("c", balancer.choose("least", servers, "u", "g").serverName());
+
+        load.started("c");
+        // a has no samples and is taken to be as fast as the mean of b and c
+        assertEquals("a", balancer.choose("least", servers, "u", "g").serverName());
+    }
+
+    @Test
+    void lowestLatencyGivesUnsampledServersTheMeanOfTheOthers() {
+        List<NettyServer.ServerInfo> servers = List.of(server("a"), server("b"), server("c"));
+        reply("a", 100);
+        reply("b", 300);
+        assertEquals("a", balancer.choose("latency", servers, "u", "g").serverName());
+
+        load.started("a");
+        load.started("a");
+        assertEquals("c", balancer.choose("latency", servers, "u", "g").serverName());
+    }
+
+    @Test
+    void lowestLatencyWithoutSamplesPrefersFewerInFlight() {
+        List<NettyServer.ServerInfo> servers = List.of(server("a"), server("b"));
+        load.started("a");
+        assertEquals("b", balancer.choose("latency", servers, "u", "g").serverName());
+    }
+
+    @Test
+    void unansweredRequestsCountAgainstLatency() {
+        List<NettyServer.ServerInfo> servers = List.of(server("a"), server("b"));
+        reply("a", 50);
+        reply("b", 100);
+        assertEquals("a", balancer.choose("latency", servers, "u", "g").serverName());
+
+        load.started("a");
+        load.abandoned("a", 10_000);
+        assertEquals(0, load.getInFlight("a"));
+        assertEquals("b", balancer.choose("latency", servers, "u", "g").serverName());
+    }
+
+    @Test
+    void loadChargesFailuresAndCapsAbandonedWaits() {
+        assertEquals(-1, load.getAverageMillis("a"));
+        load.started("a");
+        load.failed("a");
+        assertEquals(0, load.getInFlight("a"));
+        assertEquals(5_000, load.getAverageMillis("a"));
+
+        load.abandoned("b", 10 * 60_000);
+        assertEquals(30_000, load.getAverageMillis("b"));
+        assertEquals(0, load.getInFlight("b"));
+    }
+
+    @Test
+    void inactiveServersAreSkipped() {
+        NettyServer.ServerInfo down = inactive("a");
+        NettyServer.ServerInfo up = server("b");
+        assertSame(up, balancer.choose("other", List.of(down, up), "u", "g"));
+
+        List<NettyServer.ServerInfo> servers = List.of(down, up, server("c"));
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals("a", balancer.choose("rr", servers, "u", "g").serverName());
+        }
+    }
+
+    @Test
+    void withoutActiveServersOneIsStillChosen() {
+        assertNotNull(balancer.choose("rr", List.of(inactive("a"), inactive("b")), "u", "g"));
+    }
+
+    @Test
+    void hashUserOnlyMovesUsersOfARemovedServer() {
+        List<NettyServer.ServerInfo> servers = List.of(server("a"), server("b"), server("c"), server("d"), server("e"));
+        List<NettyServer.ServerInfo> withoutC = servers.stream().filter(s -> !s.serverName().equals("c")).toList();
+        for (int i = 0; i < 50; i++) {
+            String user = "user-" + i;
+            String picked = balancer.choose("user", servers, user, "g").serverName();
+            assertEquals(picked, balancer.choose("user", servers, user, "other-guild").serverName());
+            if (!picked.equals("c")) {
+                assertEquals(picked, balancer.choose("user", withoutC, user, "g").serverName());
+            }
+        }
+    }
+
+    @Test
+    void hashGuildKeepsAGuildTogetherAndUsesTheUserInDirectMessages() {
+        List<NettyServer.ServerInfo> servers = List.of(server("a"), server("b"), server("c"));
+        for (int i = 0; i < 20; i++) {
+            String user = "user-" + i;
+            assertEquals(balancer.choose("guild", servers, "someone", "guild-1").serverName(),
+                    balancer.choose("guild", servers, user, "guild-1").serverName());
+            assertEquals(balancer.choose("user", servers, user, "guild-1").serverName(),
+                    balancer.choose("guild", servers, user, null).serverName());
+        }
+    }
+
+    @Test
+    void alternativeIsTheLeastLoadedOtherActiveServer() {
+        NettyServer.ServerInfo a = server("a");
+        NettyServer.ServerInfo c = server("c");
+        NettyServer.ServerInfo d = server("d");
+        load.started("c");
+        assertSame(d, balancer.alternative(List.of(a, inactive("b"), c, d), "a"));
+        assertNull(balancer.alternative(List.of(a, inactive("b")), "a"));
+    }
+
+    private void reply(String serverName, long millis) {
+        load.started(serverName);
+        load.answered(serverName, millis);
+    }
+
+    private static NettyServer.ServerInfo server(String name) {
+        return new NettyServer.ServerInfo(name, new EmbeddedChannel());
+    }
+
+    private static NettyServer.ServerInfo inactive(String name) {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.close();
+        return new NettyServer.ServerInfo(name, channel);
+    }
+}
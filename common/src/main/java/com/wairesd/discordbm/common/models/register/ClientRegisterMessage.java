@@ -4,10 +4,22 @@ public class ClientRegisterMessage {
     private final String type = "client_register";
     private final String serverName;
     private final String secret;
+    private final String protocol;
+    private final String compression;
 
     public ClientRegisterMessage(String serverName, String secret) {
+        this(serverName, secret, null, null);
+    }
+
+    public ClientRegisterMessage(String serverName, String secret, String protocol) {
+        this(serverName, secret, protocol, null);
+    }
+
+    public ClientRegisterMessage(String serverName, String secret, String protocol, String compression) {
         this.serverName = serverName;
         this.secret = secret;
+        this.protocol = protocol;
+        this.compression = compression;
     }
 
     public String getType() {
@@ -21,4 +33,19 @@ public class ClientRegisterMessage {
     public String getSecret() {
         return secret;
     }
-}
\ No newline at end of file
+
+    /**
+     * Wire format the client would like to use for typed messages,
+     * or {@code null} for clients that only speak JSON.
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Compression algorithm the client supports, or {@code null} for none.
+     */
+    public String getCompression() {
+        return compression;
+    }
+}
@@ -0,0 +1,5 @@
+package com.wairesd.discordbm.common.models.request;
+
+import java.util.Map;
+
+public record RequestMessage(String type, String command, Map<String, String> options, String requestId) {}
\ No newline at end of file
@@ -110,6 +110,30 @@ public class ResponseMessage {
         return errorPlaceholders;
     }
 
+    /**
+     * Copy of this message with other buttons.
+     */
+    public ResponseMessage withButtons(List<ButtonDefinition> buttons) {
+        return new Builder()
+                .type(type)
+                .requestId(requestId)
+                .response(response)
+                .embed(embed)
+                .buttons(buttons)
+                .modal(modal)
+                .flags(flags)
+                .userId(userId)
+                .channelId(channelId)
+                .conditions(conditions)
+                .deleteAll(deleteAll)
+                .responses(responses)
+                .replyMessageId(replyMessageId)
+                .replyMentionAuthor(replyMentionAuthor)
+                .errorType(errorType)
+                .errorPlaceholders(errorPlaceholders)
+                .build();
+    }
+
     public static class Builder {
         private String type;
         private String requestId;
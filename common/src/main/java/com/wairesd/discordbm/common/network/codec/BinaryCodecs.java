@@ -0,0 +1,383 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import com.google.gson.reflect.TypeToken;
+import com.wairesd.discordbm.common.models.buttons.ButtonDefinition;
+import com.wairesd.discordbm.common.models.buttons.ButtonStyle;
+import com.wairesd.discordbm.common.models.embed.EmbedDefinition;
+import com.wairesd.discordbm.common.models.embed.EmbedFieldd;
+import com.wairesd.discordbm.common.models.modal.ModalDefinition;
+import com.wairesd.discordbm.common.models.modal.ModalFieldDefinition;
+import com.wairesd.discordbm.common.models.placeholders.request.CanHandlePlaceholdersRequest;
+import com.wairesd.discordbm.common.models.placeholders.request.GetPlaceholdersRequest;
+import com.wairesd.discordbm.common.models.placeholders.response.CanHandleResponse;
+import com.wairesd.discordbm.common.models.placeholders.response.PlaceholdersResponse;
+import com.wairesd.discordbm.common.models.request.AddRoleRequest;
+import com.wairesd.discordbm.common.models.request.RemoveRoleRequest;
+import com.wairesd.discordbm.common.models.request.RequestMessage;
+import com.wairesd.discordbm.common.models.response.ResponseFlags;
+import com.wairesd.discordbm.common.models.response.ResponseMessage;
+import com.wairesd.discordbm.common.models.response.RoleActionResponse;
+import com.wairesd.discordbm.common.models.unregister.UnregisterMessage;
+import io.netty.buffer.ByteBuf;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.wairesd.discordbm.common.network.codec.BinaryProtocol.*;
+
+/**
+ * Binary codecs for the message models shared by host and client.
+ * Register messages carry side specific command models, so their codecs
+ * are registered by the host and client modules themselves.
+ */
+final class BinaryCodecs {
+    private static final Type CONDITIONS_TYPE = new TypeToken<List<Map<String, Object>>>() {}.getType();
+    private static final ButtonStyle[] BUTTON_STYLES = ButtonStyle.values();
+
+    private BinaryCodecs() {
+    }
+
+    static void registerDefaults() {
+        register(TAG_REQUEST, RequestMessage.class, new BinaryMessageCodec<RequestMessage>() {
+            @Override
+            public void encode(RequestMessage msg, ByteBuf out) {
+                writeString(out, msg.type());
+                writeString(out, msg.command());
+                writeStringMap(out, msg.options());
+                writeString(out, msg.requestId());
+            }
+
+            @Override
+            public RequestMessage decode(ByteBuf in) {
+                return new RequestMessage(readString(in), readString(in), readStringMap(in), readString(in));
+            }
+        });
+
+        register(TAG_RESPONSE, ResponseMessage.class, new BinaryMessageCodec<ResponseMessage>() {
+            @Override
+            public void encode(ResponseMessage msg, ByteBuf out) {
+                writeResponse(msg, out);
+            }
+
+            @Override
+            public ResponseMessage decode(ByteBuf in) {
+                return readResponse(in);
+            }
+        });
+
+        register(TAG_UNREGISTER, UnregisterMessage.class, new BinaryMessageCodec<UnregisterMessage>() {
+            @Override
+            public void encode(UnregisterMessage msg, ByteBuf out) {
+                writeString(out, msg.serverName);
+                writeString(out, msg.pluginName);
+                writeString(out, msg.commandName);
+                writeString(out, msg.secret);
+            }
+
+            @Override
+            public UnregisterMessage decode(ByteBuf in) {
+                return new UnregisterMessage(readString(in), readString(in), readString(in), readString(in));
+            }
+        });
+
+        register(TAG_CAN_HANDLE_PLACEHOLDERS, CanHandlePlaceholdersRequest.class, new BinaryMessageCodec<CanHandlePlaceholdersRequest>() {
+            @Override
+            public void encode(CanHandlePlaceholdersRequest msg, ByteBuf out) {
+                writeString(out, msg.type());
+                writeString(out, msg.player());
+                writeStringList(out, msg.placeholders());
+                writeString(out, msg.requestId());
+            }
+
+            @Override
+            public CanHandlePlaceholdersRequest decode(ByteBuf in) {
+                return new CanHandlePlaceholdersRequest.Builder()
+                        .type(readString(in))
+                        .player(readString(in))
+                        .placeholders(readStringList(in))
+                        .requestId(readString(in))
+                        .build();
+            }
+        });
+
+        register(TAG_GET_PLACEHOLDERS, GetPlaceholdersRequest.class, new BinaryMessageCodec<GetPlaceholdersRequest>() {
+            @Override
+            public void encode(GetPlaceholdersRequest msg, ByteBuf out) {
+                writeString(out, msg.type());
+                writeString(out, msg.player());
+                writeStringList(out, msg.placeholders());
+                writeString(out, msg.requestId());
+            }
+
+            @Override
+            public GetPlaceholdersRequest decode(ByteBuf in) {
+                return new GetPlaceholdersRequest.Builder()
+                        .type(readString(in))
+                        .player(readString(in))
+                        .placeholders(readStringList(in))
+                        .requestId(readString(in))
+                        .build();
+            }
+        });
+
+        register(TAG_CAN_HANDLE_RESPONSE, CanHandleResponse.class, new BinaryMessageCodec<CanHandleResponse>() {
+            @Override
+            public void encode(CanHandleResponse msg, ByteBuf out) {
+                writeString(out, msg.type());
+                writeString(out, msg.requestId());
+                writeBoolean(out, msg.canHandle());
+            }
+
+            @Override
+            public CanHandleResponse decode(ByteBuf in) {
+                return new CanHandleResponse.Builder()
+                        .type(readString(in))
+                        .requestId(readString(in))
+                        .canHandle(readBoolean(in))
+                        .build();
+            }
+        });
+
+        register(TAG_PLACEHOLDERS_RESPONSE, PlaceholdersResponse.class, new BinaryMessageCodec<PlaceholdersResponse>() {
+            @Override
+            public void encode(PlaceholdersResponse msg, ByteBuf out) {
+                writeString(out, msg.type());
+                writeString(out, msg.requestId());
+                writeStringMap(out, msg.values());
+            }
+
+            @Override
+            public PlaceholdersResponse decode(ByteBuf in) {
+                return new PlaceholdersResponse.Builder()
+                        .type(readString(in))
+                        .requestId(readString(in))
+                        .values(readStringMap(in))
+                        .build();
+            }
+        });
+
+        register(TAG_ADD_ROLE, AddRoleRequest.class, new BinaryMessageCodec<AddRoleRequest>() {
+            @Override
+            public void encode(AddRoleRequest msg, ByteBuf out) {
+                writeString(out, msg.getGuildId());
+                writeString(out, msg.getUserId());
+                writeString(out, msg.getRoleId());
+                writeString(out, msg.getRequestId());
+            }
+
+            @Override
+            public AddRoleRequest decode(ByteBuf in) {
+                return new AddRoleRequest(readString(in), readString(in), readString(in), readString(in));
+            }
+        });
+
+        register(TAG_REMOVE_ROLE, RemoveRoleRequest.class, new BinaryMessageCodec<RemoveRoleRequest>() {
+            @Override
+            public void encode(RemoveRoleRequest msg, ByteBuf out) {
+                writeString(out, msg.getGuildId());
+                writeString(out, msg.getUserId());
+                writeString(out, msg.getRoleId());
+                writeString(out, msg.getRequestId());
+            }
+
+            @Override
+            public RemoveRoleRequest decode(ByteBuf in) {
+                return new RemoveRoleRequest(readString(in), readString(in), readString(in), readString(in));
+            }
+        });
+
+        register(TAG_ROLE_ACTION_RESPONSE, RoleActionResponse.class, new BinaryMessageCodec<RoleActionResponse>() {
+            @Override
+            public void encode(RoleActionResponse msg, ByteBuf out) {
+                writeString(out, msg.getRequestId());
+                writeBoolean(out, msg.isSuccess());
+                writeString(out, msg.getError());
+            }
+
+            @Override
+            public RoleActionResponse decode(ByteBuf in) {
+                return new RoleActionResponse(readString(in), readBoolean(in), readString(in));
+            }
+        });
+    }
+
+    private static void writeResponse(ResponseMessage msg, ByteBuf out) {
+        writeString(out, msg.type());
+        writeString(out, msg.requestId());
+        writeString(out, msg.response());
+        writeEmbed(msg.embed(), out);
+        if (writeSize(out, msg.buttons())) {
+            for (ButtonDefinition button : msg.buttons()) {
+                writeButton(button, out);
+            }
+        }
+        writeModal(msg.modal(), out);
+        writeFlags(msg.flags(), out);
+        writeString(out, msg.userId());
+        writeString(out, msg.channelId());
+        writeJson(out, msg.conditions());
+        writeBoolean(out, msg.deleteAll());
+        writeStringList(out, msg.responses());
+        writeString(out, msg.replyMessageId());
+        writeNullableBoolean(out, msg.replyMentionAuthor());
+        writeString(out, msg.errorType());
+        writeStringMap(out, msg.errorPlaceholders());
+    }
+
+    private static ResponseMessage readResponse(ByteBuf in) {
+        ResponseMessage.Builder builder = new ResponseMessage.Builder()
+                .type(readString(in))
+                .requestId(readString(in))
+                .response(readString(in))
+                .embed(readEmbed(in));
+        int buttonCount = readSize(in);
+        if (buttonCount >= 0) {
+            List<ButtonDefinition> buttons = new ArrayList<>(buttonCount);
+            for (int i = 0; i < buttonCount; i++) {
+                buttons.add(readButton(in));
+            }
+            builder.buttons(buttons);
+        }
+        return builder
+                .modal(readModal(in))
+                .flags(readFlags(in))
+                .userId(readString(in))
+                .channelId(readString(in))
+                .conditions(readJson(in, CONDITIONS_TYPE))
+                .deleteAll(readBoolean(in))
+                .responses(readStringList(in))
+                .replyMessageId(readString(in))
+                .replyMentionAuthor(readNullableBoolean(in))
+                .errorType(readString(in))
+                .errorPlaceholders(readStringMap(in))
+                .build();
+    }
+
+    private static void writeEmbed(EmbedDefinition embed, ByteBuf out) {
+        writeBoolean(out, embed != null);
+        if (embed == null) {
+            return;
+        }
+        writeString(out, embed.title());
+        writeString(out, embed.description());
+        writeNullableInt(out, embed.color());
+        if (writeSize(out, embed.fields())) {
+            for (EmbedFieldd field : embed.fields()) {
+                writeString(out, field.name());
+                writeString(out, field.value());
+                writeBoolean(out, field.inline());
+            }
+        }
+    }
+
+    private static EmbedDefinition readEmbed(ByteBuf in) {
+        if (!readBoolean(in)) {
+            return null;
+        }
+        EmbedDefinition.Builder builder = new EmbedDefinition.Builder()
+                .title(readString(in))
+                .description(readString(in))
+                .color(readNullableInt(in));
+        int fieldCount = readSize(in);
+        if (fieldCount >= 0) {
+            List<EmbedFieldd> fields = new ArrayList<>(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                fields.add(new EmbedFieldd.Builder()
+                        .name(readString(in))
+                        .value(readString(in))
+                        .inline(readBoolean(in))
+                        .build());
+            }
+            builder.fields(fields);
+        }
+        return builder.build();
+    }
+
+    private static void writeButton(ButtonDefinition button, ByteBuf out) {
+        writeString(out, button.label());
+        writeString(out, button.customId());
+        out.writeByte(button.style() == null ? 0 : button.style().ordinal() + 1);
+        writeString(out, button.url());
+        writeBoolean(out, button.disabled());
+        writeString(out, button.formName());
+    }
+
+    private static ButtonDefinition readButton(ByteBuf in) {
+        String label = readString(in);
+        String customId = readString(in);
+        int style = in.readUnsignedByte();
+        return new ButtonDefinition.Builder()
+                .label(label)
+                .customId(customId)
+                .style(style == 0 || style > BUTTON_STYLES.length ? null : BUTTON_STYLES[style - 1])
+                .url(readString(in))
+                .disabled(readBoolean(in))
+                .formName(readString(in))
+                .build();
+    }
+
+    private static void writeModal(ModalDefinition modal, ByteBuf out) {
+        writeBoolean(out, modal != null);
+        if (modal == null) {
+            return;
+        }
+        writeString(out, modal.getTitle());
+        writeString(out, modal.getCustomId());
+        if (writeSize(out, modal.getFields())) {
+            for (ModalFieldDefinition field : modal.getFields()) {
+                writeString(out, field.getLabel());
+                writeString(out, field.getPlaceholder());
+                writeString(out, field.getType());
+                writeBoolean(out, field.isRequired());
+                writeString(out, field.getVariable());
+            }
+        }
+    }
+
+    private static ModalDefinition readModal(ByteBuf in) {
+        if (!readBoolean(in)) {
+            return null;
+        }
+        String title = readString(in);
+        String customId = readString(in);
+        int fieldCount = readSize(in);
+        List<ModalFieldDefinition> fields = null;
+        if (fieldCount >= 0) {
+            fields = new ArrayList<>(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                fields.add(new ModalFieldDefinition(
+                        readString(in), readString(in), readString(in), readBoolean(in), readString(in)));
+            }
+        }
+        return new ModalDefinition(title, customId, fields);
+    }
+
+    private static void writeFlags(ResponseFlags flags, ByteBuf out) {
+        writeBoolean(out, flags != null);
+        if (flags == null) {
+            return;
+        }
+        int bits = (flags.shouldPreventMessageSend() ? 1 : 0)
+                | (flags.isFormResponse() ? 2 : 0)
+                | (flags.requiresModal() ? 4 : 0)
+                | (flags.isEphemeral() ? 8 : 0);
+        out.writeByte(bits);
+        writeString(out, flags.getResponseType());
+    }
+
+    private static ResponseFlags readFlags(ByteBuf in) {
+        if (!readBoolean(in)) {
+            return null;
+        }
+        int bits = in.readUnsignedByte();
+        return new ResponseFlags.Builder()
+                .preventMessageSend((bits & 1) != 0)
+                .isFormResponse((bits & 2) != 0)
+                .requiresModal((bits & 4) != 0)
+                .ephemeral((bits & 8) != 0)
+                .responseType(readString(in))
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Reads and writes the body of one typed message in the binary wire format.
+ * The frame tag is handled by {@link BinaryProtocol}.
+ */
+public interface BinaryMessageCodec<T> {
+    void encode(T message, ByteBuf out);
+
+    T decode(ByteBuf in);
+}
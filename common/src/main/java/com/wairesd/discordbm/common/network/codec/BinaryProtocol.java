@@ -0,0 +1,245 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import com.google.gson.Gson;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary encoding for the host/client link.
+ *
+ * <p>A binary frame starts with a one byte message tag below {@code 0x20}.
+ * JSON text may start with whitespace, so tab, line feed and carriage return
+ * are never used as tags; any other control byte cannot start a JSON frame
+ * or a plain text error line, so both formats can share a channel. Strings and collections
+ * are prefixed with a varint of {@code length + 1}, where {@code 0} means
+ * {@code null}.</p>
+ */
+public final class BinaryProtocol {
+    public static final int TAG_REQUEST = 0x01;
+    public static final int TAG_RESPONSE = 0x02;
+    public static final int TAG_REGISTER = 0x03;
+    public static final int TAG_UNREGISTER = 0x04;
+    public static final int TAG_CAN_HANDLE_PLACEHOLDERS = 0x05;
+    public static final int TAG_GET_PLACEHOLDERS = 0x06;
+    public static final int TAG_CAN_HANDLE_RESPONSE = 0x07;
+    public static final int TAG_PLACEHOLDERS_RESPONSE = 0x08;
+    public static final int TAG_ROLE_ACTION_RESPONSE = 0x0B;
+    public static final int TAG_ADD_ROLE = 0x0C;
+    public static final int TAG_REMOVE_ROLE = 0x0E;
+    /** Reserved for {@link FrameCompressor}; never a message of its own. */
+    public static final int TAG_COMPRESSED = 0x1E;
+    /** Reserved for {@link ChunkedFrameSplitter}; never a message of its own. */
+    public static final int TAG_CHUNK = 0x1F;
+
+    private static final int TAG_LIMIT = 0x20;
+    private static final Gson gson = new Gson();
+
+    @SuppressWarnings("unchecked")
+    private static final BinaryMessageCodec<Object>[] codecsByTag = new BinaryMessageCodec[TAG_LIMIT];
+    private static final Map<Class<?>, Integer> tagsByClass = new ConcurrentHashMap<>();
+
+    static {
+        BinaryCodecs.registerDefaults();
+    }
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Registers a codec for a message class. Each side registers codecs for the
+     * models it owns; a later registration for the same tag replaces the earlier one.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> void register(int tag, Class<?> type, BinaryMessageCodec<T> codec) {
+        if (tag <= 0 || tag >= TAG_LIMIT || isJsonWhitespace(tag) || tag == TAG_CHUNK || tag == TAG_COMPRESSED) {
+            throw new IllegalArgumentException("Binary tag out of range: " + tag);
+        }
+        codecsByTag[tag] = (BinaryMessageCodec<Object>) codec;
+        tagsByClass.put(type, tag);
+    }
+
+    public static boolean isBinaryFrame(ByteBuf in) {
+        if (!in.isReadable()) {
+            return false;
+        }
+        int first = in.getUnsignedByte(in.readerIndex());
+        return first > 0 && first < TAG_LIMIT && !isJsonWhitespace(first);
+    }
+
+    private static boolean isJsonWhitespace(int b) {
+        return b == '\t' || b == '\n' || b == '\r';
+    }
+
+    public static boolean canEncode(Object message) {
+        return message != null && tagsByClass.containsKey(message.getClass());
+    }
+
+    public static void encode(Object message, ByteBuf out) {
+        Integer tag = tagsByClass.get(message.getClass());
+        if (tag == null || codecsByTag[tag] == null) {
+            throw new EncoderException("No binary codec for " + message.getClass().getName());
+        }
+        out.writeByte(tag);
+        codecsByTag[tag].encode(message, out);
+    }
+
+    public static Object decode(ByteBuf in) {
+        int tag = in.readUnsignedByte();
+        BinaryMessageCodec<Object> codec = tag < TAG_LIMIT ? codecsByTag[tag] : null;
+        if (codec == null) {
+            throw new DecoderException("Unknown binary message tag: " + tag);
+        }
+        return codec.decode(in);
+    }
+
+    public static void writeVarInt(ByteBuf out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(ByteBuf in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new DecoderException("VarInt is too long");
+    }
+
+    public static void writeString(ByteBuf out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.writeBytes(bytes);
+    }
+
+    public static String readString(ByteBuf in) {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.readableBytes()) {
+            throw new DecoderException("String length " + length + " exceeds frame");
+        }
+        String value = in.toString(in.readerIndex(), length, StandardCharsets.UTF_8);
+        in.skipBytes(length);
+        return value;
+    }
+
+    public static void writeBoolean(ByteBuf out, boolean value) {
+        out.writeBoolean(value);
+    }
+
+    public static boolean readBoolean(ByteBuf in) {
+        return in.readBoolean();
+    }
+
+    /** Nullable boolean: 0 = null, 1 = false, 2 = true. */
+    public static void writeNullableBoolean(ByteBuf out, Boolean value) {
+        out.writeByte(value == null ? 0 : value ? 2 : 1);
+    }
+
+    public static Boolean readNullableBoolean(ByteBuf in) {
+        int value = in.readUnsignedByte();
+        return value == 0 ? null : value == 2;
+    }
+
+    public static void writeNullableInt(ByteBuf out, Integer value) {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    public static Integer readNullableInt(ByteBuf in) {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    /** Writes the size of a nullable collection; returns {@code false} if there is nothing more to write. */
+    public static boolean writeSize(ByteBuf out, Collection<?> values) {
+        writeVarInt(out, values == null ? 0 : values.size() + 1);
+        return values != null;
+    }
+
+    /** Reads a size written by {@link #writeSize}; {@code -1} means {@code null}. */
+    public static int readSize(ByteBuf in) {
+        int size = readVarInt(in) - 1;
+        if (size > in.readableBytes()) {
+            throw new DecoderException("Collection size " + size + " exceeds frame");
+        }
+        return size;
+    }
+
+    public static void writeStringList(ByteBuf out, List<String> values) {
+        if (writeSize(out, values)) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    public static List<String> readStringList(ByteBuf in) {
+        int size = readSize(in);
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    public static void writeStringMap(ByteBuf out, Map<String, String> values) {
+        if (writeSize(out, values == null ? null : values.keySet())) {
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+    }
+
+    public static Map<String, String> readStringMap(ByteBuf in) {
+        int size = readSize(in);
+        if (size < 0) {
+            return null;
+        }
+        Map<String, String> values = new LinkedHashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            values.put(readString(in), readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * Free-form structures (conditions and the like) are carried as embedded JSON,
+     * so they decode exactly as they would on the JSON path.
+     */
+    public static void writeJson(ByteBuf out, Object value) {
+        writeString(out, value == null ? null : gson.toJson(value));
+    }
+
+    public static <T> T readJson(ByteBuf in, Type type) {
+        String json = readString(in);
+        return json == null ? null : gson.fromJson(json, type);
+    }
+}
@@ -7,10 +7,19 @@ import io.netty.handler.codec.ByteToMessageDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+/**
+ * Turns a frame into either a typed message (binary frames) or a UTF-8 JSON string.
+ * Both formats are accepted regardless of what was negotiated for the channel.
+ */
 public class ByteBufDecoder extends ByteToMessageDecoder {
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
         if (in.readableBytes() > 0) {
+            if (BinaryProtocol.isBinaryFrame(in)) {
+                out.add(BinaryProtocol.decode(in));
+                in.skipBytes(in.readableBytes());
+                return;
+            }
             byte[] bytes = new byte[in.readableBytes()];
             in.readBytes(bytes);
             out.add(new String(bytes, StandardCharsets.UTF_8));
@@ -1,15 +1,32 @@
 package com.wairesd.discordbm.common.network.codec;
 
+import com.google.gson.Gson;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 import java.nio.charset.StandardCharsets;
 
-public class ByteBufEncoder extends MessageToByteEncoder<String> {
+/**
+ * Writes strings as-is and typed messages in the channel's {@link WireFormat}.
+ * Messages without a binary codec always fall back to JSON.
+ */
+public class ByteBufEncoder extends MessageToByteEncoder<Object> {
+    private static final Gson gson = new Gson();
+
     @Override
-    protected void encode(ChannelHandlerContext ctx, String msg, ByteBuf out) {
-        out.writeBytes(msg.getBytes(StandardCharsets.UTF_8));
+    public boolean acceptOutboundMessage(Object msg) {
+        return !(msg instanceof ByteBuf);
     }
-}
 
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) {
+        if (msg instanceof String text) {
+            out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+        } else if (WireFormat.of(ctx.channel()) == WireFormat.BINARY && BinaryProtocol.canEncode(msg)) {
+            BinaryProtocol.encode(msg, out);
+        } else {
+            out.writeCharSequence(gson.toJson(msg), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reassembles streams written by {@link ChunkedFrameSplitter}; other frames
+ * pass through untouched. Chunks are kept as slices in a composite buffer
+ * until the last one arrives, so a large message is never copied into one
+ * array here. Exceeding either {@link FrameLimits} closes the connection.
+ */
+public class ChunkedFrameAggregator extends MessageToMessageDecoder<ByteBuf> {
+    private final FrameLimits limits;
+    private final Map<Integer, CompositeByteBuf> streams = new HashMap<>();
+    private long bufferedBytes;
+
+    public ChunkedFrameAggregator(FrameLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) {
+        if (frame.getUnsignedByte(frame.readerIndex()) != BinaryProtocol.TAG_CHUNK) {
+            out.add(frame.retain());
+            return;
+        }
+        frame.skipBytes(1);
+        int streamId = BinaryProtocol.readVarInt(frame);
+        boolean last = (frame.readByte() & ChunkedFrameSplitter.FLAG_LAST) != 0;
+        int length = frame.readableBytes();
+
+        CompositeByteBuf stream = streams.get(streamId);
+        long messageBytes = (stream != null ? stream.readableBytes() : 0L) + length;
+        if (messageBytes > limits.maxMessageBytes()) {
+            fail(ctx, "Chunked message exceeds " + limits.maxMessageBytes() + " bytes");
+        }
+        if (bufferedBytes + length > limits.maxConnectionBytes()) {
+            fail(ctx, "Connection buffers more than " + limits.maxConnectionBytes() + " bytes of chunked messages");
+        }
+
+        if (stream == null) {
+            stream = ctx.alloc().compositeBuffer(limits.maxMessageBytes() / FrameLimits.CHUNK_BYTES + 1);
+            streams.put(streamId, stream);
+        }
+        stream.addComponent(true, frame.readRetainedSlice(length));
+        bufferedBytes += length;
+
+        if (last) {
+            streams.remove(streamId);
+            bufferedBytes -= stream.readableBytes();
+            out.add(stream);
+        }
+    }
+
+    private void fail(ChannelHandlerContext ctx, String message) {
+        releaseStreams();
+        ctx.close();
+        throw new TooLongFrameException(message);
+    }
+
+    private void releaseStreams() {
+        streams.values().forEach(ByteBuf::release);
+        streams.clear();
+        bufferedBytes = 0;
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseStreams();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        releaseStreams();
+        super.handlerRemoved(ctx);
+    }
+}
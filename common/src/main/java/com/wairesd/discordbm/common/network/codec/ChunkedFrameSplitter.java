@@ -0,0 +1,41 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
+
+/**
+ * Sends messages larger than {@link FrameLimits#CHUNK_BYTES} as a stream of
+ * chunk frames: {@code TAG_CHUNK, varint streamId, flags, data}. The last
+ * chunk of a stream has {@link #FLAG_LAST} set. Chunks are slices of the
+ * encoded message, so nothing is copied.
+ */
+public class ChunkedFrameSplitter extends MessageToMessageEncoder<ByteBuf> {
+    static final int FLAG_LAST = 0x01;
+
+    private int nextStreamId;
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        if (msg.readableBytes() <= FrameLimits.CHUNK_BYTES) {
+            out.add(msg.retain());
+            return;
+        }
+        int streamId = nextStreamId++ & Integer.MAX_VALUE;
+        while (msg.isReadable()) {
+            int length = Math.min(FrameLimits.CHUNK_BYTES, msg.readableBytes());
+            boolean last = length == msg.readableBytes();
+            ByteBuf header = ctx.alloc().buffer(7);
+            header.writeByte(BinaryProtocol.TAG_CHUNK);
+            BinaryProtocol.writeVarInt(header, streamId);
+            header.writeByte(last ? FLAG_LAST : 0);
+            CompositeByteBuf chunk = ctx.alloc().compositeBuffer(2);
+            chunk.addComponent(true, header);
+            chunk.addComponent(true, msg.readRetainedSlice(length));
+            out.add(chunk);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Negotiated per-message compression for the host/client link.
+ *
+ * <p>Compressed messages are raw deflate streams primed with {@link #DICTIONARY},
+ * so even mid-sized JSON messages shrink noticeably. Like binary frames,
+ * compressed ones are recognised by their first byte and always accepted;
+ * the negotiated threshold only decides what this side compresses.</p>
+ */
+public final class FrameCompression {
+    /**
+     * Algorithm id sent in {@code client_register} and {@code auth_ok}. Any change
+     * to the dictionary needs a new id, since both sides must use the same one.
+     */
+    public static final String DEFLATE = "deflate-v1";
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    private static final AttributeKey<Integer> THRESHOLD = AttributeKey.valueOf("discordbm.compressionThreshold");
+
+    /**
+     * Common keys and values of our JSON messages. Deflate finds matches at the
+     * end of the dictionary cheapest, so the most frequent strings come last.
+     */
+    static final byte[] DICTIONARY = (
+            "{\"type\":\"client_register\",\"serverName\":\"\",\"secret\":\"\",\"protocol\":\"binary\"}"
+            + "{\"type\":\"register\",\"pluginName\":\"\",\"commands\":[{\"name\":\"\",\"description\":\"\","
+            + "\"context\":\"both\",\"permission\":\"\",\"conditions\":[],\"options\":[{\"name\":\"\","
+            + "\"type\":\"STRING\",\"description\":\"\",\"required\":false}]}]}"
+            + "{\"type\":\"get_placeholders\",\"player\":\"\",\"placeholders\":[\"%player_name%\"]}"
+            + "{\"type\":\"placeholders_response\",\"values\":{}}{\"type\":\"can_handle_response\",\"canHandle\":true}"
+            + "\"modal\":{\"title\":\"\",\"customId\":\"\",\"fields\":[{\"label\":\"\",\"placeholder\":\"\","
+            + "\"type\":\"\",\"required\":true,\"variable\":\"\"}]}"
+            + "\"buttons\":[{\"label\":\"\",\"customId\":\"\",\"style\":\"PRIMARY\",\"url\":null,\"disabled\":false}]"
+            + "\"flags\":{\"preventMessageSend\":false,\"isFormResponse\":false,\"requiresModal\":false,"
+            + "\"ephemeral\":false,\"responseType\":\"REPLY\"},\"errorPlaceholders\":\"\",\"formName\":\"\","
+            + "\"embed\":{\"title\":\"\",\"description\":\"\",\"color\":0,\"fields\":[{\"name\":\"\",\"value\":\"\","
+            + "\"inline\":false}]},\"channelId\":\"\",\"userId\":\"\",\"guildId\":\"\",\"roleId\":\"\","
+            + "{\"type\":\"request\",\"command\":\"\",\"options\":{},\"requestId\":\"\"}"
+            + "{\"type\":\"response\",\"requestId\":\"\",\"response\":\"\",\"embed\":"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private FrameCompression() {
+    }
+
+    /**
+     * Size in bytes from which outbound messages are compressed, or {@code -1}
+     * if compression was not negotiated for the channel.
+     */
+    public static int threshold(Channel channel) {
+        Integer threshold = channel.attr(THRESHOLD).get();
+        return threshold != null ? threshold : -1;
+    }
+
+    public static void enable(Channel channel, int threshold) {
+        channel.attr(THRESHOLD).set(Math.max(0, threshold));
+    }
+
+    public static boolean isSupported(String algorithm) {
+        return DEFLATE.equalsIgnoreCase(algorithm);
+    }
+}
@@ -0,0 +1,59 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses outbound messages at or above the channel's negotiated threshold:
+ * {@code TAG_COMPRESSED, varint originalLength, raw deflate data}. Messages
+ * that would not get smaller are sent as they are.
+ */
+public class FrameCompressor extends MessageToMessageEncoder<ByteBuf> {
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        int threshold = FrameCompression.threshold(ctx.channel());
+        int length = msg.readableBytes();
+        if (threshold < 0 || length < threshold) {
+            out.add(msg.retain());
+            return;
+        }
+
+        deflater.reset();
+        deflater.setDictionary(FrameCompression.DICTIONARY);
+        deflater.setInput(msg.nioBuffer());
+        deflater.finish();
+
+        ByteBuf compressed = ctx.alloc().heapBuffer(Math.max(64, length / 2));
+        compressed.writeByte(BinaryProtocol.TAG_COMPRESSED);
+        BinaryProtocol.writeVarInt(compressed, length);
+        while (!deflater.finished()) {
+            if (compressed.readableBytes() >= length) {
+                compressed.release();
+                out.add(msg.retain());
+                return;
+            }
+            compressed.ensureWritable(4096);
+            ByteBuffer target = compressed.nioBuffer(compressed.writerIndex(), compressed.writableBytes());
+            compressed.writerIndex(compressed.writerIndex() + deflater.deflate(target));
+        }
+        if (compressed.readableBytes() >= length) {
+            compressed.release();
+            out.add(msg.retain());
+            return;
+        }
+        out.add(compressed);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        deflater.end();
+        super.handlerRemoved(ctx);
+    }
+}
@@ -0,0 +1,71 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Inflates messages written by {@link FrameCompressor}; other messages pass
+ * through. The declared size is checked against the per-message limit before
+ * anything is allocated, so a small frame cannot expand without bound.
+ */
+public class FrameDecompressor extends MessageToMessageDecoder<ByteBuf> {
+    private final FrameLimits limits;
+    private final Inflater inflater = new Inflater(true);
+
+    public FrameDecompressor(FrameLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        if (msg.getUnsignedByte(msg.readerIndex()) != BinaryProtocol.TAG_COMPRESSED) {
+            out.add(msg.retain());
+            return;
+        }
+        msg.skipBytes(1);
+        int length = BinaryProtocol.readVarInt(msg);
+        if (length < 0 || length > limits.maxMessageBytes()) {
+            ctx.close();
+            throw new TooLongFrameException("Compressed message of " + length + " bytes exceeds " + limits.maxMessageBytes());
+        }
+
+        inflater.reset();
+        inflater.setDictionary(FrameCompression.DICTIONARY);
+        inflater.setInput(msg.nioBuffer());
+        // One spare byte lets the inflater reach the end of the stream and
+        // reveals data beyond the declared size.
+        ByteBuf result = ctx.alloc().heapBuffer(length + 1);
+        try {
+            ByteBuffer target = result.nioBuffer(0, length + 1);
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(target);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary() || !target.hasRemaining())) {
+                    break;
+                }
+            }
+            if (!inflater.finished() || target.position() != length) {
+                throw new CorruptedFrameException("Compressed message does not match its declared size");
+            }
+            result.writerIndex(length);
+            out.add(result);
+        } catch (DataFormatException | RuntimeException e) {
+            result.release();
+            ctx.close();
+            throw e instanceof CorruptedFrameException c ? c : new CorruptedFrameException(e);
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        inflater.end();
+        super.handlerRemoved(ctx);
+    }
+}
@@ -0,0 +1,17 @@
+package com.wairesd.discordbm.common.network.codec;
+
+/**
+ * Memory limits for inbound messages on one connection.
+ *
+ * @param maxMessageBytes    largest reassembled message accepted
+ * @param maxConnectionBytes most bytes a connection may hold in partially
+ *                           received chunked messages at once
+ */
+public record FrameLimits(int maxMessageBytes, int maxConnectionBytes) {
+    /** Messages larger than this are sent as a chunked stream. */
+    public static final int CHUNK_BYTES = 32 * 1024;
+    /** Largest single frame on the wire, with room for the chunk header. */
+    public static final int MAX_FRAME_BYTES = 64 * 1024;
+
+    public static final FrameLimits DEFAULT = new FrameLimits(8 * 1024 * 1024, 32 * 1024 * 1024);
+}
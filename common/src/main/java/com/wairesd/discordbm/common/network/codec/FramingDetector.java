@@ -0,0 +1,74 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.util.AttributeKey;
+
+import java.util.List;
+
+/**
+ * Picks the framing of a host connection from its first bytes. Clients
+ * that send a {@link FramingPreamble} get varint framing; older clients
+ * without one keep the two-byte length prefix, without chunked streams,
+ * so proxy and backends can be updated one at a time.
+ */
+public class FramingDetector extends ByteToMessageDecoder {
+    private static final AttributeKey<Boolean> LEGACY = AttributeKey.valueOf("discordbm.legacyFraming");
+    private static final int LEGACY_MAX_FRAME_BYTES = 65535;
+
+    /**
+     * Whether the channel uses the two-byte framing of older clients.
+     */
+    public static boolean isLegacy(Channel channel) {
+        return Boolean.TRUE.equals(channel.attr(LEGACY).get());
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        if (in.getByte(in.readerIndex()) != FramingPreamble.MAGIC[0]) {
+            useLegacyFraming(ctx.pipeline());
+            ctx.channel().attr(LEGACY).set(true);
+            ctx.pipeline().remove(this);
+            return;
+        }
+        int preambleLength = FramingPreamble.MAGIC.length + 1;
+        if (in.readableBytes() < preambleLength) {
+            return;
+        }
+        for (int i = 1; i < FramingPreamble.MAGIC.length; i++) {
+            if (in.getByte(in.readerIndex() + i) != FramingPreamble.MAGIC[i]) {
+                ctx.close();
+                throw new UnsupportedFramingException("Connection does not start with a DiscordBM framing preamble");
+            }
+        }
+        int version = in.getUnsignedByte(in.readerIndex() + FramingPreamble.MAGIC.length);
+        if (version != FramingPreamble.VERSION) {
+            ctx.close();
+            throw new UnsupportedFramingException("Client uses framing version " + version + ", this side supports "
+                    + FramingPreamble.VERSION + "; update DiscordBM on the proxy and backends");
+        }
+        in.skipBytes(preambleLength);
+        ctx.pipeline().remove(this);
+    }
+
+    private static void useLegacyFraming(ChannelPipeline pipeline) {
+        pipeline.replace("frameDecoder", "frameDecoder", new LengthFieldBasedFrameDecoder(LEGACY_MAX_FRAME_BYTES, 0, 2, 0, 2));
+        pipeline.replace("frameEncoder", "frameEncoder", new LengthFieldPrepender(2));
+        pipeline.remove("chunkSplitter");
+    }
+
+    /**
+     * The peer announced a framing this side cannot read.
+     */
+    public static class UnsupportedFramingException extends CorruptedFrameException {
+        public UnsupportedFramingException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Announces varint framing to the host ahead of the first frame a client
+ * writes: {@link #MAGIC} followed by the framing {@link #VERSION}. Hosts
+ * that see no preamble keep the two-byte framing of older clients for that
+ * connection, see {@link FramingDetector}.
+ *
+ * <p>The first byte stands for a two-byte length of at least 65280, which no
+ * older client's {@code client_register} comes near.</p>
+ */
+public class FramingPreamble extends ChannelOutboundHandlerAdapter {
+    static final byte[] MAGIC = {(byte) 0xFF, 'D', 'B', 'M'};
+    static final int VERSION = 1;
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        ByteBuf preamble = ctx.alloc().buffer(MAGIC.length + 1);
+        preamble.writeBytes(MAGIC).writeByte(VERSION);
+        ctx.write(preamble);
+        ctx.pipeline().remove(this);
+        ctx.write(msg, promise);
+    }
+}
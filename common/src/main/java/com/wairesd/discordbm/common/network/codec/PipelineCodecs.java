@@ -0,0 +1,49 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import com.wairesd.discordbm.common.network.transport.OutboundQueueHandler;
+import com.wairesd.discordbm.common.network.transport.OutboundQueueSettings;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+/**
+ * Installs the codec handlers shared by the host and client pipelines.
+ * The application handler is added after these by the caller.
+ *
+ * <p>Flushes are consolidated at the head of the pipeline: a burst of
+ * {@code writeAndFlush} calls, or the replies written while a read is being
+ * processed, reach the socket as one write instead of one per message.
+ * Outbound messages are held back per {@link OutboundQueueSettings} while the
+ * peer is not reading; the channel's write buffer water marks must be set
+ * from the same settings.</p>
+ *
+ * <p>Clients announce varint framing with a {@link FramingPreamble}; the host
+ * falls back to the older two-byte framing for clients that do not.</p>
+ */
+public final class PipelineCodecs {
+    private PipelineCodecs() {
+    }
+
+    public static void installHost(ChannelPipeline pipeline, FrameLimits limits, OutboundQueueSettings outbound) {
+        install(pipeline, limits, outbound);
+        pipeline.addBefore("frameDecoder", "framingDetector", new FramingDetector());
+    }
+
+    public static void installClient(ChannelPipeline pipeline, FrameLimits limits, OutboundQueueSettings outbound) {
+        install(pipeline, limits, outbound);
+        pipeline.addAfter("flushConsolidation", "framingPreamble", new FramingPreamble());
+    }
+
+    private static void install(ChannelPipeline pipeline, FrameLimits limits, OutboundQueueSettings outbound) {
+        pipeline.addLast("flushConsolidation", new FlushConsolidationHandler(
+                FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true));
+        pipeline.addLast("frameDecoder", new VarIntFrameDecoder(FrameLimits.MAX_FRAME_BYTES));
+        pipeline.addLast("chunkAggregator", new ChunkedFrameAggregator(limits));
+        pipeline.addLast("decompressor", new FrameDecompressor(limits));
+        pipeline.addLast("byteBufDecoder", new ByteBufDecoder());
+        pipeline.addLast("frameEncoder", new VarIntFramePrepender());
+        pipeline.addLast("chunkSplitter", new ChunkedFrameSplitter());
+        pipeline.addLast("compressor", new FrameCompressor());
+        pipeline.addLast("byteBufEncoder", new ByteBufEncoder());
+        pipeline.addLast("outboundQueue", new OutboundQueueHandler(outbound));
+    }
+}
@@ -0,0 +1,52 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.util.List;
+
+/**
+ * Splits the stream into frames prefixed with a varint length.
+ */
+public class VarIntFrameDecoder extends ByteToMessageDecoder {
+    private final int maxFrameLength;
+
+    public VarIntFrameDecoder(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        in.markReaderIndex();
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (!in.isReadable()) {
+                in.resetReaderIndex();
+                return;
+            }
+            if (shift >= 35) {
+                ctx.close();
+                throw new CorruptedFrameException("Frame length varint is too long");
+            }
+            byte b = in.readByte();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length < 0 || length > maxFrameLength) {
+            ctx.close();
+            throw new TooLongFrameException("Frame of " + length + " bytes exceeds " + maxFrameLength);
+        }
+        if (in.readableBytes() < length) {
+            in.resetReaderIndex();
+            return;
+        }
+        if (length > 0) {
+            out.add(in.readRetainedSlice(length));
+        }
+    }
+}
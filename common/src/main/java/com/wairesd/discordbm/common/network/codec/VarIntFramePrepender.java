@@ -0,0 +1,20 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
+
+/**
+ * Prefixes each outbound frame with its varint length.
+ */
+public class VarIntFramePrepender extends MessageToMessageEncoder<ByteBuf> {
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        ByteBuf header = ctx.alloc().buffer(5);
+        BinaryProtocol.writeVarInt(header, msg.readableBytes());
+        out.add(header);
+        out.add(msg.retain());
+    }
+}
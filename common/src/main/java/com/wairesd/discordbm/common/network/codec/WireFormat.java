@@ -0,0 +1,43 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.Locale;
+
+/**
+ * Encoding used for outbound frames on a host/client channel.
+ * Inbound frames are always auto-detected, so switching the format only
+ * affects what this side writes.
+ */
+public enum WireFormat {
+    JSON,
+    BINARY;
+
+    private static final AttributeKey<WireFormat> KEY = AttributeKey.valueOf("discordbm.wireFormat");
+
+    public String id() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static WireFormat of(Channel channel) {
+        WireFormat format = channel.attr(KEY).get();
+        return format != null ? format : JSON;
+    }
+
+    public static void set(Channel channel, WireFormat format) {
+        channel.attr(KEY).set(format);
+    }
+
+    public static WireFormat fromId(String id) {
+        if (id == null) {
+            return JSON;
+        }
+        for (WireFormat format : values()) {
+            if (format.id().equalsIgnoreCase(id.trim())) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,210 @@
+package com.wairesd.discordbm.common.network.correlation;
+
+import io.netty.channel.Channel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matches replies to the requests that asked for them.
+ *
+ * <p>Each request gets a short sequence id to put in its {@code requestId}
+ * field and a future that is completed by {@link #complete} when the reply
+ * arrives. Requests that get no reply fail with a {@link TimeoutException}
+ * once their deadline passes on a hashed timing wheel, and requests sent to
+ * a channel fail with a {@link ClosedChannelException} when it closes, so
+ * an unresponsive peer never leaks futures.</p>
+ */
+public class PendingRequests {
+    private static final long TICK_MILLIS = 100;
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private final HashedWheelTimer timer;
+    private final String idPrefix;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Pending<?>> pending = new ConcurrentHashMap<>();
+    private final Map<Channel, Stats> channelStats = new ConcurrentHashMap<>();
+    private final Stats totals = new Stats();
+
+    /**
+     * @param idPrefix prepended to every id, so ids issued by the host and
+     *                 by a backend can never be confused in logs
+     */
+    public PendingRequests(String idPrefix) {
+        this.idPrefix = idPrefix;
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("DiscordBM-Timeouts", true),
+                TICK_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Starts tracking a request.
+     *
+     * @param channel       channel the request is sent on; the request fails
+     *                      when it closes. May be {@code null} for requests
+     *                      that outlive a connection.
+     * @param replyType     type the reply is completed with
+     * @param timeoutMillis how long to wait for the reply
+     */
+    public <T> Request<T> register(Channel channel, Class<T> replyType, long timeoutMillis) {
+        String id = idPrefix + Long.toString(sequence.incrementAndGet(), 36);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Pending<T> entry = new Pending<>(replyType, future, channel);
+        pending.put(id, entry);
+        totals.inFlight.incrementAndGet();
+        if (channel != null) {
+            track(channel).inFlight.incrementAndGet();
+        }
+        entry.timeout = timer.newTimeout(t -> expire(id, timeoutMillis), timeoutMillis, TimeUnit.MILLISECONDS);
+        return new Request<>(id, future);
+    }
+
+    private Stats track(Channel channel) {
+        Stats stats = channelStats.get(channel);
+        if (stats != null) {
+            return stats;
+        }
+        Stats created = new Stats();
+        stats = channelStats.putIfAbsent(channel, created);
+        if (stats != null) {
+            return stats;
+        }
+        // Runs right away if the channel is already closed.
+        channel.closeFuture().addListener(f -> cancelAll(channel));
+        return created;
+    }
+
+    /**
+     * Completes a request with its reply.
+     *
+     * @return {@code false} if the id is unknown, already completed, timed
+     *         out, or expects a different reply type
+     */
+    public boolean complete(String id, Object reply) {
+        Pending<?> entry = id != null ? pending.get(id) : null;
+        if (entry == null || !entry.replyType.isInstance(reply) || !pending.remove(id, entry)) {
+            return false;
+        }
+        finish(entry);
+        return entry.completeWith(reply);
+    }
+
+    public boolean fail(String id, Throwable cause) {
+        Pending<?> entry = id != null ? pending.remove(id) : null;
+        if (entry == null) {
+            return false;
+        }
+        finish(entry);
+        return entry.future.completeExceptionally(cause);
+    }
+
+    /**
+     * Fails every request still waiting on a channel and forgets its stats.
+     */
+    public int cancelAll(Channel channel) {
+        int cancelled = 0;
+        ClosedChannelException cause = new ClosedChannelException();
+        for (Map.Entry<String, Pending<?>> e : pending.entrySet()) {
+            Pending<?> entry = e.getValue();
+            if (entry.channel == channel && pending.remove(e.getKey(), entry)) {
+                finish(entry);
+                entry.future.completeExceptionally(cause);
+                cancelled++;
+            }
+        }
+        channelStats.remove(channel);
+        return cancelled;
+    }
+
+    public int getInFlight() {
+        return totals.inFlight.get();
+    }
+
+    public long getTimeouts() {
+        return totals.timeouts.get();
+    }
+
+    public int getInFlight(Channel channel) {
+        Stats stats = channelStats.get(channel);
+        return stats != null ? stats.inFlight.get() : 0;
+    }
+
+    public long getTimeouts(Channel channel) {
+        Stats stats = channelStats.get(channel);
+        return stats != null ? stats.timeouts.get() : 0L;
+    }
+
+    /**
+     * Stops the timer and fails everything still pending.
+     */
+    public void shutdown() {
+        timer.stop();
+        ClosedChannelException cause = new ClosedChannelException();
+        for (String id : pending.keySet()) {
+            fail(id, cause);
+        }
+        channelStats.clear();
+    }
+
+    private void expire(String id, long timeoutMillis) {
+        Pending<?> entry = pending.remove(id);
+        if (entry == null) {
+            return;
+        }
+        finish(entry);
+        totals.timeouts.incrementAndGet();
+        Stats stats = entry.channel != null ? channelStats.get(entry.channel) : null;
+        if (stats != null) {
+            stats.timeouts.incrementAndGet();
+        }
+        entry.future.completeExceptionally(new TimeoutException("No reply to " + id + " within " + timeoutMillis + "ms"));
+    }
+
+    private void finish(Pending<?> entry) {
+        Timeout timeout = entry.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        totals.inFlight.decrementAndGet();
+        Stats stats = entry.channel != null ? channelStats.get(entry.channel) : null;
+        if (stats != null) {
+            stats.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * A tracked request: the id to send and the future of its reply.
+     */
+    public record Request<T>(String id, CompletableFuture<T> future) {
+    }
+
+    private static final class Pending<T> {
+        private final Class<T> replyType;
+        private final CompletableFuture<T> future;
+        private final Channel channel;
+        private volatile Timeout timeout;
+
+        Pending(Class<T> replyType, CompletableFuture<T> future, Channel channel) {
+            this.replyType = replyType;
+            this.future = future;
+            this.channel = channel;
+        }
+
+        boolean completeWith(Object reply) {
+            return future.complete(replyType.cast(reply));
+        }
+    }
+
+    private static final class Stats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong timeouts = new AtomicLong();
+    }
+}
@@ -0,0 +1,214 @@
+package com.wairesd.discordbm.common.network.dispatch;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Routing table for inbound messages, keyed by message type.
+ *
+ * <p>JSON frames are parsed once into a tree, the {@code type} field picks the
+ * route and the tree is converted straight into the route's model. Binary
+ * frames already arrive as typed models and are routed by their class.
+ * Routes registered with {@link JsonObject} as model get the raw tree.</p>
+ *
+ * <p>The table is shared by all channels; addons may add their own types at
+ * any time with {@link #register}.</p>
+ */
+public class MessageDispatcher {
+    private static final Gson gson = new Gson();
+
+    private final Map<String, Route<?>> routes = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> typesByModel = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Function<Object, String>> typeResolvers = new ConcurrentHashMap<>();
+
+    public <T> MessageDispatcher register(String type, Class<T> model, MessageRoute<T> route) {
+        return register(type, model, (Type) model, route);
+    }
+
+    public <T> MessageDispatcher register(String type, TypeToken<T> model, MessageRoute<T> route) {
+        return register(type, model.getRawType(), model.getType(), route);
+    }
+
+    private <T> MessageDispatcher register(String type, Class<?> rawModel, Type jsonModel, MessageRoute<T> route) {
+        routes.put(type, new Route<>(rawModel, jsonModel, route));
+        if (rawModel != JsonObject.class) {
+            typesByModel.putIfAbsent(rawModel, type);
+        }
+        return this;
+    }
+
+    /**
+     * For models shared by several message types (for example {@code ResponseMessage}),
+     * tells the dispatcher how to read the type from a decoded instance.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> MessageDispatcher registerTypeResolver(Class<T> model, Function<T, String> resolver) {
+        typeResolvers.put(model, (Function<Object, String>) resolver);
+        return this;
+    }
+
+    public void unregister(String type) {
+        Route<?> removed = routes.remove(type);
+        if (removed != null) {
+            typesByModel.remove(removed.model(), type);
+        }
+    }
+
+    public boolean isRegistered(String type) {
+        return routes.containsKey(type);
+    }
+
+    /**
+     * Decodes a frame produced by {@code ByteBufDecoder} without running any route.
+     * The result carries the message type even when no route is registered for it.
+     */
+    public InboundMessage decode(Object frame) {
+        if (frame instanceof String text) {
+            JsonElement tree = JsonParser.parseString(text);
+            if (!tree.isJsonObject()) {
+                return new InboundMessage(null, text, null);
+            }
+            JsonObject json = tree.getAsJsonObject();
+            String type = json.has("type") && !json.get("type").isJsonNull() ? json.get("type").getAsString() : null;
+            Route<?> route = type != null ? routes.get(type) : null;
+            if (route == null) {
+                return new InboundMessage(type, json, null);
+            }
+            Object message = route.model() == JsonObject.class ? json : gson.fromJson(json, route.jsonModel());
+            return new InboundMessage(type, message, route);
+        }
+
+        String type = typeOf(frame);
+        return new InboundMessage(type, frame, type != null ? routes.get(type) : null);
+    }
+
+    /**
+     * Reads the message type without decoding the frame, for decisions that
+     * must be made on the event loop. For JSON text this is the top-level
+     * {@code "type"} key.
+     */
+    public String peekType(Object frame) {
+        return frame instanceof String text ? peekJsonType(text) : typeOf(frame);
+    }
+
+    /**
+     * The value of the top-level {@code "type"} key in JSON text, or
+     * {@code null}. Keys of nested objects such as embeds, buttons or modal
+     * fields are skipped, as are strings that merely contain {@code "type"}.
+     */
+    public static String peekJsonType(String text) {
+        int depth = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c == '"') {
+                int end = endOfString(text, i);
+                if (end < 0) {
+                    return null;
+                }
+                if (depth == 1 && end == i + 5 && text.startsWith("type", i + 1)) {
+                    int value = skipWhitespace(text, end + 1);
+                    if (value < text.length() && text.charAt(value) == ':') {
+                        value = skipWhitespace(text, value + 1);
+                        if (value >= text.length() || text.charAt(value) != '"') {
+                            return null;
+                        }
+                        int valueEnd = endOfString(text, value);
+                        return valueEnd > value ? text.substring(value + 1, valueEnd) : null;
+                    }
+                }
+                i = end;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Index of the quote closing the string that starts at {@code start}, or
+     * {@code -1} if it is not closed.
+     */
+    private static int endOfString(String text, int start) {
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String text, int i) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    public boolean dispatch(ChannelHandlerContext ctx, Object frame) throws Exception {
+        return decode(frame).dispatch(ctx);
+    }
+
+    private String typeOf(Object message) {
+        Function<Object, String> resolver = typeResolvers.get(message.getClass());
+        return resolver != null ? resolver.apply(message) : typesByModel.get(message.getClass());
+    }
+
+    private record Route<T>(Class<?> model, Type jsonModel, MessageRoute<T> handler) {
+        @SuppressWarnings("unchecked")
+        void handle(ChannelHandlerContext ctx, Object message) throws Exception {
+            handler.handle(ctx, (T) message);
+        }
+    }
+
+    /**
+     * A decoded frame together with the route it resolved to.
+     */
+    public static final class InboundMessage {
+        private final String type;
+        private final Object message;
+        private final Route<?> route;
+
+        private InboundMessage(String type, Object message, Route<?> route) {
+            this.type = type;
+            this.message = message;
+            this.route = route;
+        }
+
+        public String type() {
+            return type;
+        }
+
+        public Object message() {
+            return message;
+        }
+
+        public boolean isRouted() {
+            return route != null;
+        }
+
+        /**
+         * Runs the route; returns {@code false} if the type has no route.
+         */
+        public boolean dispatch(ChannelHandlerContext ctx) throws Exception {
+            if (route == null) {
+                return false;
+            }
+            route.handle(ctx, message);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.wairesd.discordbm.common.network.dispatch;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * Handles one decoded message type received from the other side of the link.
+ */
+@FunctionalInterface
+public interface MessageRoute<T> {
+    void handle(ChannelHandlerContext ctx, T message) throws Exception;
+}
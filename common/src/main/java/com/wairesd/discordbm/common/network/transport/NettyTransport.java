@@ -0,0 +1,192 @@
+package com.wairesd.discordbm.common.network.transport;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.IoHandlerFactory;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import io.netty.channel.uring.IoUringSocketChannel;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Netty I/O transports the host and client can run on.
+ *
+ * <p>Native transports are only touched after {@link #isAvailable()} says the
+ * classes and the native library are present, so NIO keeps working on
+ * platforms that ship Netty without them.</p>
+ *
+ * <p>Event loops use Netty 4.2's {@code IoHandler} API when it is on the
+ * classpath and the 4.1 event loop groups otherwise, as Spigot and Paper
+ * backends still ship Netty 4.1. io_uring needs 4.2.</p>
+ */
+public enum NettyTransport {
+    NIO,
+    EPOLL,
+    IO_URING;
+
+    private static final boolean IO_HANDLER_API = isClassPresent("io.netty.channel.MultiThreadIoEventLoopGroup");
+
+    public String id() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * Returns the transport named by a setting value, or {@code null} for
+     * {@code auto} and unknown values.
+     */
+    public static NettyTransport fromId(String id) {
+        if (id != null) {
+            for (NettyTransport transport : values()) {
+                if (transport.id().equalsIgnoreCase(id.trim())) {
+                    return transport;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks the transport for a setting value: the forced one when it is
+     * available, otherwise the best available one (io_uring, epoll, NIO).
+     */
+    public static NettyTransport select(String preference) {
+        NettyTransport forced = fromId(preference);
+        if (forced != null) {
+            return forced.isAvailable() ? forced : NIO;
+        }
+        if (IO_URING.isAvailable()) {
+            return IO_URING;
+        }
+        return EPOLL.isAvailable() ? EPOLL : NIO;
+    }
+
+    public boolean isAvailable() {
+        try {
+            return switch (this) {
+                case NIO -> true;
+                case EPOLL -> Epoll.isAvailable();
+                case IO_URING -> IO_HANDLER_API && IoUring.isAvailable();
+            };
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    public String unavailabilityReason() {
+        try {
+            if (this == IO_URING && !IO_HANDLER_API) {
+                return "needs Netty 4.2";
+            }
+            Throwable cause = switch (this) {
+                case NIO -> null;
+                case EPOLL -> Epoll.unavailabilityCause();
+                case IO_URING -> IoUring.unavailabilityCause();
+            };
+            return cause != null ? cause.getMessage() : null;
+        } catch (Throwable t) {
+            return "native classes not found (" + t.getClass().getSimpleName() + ")";
+        }
+    }
+
+    /**
+     * @param threads number of event loops, or 0 for Netty's default
+     */
+    public EventLoopGroup newEventLoopGroup(int threads) {
+        return newEventLoopGroup(threads, null);
+    }
+
+    /**
+     * @param threadFactory {@code null} for Netty's default threads
+     */
+    public EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+        if (IO_HANDLER_API) {
+            return IoHandlerGroups.create(this, threads, threadFactory);
+        }
+        return switch (this) {
+            case NIO -> threadFactory != null ? new NioEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads);
+            case EPOLL -> threadFactory != null ? new EpollEventLoopGroup(threads, threadFactory) : new EpollEventLoopGroup(threads);
+            case IO_URING -> throw new UnsupportedOperationException("The io_uring transport needs Netty 4.2");
+        };
+    }
+
+    public Class<? extends ServerSocketChannel> serverSocketChannel() {
+        return switch (this) {
+            case NIO -> NioServerSocketChannel.class;
+            case EPOLL -> EpollServerSocketChannel.class;
+            case IO_URING -> IoUringServerSocketChannel.class;
+        };
+    }
+
+    public Class<? extends SocketChannel> socketChannel() {
+        return switch (this) {
+            case NIO -> NioSocketChannel.class;
+            case EPOLL -> EpollSocketChannel.class;
+            case IO_URING -> IoUringSocketChannel.class;
+        };
+    }
+
+    /**
+     * Whether this transport can carry Unix domain sockets. Only epoll does.
+     */
+    public boolean supportsDomainSockets() {
+        return this == EPOLL;
+    }
+
+    public Class<? extends ServerChannel> serverDomainSocketChannel() {
+        if (!supportsDomainSockets()) {
+            throw new UnsupportedOperationException("Unix domain sockets need the epoll transport, not " + id());
+        }
+        return EpollServerDomainSocketChannel.class;
+    }
+
+    public Class<? extends Channel> domainSocketChannel() {
+        if (!supportsDomainSockets()) {
+            throw new UnsupportedOperationException("Unix domain sockets need the epoll transport, not " + id());
+        }
+        return EpollDomainSocketChannel.class;
+    }
+
+    private static boolean isClassPresent(String name) {
+        try {
+            Class.forName(name, false, NettyTransport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Netty 4.2 event loops. Kept in their own class so that 4.1 runtimes
+     * never load it.
+     */
+    private static final class IoHandlerGroups {
+        static EventLoopGroup create(NettyTransport transport, int threads, ThreadFactory threadFactory) {
+            IoHandlerFactory factory = switch (transport) {
+                case NIO -> NioIoHandler.newFactory();
+                case EPOLL -> EpollIoHandler.newFactory();
+                case IO_URING -> IoUringIoHandler.newFactory();
+            };
+            return threadFactory != null
+                    ? new MultiThreadIoEventLoopGroup(threads, threadFactory, factory)
+                    : new MultiThreadIoEventLoopGroup(threads, factory);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.wairesd.discordbm.common.network.transport;
+
+import io.netty.channel.Channel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects messages for one or more channels and sends them with a single
+ * flush per channel.
+ *
+ * <p>Each channel gets one event loop task that writes all of its messages
+ * in the order they were added and then flushes once, instead of one task
+ * and one {@code write} syscall per message.</p>
+ */
+public final class OutboundBatch {
+    private final Map<Channel, List<Object>> messages = new LinkedHashMap<>();
+    private int size;
+
+    public OutboundBatch add(Channel channel, Object message) {
+        if (channel != null && message != null) {
+            messages.computeIfAbsent(channel, ch -> new ArrayList<>()).add(message);
+            size++;
+        }
+        return this;
+    }
+
+    public OutboundBatch addAll(Channel channel, Collection<?> batch) {
+        for (Object message : batch) {
+            add(channel, message);
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Writes and flushes everything added so far, skipping inactive channels,
+     * and empties the batch.
+     *
+     * @return number of messages handed to active channels
+     */
+    public int send() {
+        int sent = 0;
+        for (Map.Entry<Channel, List<Object>> entry : messages.entrySet()) {
+            Channel channel = entry.getKey();
+            if (!channel.isActive()) {
+                continue;
+            }
+            List<Object> pending = entry.getValue();
+            if (channel.eventLoop().inEventLoop()) {
+                writeAll(channel, pending);
+            } else {
+                channel.eventLoop().execute(() -> writeAll(channel, pending));
+            }
+            sent += pending.size();
+        }
+        messages.clear();
+        size = 0;
+        return sent;
+    }
+
+    private static void writeAll(Channel channel, List<Object> pending) {
+        for (Object message : pending) {
+            channel.write(message, channel.voidPromise());
+        }
+        channel.flush();
+    }
+}
@@ -0,0 +1,47 @@
+package com.wairesd.discordbm.common.network.transport;
+
+import java.util.Locale;
+
+/**
+ * What happens to an outbound message while the peer is not reading fast
+ * enough for the channel to stay writable.
+ */
+public enum OutboundPolicy {
+    /** Wait in the channel's outbound queue; rejected once the queue is full. */
+    QUEUE,
+    /** Wait in the queue; when it is full the oldest such message is dropped instead. */
+    DROP_OLDEST,
+    /** Rejected straight away, so the caller can answer or retry elsewhere. */
+    FAIL_FAST;
+
+    public String id() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public static OutboundPolicy fromId(String id) {
+        if (id != null) {
+            for (OutboundPolicy policy : values()) {
+                if (policy.id().equalsIgnoreCase(id.trim())) {
+                    return policy;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Built-in policy for a message type. Webhooks are fire-and-forget and
+     * only the latest ones matter; interaction requests are useless once the
+     * Discord reply window has passed, so they fail instead of waiting.
+     */
+    public static OutboundPolicy defaultFor(String type) {
+        if (type == null) {
+            return QUEUE;
+        }
+        return switch (type) {
+            case "send_webhook" -> DROP_OLDEST;
+            case "request" -> FAIL_FAST;
+            default -> QUEUE;
+        };
+    }
+}
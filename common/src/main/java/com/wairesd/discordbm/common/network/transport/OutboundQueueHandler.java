@@ -0,0 +1,254 @@
+package com.wairesd.discordbm.common.network.transport;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.wairesd.discordbm.common.models.request.RequestMessage;
+import com.wairesd.discordbm.common.models.response.ResponseMessage;
+import com.wairesd.discordbm.common.network.dispatch.MessageDispatcher;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds outbound messages back while the channel is above its write buffer
+ * high water mark, so a stalled peer cannot make the sender buffer without
+ * limit.
+ *
+ * <p>While the channel is writable and nothing is held back, messages pass
+ * straight through. Otherwise each message's {@link OutboundPolicy} decides
+ * whether it waits in a bounded queue, replaces the oldest droppable message,
+ * or fails its write promise with an {@link OutboundRejectedException}. The
+ * queue is written out in order once the channel becomes writable again.</p>
+ *
+ * <p>The peer can also ask this side to slow down: while {@link #pause paused},
+ * messages other than the exempt types are held back the same way and
+ * written once the pause ends.</p>
+ *
+ * <p>Sits between the codecs and the application handler, so it sees message
+ * objects rather than encoded bytes.</p>
+ */
+public class OutboundQueueHandler extends ChannelDuplexHandler {
+    private final OutboundQueueSettings settings;
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private Channel channel;
+    private ChannelHandlerContext context;
+    private long pausedUntil;
+    private Set<String> pauseExempt = Set.of();
+    private volatile int queuedMessages;
+    private volatile long droppedMessages;
+    private volatile long rejectedMessages;
+
+    public OutboundQueueHandler(OutboundQueueSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * The handler installed on a channel, or {@code null} if it has none.
+     */
+    public static OutboundQueueHandler of(Channel channel) {
+        return channel.pipeline().get(OutboundQueueHandler.class);
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        channel = ctx.channel();
+        context = ctx;
+    }
+
+    /**
+     * Holds back messages except those of the {@code exempt} types for the
+     * given time, e.g. because the peer reported it is overloaded. A longer
+     * pause extends the current one; a shorter one is ignored.
+     */
+    public void pause(long millis, Set<String> exempt) {
+        ChannelHandlerContext ctx = context;
+        if (ctx == null || millis <= 0) {
+            return;
+        }
+        if (!ctx.executor().inEventLoop()) {
+            ctx.executor().execute(() -> pause(millis, exempt));
+            return;
+        }
+        long until = System.currentTimeMillis() + millis;
+        if (until <= pausedUntil) {
+            return;
+        }
+        pausedUntil = until;
+        pauseExempt = exempt;
+        ctx.executor().schedule(() -> resume(ctx), millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (queue.isEmpty() && pausedUntil == 0 && ctx.channel().isWritable()) {
+            ctx.write(msg, promise);
+            return;
+        }
+        String type = typeOf(msg);
+        boolean paused = isPaused();
+        if (paused && type != null && pauseExempt.contains(type) && ctx.channel().isWritable()) {
+            ctx.write(msg, promise);
+            return;
+        }
+        if (!paused && queue.isEmpty() && ctx.channel().isWritable()) {
+            ctx.write(msg, promise);
+            return;
+        }
+        OutboundPolicy policy = settings.policyFor(type);
+        if (policy == OutboundPolicy.FAIL_FAST) {
+            reject(msg, promise, new OutboundRejectedException(type, policy,
+                    paused ? "peer asked to slow down" : "peer is not keeping up"));
+            return;
+        }
+        if (queue.size() >= settings.maxQueuedMessages()
+                && (policy != OutboundPolicy.DROP_OLDEST || !dropOldest())) {
+            reject(msg, promise, new OutboundRejectedException(type, policy, "outbound queue is full"));
+            return;
+        }
+        queue.add(new Pending(msg, promise, type, policy));
+        queuedMessages = queue.size();
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        drain(ctx);
+        ctx.flush();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (ctx.channel().isWritable() && !queue.isEmpty()) {
+            drain(ctx);
+            ctx.flush();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        failAll();
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        failAll();
+    }
+
+    public int getQueuedMessages() {
+        return queuedMessages;
+    }
+
+    public long getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    public long getRejectedMessages() {
+        return rejectedMessages;
+    }
+
+    /**
+     * Bytes written to the channel but not yet accepted by the socket.
+     * Messages still held in the queue are not encoded and not counted.
+     */
+    public long getPendingBytes() {
+        Channel ch = channel;
+        ChannelOutboundBuffer buffer = ch != null ? ch.unsafe().outboundBuffer() : null;
+        return buffer != null ? buffer.totalPendingWriteBytes() : 0L;
+    }
+
+    private boolean isPaused() {
+        return pausedUntil != 0 && System.currentTimeMillis() < pausedUntil;
+    }
+
+    private void resume(ChannelHandlerContext ctx) {
+        if (pausedUntil == 0 || isPaused()) {
+            return;
+        }
+        pausedUntil = 0;
+        pauseExempt = Set.of();
+        if (!queue.isEmpty()) {
+            drain(ctx);
+            ctx.flush();
+        }
+    }
+
+    private void drain(ChannelHandlerContext ctx) {
+        while (!queue.isEmpty() && ctx.channel().isWritable() && !isPaused()) {
+            Pending pending = queue.poll();
+            ctx.write(pending.message(), pending.promise());
+        }
+        queuedMessages = queue.size();
+    }
+
+    private boolean dropOldest() {
+        for (Iterator<Pending> it = queue.iterator(); it.hasNext(); ) {
+            Pending pending = it.next();
+            if (pending.policy() == OutboundPolicy.DROP_OLDEST) {
+                it.remove();
+                droppedMessages++;
+                fail(pending.message(), pending.promise(),
+                        new OutboundRejectedException(pending.type(), pending.policy(), "dropped for a newer message"));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(Object msg, ChannelPromise promise, OutboundRejectedException cause) {
+        rejectedMessages++;
+        fail(msg, promise, cause);
+    }
+
+    private void failAll() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        ClosedChannelException cause = new ClosedChannelException();
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            fail(pending.message(), pending.promise(), cause);
+        }
+        queuedMessages = 0;
+    }
+
+    private static void fail(Object msg, ChannelPromise promise, Throwable cause) {
+        ReferenceCountUtil.release(msg);
+        if (!promise.isVoid()) {
+            promise.tryFailure(cause);
+        }
+    }
+
+    /**
+     * The type of an outbound message object, or {@code null} if it has none.
+     */
+    public static String typeOf(Object msg) {
+        if (msg instanceof String text) {
+            return MessageDispatcher.peekJsonType(text);
+        }
+        if (msg instanceof JsonObject json) {
+            JsonElement type = json.get("type");
+            return type != null && type.isJsonPrimitive() ? type.getAsString() : null;
+        }
+        if (msg instanceof RequestMessage request) {
+            return request.type();
+        }
+        if (msg instanceof ResponseMessage response) {
+            return response.type();
+        }
+        return null;
+    }
+
+    private record Pending(Object message, ChannelPromise promise, String type, OutboundPolicy policy) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.wairesd.discordbm.common.network.transport;
+
+import io.netty.channel.WriteBufferWaterMark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Backpressure settings for outbound messages on one connection.
+ *
+ * @param lowWaterMarkBytes  pending bytes below which a backed-up channel is
+ *                           writable again
+ * @param highWaterMarkBytes pending bytes above which the channel stops being
+ *                           writable and messages are held back
+ * @param maxQueuedMessages  messages held back per channel before the
+ *                           {@link OutboundPolicy} of new ones applies
+ * @param policies           policy overrides by message type
+ */
+public record OutboundQueueSettings(int lowWaterMarkBytes, int highWaterMarkBytes, int maxQueuedMessages,
+                                    Map<String, OutboundPolicy> policies) {
+    public static final OutboundQueueSettings DEFAULT = new OutboundQueueSettings(32 * 1024, 64 * 1024, 1024, Map.of());
+
+    public OutboundQueueSettings {
+        lowWaterMarkBytes = Math.max(1, lowWaterMarkBytes);
+        highWaterMarkBytes = Math.max(lowWaterMarkBytes, highWaterMarkBytes);
+        maxQueuedMessages = Math.max(1, maxQueuedMessages);
+        policies = Map.copyOf(policies);
+    }
+
+    /**
+     * Builds settings from config values, ignoring unknown policy ids.
+     */
+    public static OutboundQueueSettings of(int lowWaterMarkKb, int highWaterMarkKb, int maxQueuedMessages,
+                                           Map<String, String> policyIds) {
+        Map<String, OutboundPolicy> policies = new HashMap<>();
+        policyIds.forEach((type, id) -> {
+            OutboundPolicy policy = OutboundPolicy.fromId(id);
+            if (type != null && policy != null) {
+                policies.put(type, policy);
+            }
+        });
+        return new OutboundQueueSettings(lowWaterMarkKb * 1024, highWaterMarkKb * 1024, maxQueuedMessages, policies);
+    }
+
+    public WriteBufferWaterMark waterMark() {
+        return new WriteBufferWaterMark(lowWaterMarkBytes, highWaterMarkBytes);
+    }
+
+    public OutboundPolicy policyFor(String type) {
+        OutboundPolicy policy = type != null ? policies.get(type) : null;
+        return policy != null ? policy : OutboundPolicy.defaultFor(type);
+    }
+}
@@ -0,0 +1,25 @@
+package com.wairesd.discordbm.common.network.transport;
+
+/**
+ * Fails the write of a message that was not sent because the peer is backed
+ * up, either straight away ({@link OutboundPolicy#FAIL_FAST}) or after the
+ * outbound queue overflowed.
+ */
+public class OutboundRejectedException extends RuntimeException {
+    private final String messageType;
+    private final OutboundPolicy policy;
+
+    public OutboundRejectedException(String messageType, OutboundPolicy policy, String reason) {
+        super("Outbound " + (messageType != null ? messageType : "message") + " rejected: " + reason, null, false, false);
+        this.messageType = messageType;
+        this.policy = policy;
+    }
+
+    public String getMessageType() {
+        return messageType;
+    }
+
+    public OutboundPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,126 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import com.wairesd.discordbm.common.models.request.RequestMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryProtocolTest {
+
+    @Test
+    void varIntRoundTripsAtByteBoundaries() {
+        int[] values = {0, 1, 127, 128, 16383, 16384, 2097151, 2097152, Integer.MAX_VALUE, -1};
+        int[] lengths = {1, 1, 1, 2, 2, 3, 3, 4, 5, 5};
+        for (int i = 0; i < values.length; i++) {
+            ByteBuf buf = Unpooled.buffer();
+            BinaryProtocol.writeVarInt(buf, values[i]);
+            assertEquals(lengths[i], buf.readableBytes(), "encoded length of " + values[i]);
+            assertEquals(values[i], BinaryProtocol.readVarInt(buf));
+            assertFalse(buf.isReadable());
+            buf.release();
+        }
+    }
+
+    @Test
+    void varIntLongerThanFiveBytesIsRejected() {
+        ByteBuf buf = Unpooled.wrappedBuffer(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01});
+        assertThrows(DecoderException.class, () -> BinaryProtocol.readVarInt(buf));
+        buf.release();
+    }
+
+    @Test
+    void stringsKeepNullEmptyAndUnicodeApart() {
+        ByteBuf buf = Unpooled.buffer();
+        BinaryProtocol.writeString(buf, null);
+        BinaryProtocol.writeString(buf, "");
+        BinaryProtocol.writeString(buf, "héllo ✓");
+        assertNull(BinaryProtocol.readString(buf));
+        assertEquals("", BinaryProtocol.readString(buf));
+        assertEquals("héllo ✓", BinaryProtocol.readString(buf));
+        assertFalse(buf.isReadable());
+        buf.release();
+    }
+
+    @Test
+    void stringLongerThanFrameIsRejected() {
+        ByteBuf buf = Unpooled.buffer();
+        BinaryProtocol.writeVarInt(buf, 100);
+        buf.writeBytes(new byte[]{'a', 'b'});
+        assertThrows(DecoderException.class, () -> BinaryProtocol.readString(buf));
+        buf.release();
+    }
+
+    @Test
+    void collectionsKeepNullAndOrder() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("b", "2");
+        map.put("a", null);
+        ByteBuf buf = Unpooled.buffer();
+        BinaryProtocol.writeStringList(buf, null);
+        BinaryProtocol.writeStringList(buf, List.of("x", "y"));
+        BinaryProtocol.writeStringMap(buf, map);
+        assertNull(BinaryProtocol.readStringList(buf));
+        assertEquals(List.of("x", "y"), BinaryProtocol.readStringList(buf));
+        Map<String, String> decoded = BinaryProtocol.readStringMap(buf);
+        assertEquals(map, decoded);
+        assertEquals(List.of("b", "a"), List.copyOf(decoded.keySet()));
+        buf.release();
+    }
+
+    @Test
+    void requestMessageRoundTrips() {
+        RequestMessage request = new RequestMessage("request", "ping", Map.of("target", "lobby"), "0f8fad5b-d9cb-469f-a165-70867728950e");
+        assertTrue(BinaryProtocol.canEncode(request));
+        ByteBuf buf = Unpooled.buffer();
+        BinaryProtocol.encode(request, buf);
+        assertTrue(BinaryProtocol.isBinaryFrame(buf));
+        assertEquals(request, BinaryProtocol.decode(buf));
+        assertFalse(buf.isReadable());
+        buf.release();
+    }
+
+    @Test
+    void jsonFramesAreNotTakenForBinary() {
+        for (String json : new String[]{"{\"type\":\"x\"}", "\t{}", "\n{}", "\r\n{}", " {}", "[]", "ERROR: nope"}) {
+            ByteBuf buf = Unpooled.copiedBuffer(json.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            assertFalse(BinaryProtocol.isBinaryFrame(buf), json);
+            buf.release();
+        }
+        assertFalse(BinaryProtocol.isBinaryFrame(Unpooled.EMPTY_BUFFER));
+    }
+
+    @Test
+    void reservedAndWhitespaceTagsCannotBeRegistered() {
+        BinaryMessageCodec<Object> codec = new BinaryMessageCodec<>() {
+            @Override
+            public void encode(Object msg, ByteBuf out) {
+            }
+
+            @Override
+            public Object decode(ByteBuf in) {
+                return null;
+            }
+        };
+        for (int tag : new int[]{0, '\t', '\n', '\r', BinaryProtocol.TAG_COMPRESSED, BinaryProtocol.TAG_CHUNK, 0x20, '{'}) {
+            assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.register(tag, Object.class, codec), "tag " + tag);
+        }
+    }
+
+    @Test
+    void unknownTagIsRejected() {
+        ByteBuf buf = Unpooled.wrappedBuffer(new byte[]{0x1D});
+        assertThrows(DecoderException.class, () -> BinaryProtocol.decode(buf));
+        buf.release();
+    }
+}
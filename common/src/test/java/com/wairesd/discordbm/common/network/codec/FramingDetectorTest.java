@@ -0,0 +1,115 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldPrepender;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.wairesd.discordbm.common.network.codec.VarIntFramingTest.frame;
+import static com.wairesd.discordbm.common.network.codec.VarIntFramingTest.readString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FramingDetectorTest {
+
+    @Test
+    void clientWithoutPreambleGetsTwoByteFraming() {
+        EmbeddedChannel host = hostChannel();
+        ByteBuf wire = Unpooled.buffer();
+        for (String text : new String[]{"{\"type\":\"client_register\"}", "second"}) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            wire.writeShort(bytes.length).writeBytes(bytes);
+        }
+        host.writeInbound(wire);
+
+        assertEquals("{\"type\":\"client_register\"}", readString(host));
+        assertEquals("second", readString(host));
+        assertTrue(FramingDetector.isLegacy(host));
+        assertNull(host.pipeline().get("framingDetector"));
+        assertNull(host.pipeline().get("chunkSplitter"));
+        assertInstanceOf(LengthFieldPrepender.class, host.pipeline().get("frameEncoder"));
+        assertFalse(host.finish());
+    }
+
+    @Test
+    void preambleSelectsVarIntFraming() {
+        EmbeddedChannel host = hostChannel();
+        ByteBuf wire = preamble(FramingPreamble.VERSION);
+        frame(wire, "hello");
+        while (wire.isReadable()) {
+            host.writeInbound(wire.readRetainedSlice(1));
+        }
+        wire.release();
+
+        assertEquals("hello", readString(host));
+        assertFalse(FramingDetector.isLegacy(host));
+        assertNull(host.pipeline().get("framingDetector"));
+        assertInstanceOf(VarIntFrameDecoder.class, host.pipeline().get("frameDecoder"));
+        assertFalse(host.finish());
+    }
+
+    @Test
+    void unknownFramingVersionIsRejected() {
+        EmbeddedChannel host = hostChannel();
+        assertThrows(FramingDetector.UnsupportedFramingException.class,
+                () -> host.writeInbound(preamble(FramingPreamble.VERSION + 1)));
+        assertFalse(host.isOpen());
+    }
+
+    @Test
+    void brokenMagicIsRejected() {
+        EmbeddedChannel host = hostChannel();
+        ByteBuf wire = Unpooled.wrappedBuffer(new byte[]{(byte) 0xFF, 'X', 'Y', 'Z', 1});
+        assertThrows(FramingDetector.UnsupportedFramingException.class, () -> host.writeInbound(wire));
+        assertFalse(host.isOpen());
+    }
+
+    @Test
+    void clientSendsPreambleOnceBeforeFirstFrame() {
+        EmbeddedChannel client = new EmbeddedChannel();
+        client.pipeline().addLast("framingPreamble", new FramingPreamble());
+        client.pipeline().addLast("frameEncoder", new VarIntFramePrepender());
+        client.writeOutbound(Unpooled.copiedBuffer("one", StandardCharsets.UTF_8));
+        client.writeOutbound(Unpooled.copiedBuffer("two", StandardCharsets.UTF_8));
+        assertNull(client.pipeline().get("framingPreamble"));
+
+        ByteBuf wire = Unpooled.buffer();
+        for (ByteBuf part; (part = client.readOutbound()) != null; ) {
+            wire.writeBytes(part);
+            part.release();
+        }
+        ByteBuf expected = preamble(FramingPreamble.VERSION);
+        frame(expected, "one");
+        frame(expected, "two");
+        assertEquals(expected, wire);
+        expected.release();
+
+        EmbeddedChannel host = hostChannel();
+        host.writeInbound(wire);
+        assertEquals("one", readString(host));
+        assertEquals("two", readString(host));
+        assertFalse(FramingDetector.isLegacy(host));
+        assertFalse(client.finish());
+        assertFalse(host.finish());
+    }
+
+    private static EmbeddedChannel hostChannel() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast("framingDetector", new FramingDetector());
+        channel.pipeline().addLast("frameDecoder", new VarIntFrameDecoder(FrameLimits.MAX_FRAME_BYTES));
+        channel.pipeline().addLast("frameEncoder", new VarIntFramePrepender());
+        channel.pipeline().addLast("chunkSplitter", new ChunkedFrameSplitter());
+        return channel;
+    }
+
+    private static ByteBuf preamble(int version) {
+        return Unpooled.buffer().writeBytes(FramingPreamble.MAGIC).writeByte(version);
+    }
+}
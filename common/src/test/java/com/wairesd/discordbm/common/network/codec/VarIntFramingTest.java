@@ -0,0 +1,103 @@
+package com.wairesd.discordbm.common.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VarIntFramingTest {
+
+    @Test
+    void prependerWritesVarIntLength() {
+        EmbeddedChannel channel = new EmbeddedChannel(new VarIntFramePrepender());
+        channel.writeOutbound(Unpooled.wrappedBuffer(new byte[300]));
+        ByteBuf header = channel.readOutbound();
+        ByteBuf body = channel.readOutbound();
+        assertEquals(2, header.readableBytes());
+        assertEquals(300, BinaryProtocol.readVarInt(header));
+        assertEquals(300, body.readableBytes());
+        header.release();
+        body.release();
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void decoderReassemblesFramesSplitAcrossReads() {
+        ByteBuf wire = Unpooled.buffer();
+        frame(wire, "first");
+        frame(wire, "x".repeat(200));
+        EmbeddedChannel channel = new EmbeddedChannel(new VarIntFrameDecoder(FrameLimits.MAX_FRAME_BYTES));
+        while (wire.isReadable()) {
+            channel.writeInbound(wire.readRetainedSlice(1));
+        }
+        wire.release();
+        assertEquals("first", readString(channel));
+        assertEquals("x".repeat(200), readString(channel));
+        assertNull(channel.readInbound());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void decoderSkipsEmptyFrames() {
+        EmbeddedChannel channel = new EmbeddedChannel(new VarIntFrameDecoder(FrameLimits.MAX_FRAME_BYTES));
+        ByteBuf wire = Unpooled.buffer();
+        wire.writeByte(0);
+        frame(wire, "after");
+        channel.writeInbound(wire);
+        assertEquals("after", readString(channel));
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    void decoderRejectsOversizedFrame() {
+        EmbeddedChannel channel = new EmbeddedChannel(new VarIntFrameDecoder(16));
+        ByteBuf wire = Unpooled.buffer();
+        BinaryProtocol.writeVarInt(wire, 17);
+        assertThrows(TooLongFrameException.class, () -> channel.writeInbound(wire));
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    void decoderRejectsOverlongLength() {
+        EmbeddedChannel channel = new EmbeddedChannel(new VarIntFrameDecoder(FrameLimits.MAX_FRAME_BYTES));
+        ByteBuf wire = Unpooled.wrappedBuffer(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01});
+        assertThrows(CorruptedFrameException.class, () -> channel.writeInbound(wire));
+    }
+
+    @Test
+    void prependerOutputDecodes() {
+        EmbeddedChannel writer = new EmbeddedChannel(new VarIntFramePrepender());
+        writer.writeOutbound(Unpooled.copiedBuffer("round trip", StandardCharsets.UTF_8));
+        EmbeddedChannel reader = new EmbeddedChannel(new VarIntFrameDecoder(FrameLimits.MAX_FRAME_BYTES));
+        for (Object part; (part = writer.readOutbound()) != null; ) {
+            reader.writeInbound(part);
+        }
+        assertEquals("round trip", readString(reader));
+        assertFalse(writer.finish());
+        assertFalse(reader.finish());
+    }
+
+    static void frame(ByteBuf wire, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        BinaryProtocol.writeVarInt(wire, bytes.length);
+        wire.writeBytes(bytes);
+    }
+
+    static String readString(EmbeddedChannel channel) {
+        ByteBuf frame = channel.readInbound();
+        try {
+            return frame.toString(StandardCharsets.UTF_8);
+        } finally {
+            frame.release();
+        }
+    }
+}
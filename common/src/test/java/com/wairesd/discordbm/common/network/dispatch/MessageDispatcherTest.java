@@ -0,0 +1,37 @@
+package com.wairesd.discordbm.common.network.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MessageDispatcherTest {
+
+    @Test
+    void peeksTheTopLevelType() {
+        assertEquals("response", MessageDispatcher.peekJsonType("{\"type\":\"response\",\"requestId\":\"1\"}"));
+        assertEquals("response", MessageDispatcher.peekJsonType("{ \"type\" : \"response\" }"));
+    }
+
+    @Test
+    void skipsNestedTypes() {
+        String json = "{\"embed\":{\"type\":\"rich\"},\"buttons\":[{\"type\":\"heartbeat\"}],\"type\":\"response\"}";
+        assertEquals("response", MessageDispatcher.peekJsonType(json));
+        assertNull(MessageDispatcher.peekJsonType("{\"modal\":{\"fields\":[{\"type\":\"short\"}]}}"));
+    }
+
+    @Test
+    void skipsTypeInsideStrings() {
+        assertEquals("response", MessageDispatcher.peekJsonType(
+                "{\"response\":\"the \\\"type\\\":\\\"heartbeat\\\" {\",\"type\":\"response\"}"));
+        assertNull(MessageDispatcher.peekJsonType("{\"text\":\"\\\"type\\\"\"}"));
+    }
+
+    @Test
+    void ignoresNonStringAndMalformedTypes() {
+        assertNull(MessageDispatcher.peekJsonType("{\"type\":1}"));
+        assertNull(MessageDispatcher.peekJsonType("{\"type\":\"resp"));
+        assertNull(MessageDispatcher.peekJsonType("not json"));
+        assertNull(MessageDispatcher.peekJsonType(""));
+    }
+}